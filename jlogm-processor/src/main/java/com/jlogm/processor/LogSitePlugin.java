@@ -0,0 +1,63 @@
+package com.jlogm.processor;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Plugin;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+
+/**
+ * A javac plugin passing the caller location of the jlogm log sites as constants, so their origin is never located
+ * from the stack trace at runtime.
+ *
+ * <p>Every {@code LogSite.create()} call is replaced by a {@code static final} field of its top-level class,
+ * created with {@code LogSite.of(new StackTraceElement(class, method, file, line))} from the location of the
+ * call. Log sites can then be created inline, each statement getting a single site with its own rate limiting and
+ * sampling state:
+ * <pre>{@code
+ * logger.registry(LogSite.create(), Level.DEBUG).log("cache miss for {}", key);
+ * }</pre>
+ *
+ * <p>The plugin is enabled with the {@code -Xplugin:jlogm} compiler option, with this module on the processor path.
+ * Code compiled without it keeps working, {@code LogSite.create()} locates its caller from the stack trace.</p>
+ */
+public final class LogSitePlugin implements Plugin {
+
+    // Static initializers
+
+    public static final String NAME = "jlogm";
+
+    // Object
+
+    public LogSitePlugin() {
+    }
+
+    // Implementations
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void init(JavacTask task, String... arguments) {
+        Context context = ((BasicJavacTask) task).getContext();
+
+        task.addTaskListener(new TaskListener() {
+            @Override
+            public void started(TaskEvent event) {
+            }
+
+            @Override
+            public void finished(TaskEvent event) {
+                // The calls are rewritten before the trees are attributed
+                if (event.getKind() == TaskEvent.Kind.PARSE) {
+                    new LogSiteTranslator(context, (JCCompilationUnit) event.getCompilationUnit()).translate();
+                }
+            }
+        });
+    }
+
+}
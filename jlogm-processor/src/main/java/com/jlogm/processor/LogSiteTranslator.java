@@ -0,0 +1,245 @@
+package com.jlogm.processor;
+
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCBlock;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCExpression;
+import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
+import com.sun.tools.javac.tree.JCTree.JCImport;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCMethodInvocation;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.tree.TreeScanner;
+import com.sun.tools.javac.tree.TreeTranslator;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.ListBuffer;
+import com.sun.tools.javac.util.Name;
+import com.sun.tools.javac.util.Names;
+
+/**
+ * Replaces the {@code LogSite.create()} calls of a parsed compilation unit by constants holding their location.
+ *
+ * <p>The calls are matched by name, as {@code LogSite.create()} or {@code com.jlogm.LogSite.create()}, since the
+ * trees aren't attributed yet. The simple name is only matched when it refers to the jlogm log site as far as the
+ * unit tells: the unit is in the {@code com.jlogm} package or imports {@code com.jlogm.LogSite} or
+ * {@code com.jlogm.*}, and neither declares nor imports another {@code LogSite} type. The class name is the binary name of the enclosing named class, local classes are
+ * named as if they were member classes and anonymous classes as their enclosing class.</p>
+ */
+final class LogSiteTranslator extends TreeTranslator {
+
+    // Static initializers
+
+    private static final String LOG_SITE = "com.jlogm.LogSite";
+    private static final String FIELD = "$jlogm$site$";
+
+    // Object
+
+    private final TreeMaker make;
+    private final Names names;
+    private final JCCompilationUnit unit;
+    private final String file;
+
+    // Whether the simple 'LogSite' name refers to the jlogm log site
+    private final boolean imported;
+
+    // The enclosing top-level class and the constants added to it
+    private JCClassDecl top;
+    private ListBuffer<JCTree> constants;
+    private int count;
+
+    // Binary name of the enclosing named class, and name of the enclosing method or initializer
+    private String type;
+    private String method;
+    private boolean interfaced;
+
+    LogSiteTranslator(Context context, JCCompilationUnit unit) {
+        this.make = TreeMaker.instance(context);
+        this.names = Names.instance(context);
+        this.unit = unit;
+
+        String path = unit.getSourceFile().getName();
+        this.file = path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+        this.imported = isImported(unit);
+    }
+
+    // Modules
+
+    void translate() {
+        String pkg = unit.getPackageName() != null ? unit.getPackageName().toString() + "." : "";
+
+        for (JCTree definition : unit.defs) {
+            if (!(definition instanceof JCClassDecl)) continue;
+            JCClassDecl declaration = (JCClassDecl) definition;
+
+            top = declaration;
+            constants = new ListBuffer<>();
+            type = pkg + declaration.name;
+            method = null;
+            interfaced = isInterface(declaration);
+
+            declaration.defs = translate(declaration.defs);
+
+            // Declared first, so they're initialized before the static fields using them
+            if (!constants.isEmpty()) {
+                declaration.defs = declaration.defs.prependList(constants.toList());
+            }
+        }
+    }
+
+    // Implementations
+
+    @Override
+    public void visitClassDef(JCClassDecl tree) {
+        String type = this.type;
+        String method = this.method;
+        boolean interfaced = this.interfaced;
+
+        if (!tree.name.isEmpty()) this.type = type + "$" + tree.name;
+        this.method = null;
+        this.interfaced = isInterface(tree);
+
+        try {
+            super.visitClassDef(tree);
+        } finally {
+            this.type = type;
+            this.method = method;
+            this.interfaced = interfaced;
+        }
+    }
+
+    @Override
+    public void visitMethodDef(JCMethodDecl tree) {
+        String method = this.method;
+        this.method = tree.name.toString();
+
+        try {
+            super.visitMethodDef(tree);
+        } finally {
+            this.method = method;
+        }
+    }
+
+    @Override
+    public void visitVarDef(JCVariableDecl tree) {
+        // Fields are initialized by the constructors or the static initializer
+        if (method != null) {
+            super.visitVarDef(tree);
+            return;
+        }
+
+        this.method = (tree.mods.flags & Flags.STATIC) != 0 || interfaced ? "<clinit>" : "<init>";
+
+        try {
+            super.visitVarDef(tree);
+        } finally {
+            this.method = null;
+        }
+    }
+
+    @Override
+    public void visitBlock(JCBlock tree) {
+        // Initializer blocks
+        if (method != null) {
+            super.visitBlock(tree);
+            return;
+        }
+
+        this.method = (tree.flags & Flags.STATIC) != 0 ? "<clinit>" : "<init>";
+
+        try {
+            super.visitBlock(tree);
+        } finally {
+            this.method = null;
+        }
+    }
+
+    @Override
+    public void visitApply(JCMethodInvocation tree) {
+        super.visitApply(tree);
+
+        if (isCreate(tree) && method != null) {
+            result = constant(tree);
+        }
+    }
+
+    // Utilities
+
+    private boolean isCreate(JCMethodInvocation tree) {
+        if (!tree.args.isEmpty() || !(tree.meth instanceof JCFieldAccess)) return false;
+        JCFieldAccess access = (JCFieldAccess) tree.meth;
+
+        if (!access.name.contentEquals("create")) return false;
+        String receiver = access.selected.toString();
+
+        return (imported && receiver.equals("LogSite")) || receiver.equals(LOG_SITE);
+    }
+
+    private static boolean isImported(JCCompilationUnit unit) {
+        boolean imported = unit.getPackageName() != null && unit.getPackageName().toString().equals("com.jlogm");
+
+        for (JCImport declaration : unit.getImports()) {
+            if (declaration.isStatic()) continue;
+            String name = declaration.getQualifiedIdentifier().toString();
+
+            if (name.equals(LOG_SITE) || name.equals("com.jlogm.*")) {
+                imported = true;
+            } else if (name.endsWith(".LogSite")) {
+                // Another log site type is imported
+                return false;
+            }
+        }
+
+        return imported && !declares(unit);
+    }
+
+    private static boolean declares(JCCompilationUnit unit) {
+        boolean[] declared = { false };
+
+        new TreeScanner() {
+            @Override
+            public void visitClassDef(JCClassDecl tree) {
+                if (tree.name.contentEquals("LogSite")) declared[0] = true;
+                super.visitClassDef(tree);
+            }
+        }.scan(unit);
+
+        return declared[0];
+    }
+
+    private JCExpression constant(JCMethodInvocation tree) {
+        int line = (int) unit.getLineMap().getLineNumber(tree.pos);
+        Name name = names.fromString(FIELD + count++);
+
+        make.at(tree.pos);
+
+        // LogSite.of(new StackTraceElement(type, method, file, line))
+        JCExpression origin = make.NewClass(null, List.nil(), qualified("java.lang.StackTraceElement"), List.of(make.Literal(type), make.Literal(method), make.Literal(file), make.Literal(line)), null);
+        JCExpression site = make.Apply(List.nil(), make.Select(qualified(LOG_SITE), names.fromString("of")), List.of(origin));
+
+        // Interface fields are implicitly public
+        long flags = Flags.STATIC | Flags.FINAL | (isInterface(top) ? 0 : Flags.PRIVATE);
+        constants.append(make.VarDef(make.Modifiers(flags), name, qualified(LOG_SITE), site));
+
+        return make.Ident(name);
+    }
+
+    private static boolean isInterface(JCClassDecl declaration) {
+        return (declaration.mods.flags & Flags.INTERFACE) != 0;
+    }
+
+    private JCExpression qualified(String name) {
+        String[] parts = name.split("\\.");
+
+        JCExpression expression = make.Ident(names.fromString(parts[0]));
+        for (int index = 1; index < parts.length; index++) {
+            expression = make.Select(expression, names.fromString(parts[index]));
+        }
+
+        return expression;
+    }
+
+}
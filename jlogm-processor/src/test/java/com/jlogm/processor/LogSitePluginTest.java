@@ -0,0 +1,163 @@
+package com.jlogm.processor;
+
+import com.sun.source.util.JavacTask;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LogSitePlugin}, compiling sources against a stub of the jlogm log site.
+ */
+public class LogSitePluginTest {
+
+    private static final String LOG_SITE = String.join("\n",
+            "package com.jlogm;",
+            "public final class LogSite {",
+            "    public static LogSite create() { throw new IllegalStateException(\"not rewritten\"); }",
+            "    public static LogSite of(StackTraceElement origin) { return new LogSite(origin); }",
+            "    private final StackTraceElement origin;",
+            "    private LogSite(StackTraceElement origin) { this.origin = origin; }",
+            "    public StackTraceElement getOrigin() { return origin; }",
+            "}");
+
+    private static final String SAMPLE = String.join("\n",
+            "package sample;",
+            "import com.jlogm.LogSite;",
+            "public class Sample {",
+            "    static final LogSite FIELD = LogSite.create();",
+            "    static LogSite inline() {",
+            "        return LogSite.create();",
+            "    }",
+            "    static class Nested {",
+            "        static LogSite site() { return com.jlogm.LogSite.create(); }",
+            "    }",
+            "}");
+
+    private static final String MODE = String.join("\n",
+            "package sample;",
+            "public enum Mode {",
+            "    FIRST;",
+            "    static final com.jlogm.LogSite SITE = com.jlogm.LogSite.create();",
+            "}");
+
+    private static final String OTHER_LOG_SITE = String.join("\n",
+            "package other;",
+            "public final class LogSite {",
+            "    public static LogSite create() { return new LogSite(); }",
+            "}");
+
+    private static final String FOREIGN = String.join("\n",
+            "package sample;",
+            "import com.jlogm.*;",
+            "import other.LogSite;",
+            "public class Foreign {",
+            "    static Object imported() { return LogSite.create(); }",
+            "    static Object qualified() { return com.jlogm.LogSite.create(); }",
+            "}");
+
+    private static final String LOCAL = String.join("\n",
+            "package local;",
+            "public class Local {",
+            "    static Object site() { return LogSite.create(); }",
+            "}",
+            "class LogSite {",
+            "    static LogSite create() { return new LogSite(); }",
+            "}");
+
+    @Test
+    public void testCallsAreRewritten() throws Exception {
+        Path output = Files.createTempDirectory("jlogm-processor");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        List<JavaFileObject> sources = Arrays.asList(source("com/jlogm/LogSite.java", LOG_SITE), source("sample/Sample.java", SAMPLE), source("sample/Mode.java", MODE));
+        JavacTask task = (JavacTask) compiler.getTask(null, null, null, Arrays.asList("-d", output.toString()), null, sources);
+
+        new LogSitePlugin().init(task);
+        assertTrue(task.call());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { output.toUri().toURL() })) {
+            Class<?> sample = loader.loadClass("sample.Sample");
+
+            assertOrigin(field(sample, "FIELD"), "sample.Sample", "<clinit>", 4);
+
+            Method inline = sample.getDeclaredMethod("inline");
+            inline.setAccessible(true);
+            assertOrigin(inline.invoke(null), "sample.Sample", "inline", 6);
+            assertSame(inline.invoke(null), inline.invoke(null));
+
+            Method nested = loader.loadClass("sample.Sample$Nested").getDeclaredMethod("site");
+            nested.setAccessible(true);
+            assertOrigin(nested.invoke(null), "sample.Sample$Nested", "site", 9);
+
+            assertOrigin(field(loader.loadClass("sample.Mode"), "SITE"), "sample.Mode", "<clinit>", 4);
+        }
+    }
+
+    @Test
+    public void testOtherLogSitesAreKept() throws Exception {
+        Path output = Files.createTempDirectory("jlogm-processor");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        List<JavaFileObject> sources = Arrays.asList(source("com/jlogm/LogSite.java", LOG_SITE), source("other/LogSite.java", OTHER_LOG_SITE), source("sample/Foreign.java", FOREIGN), source("local/Local.java", LOCAL));
+        JavacTask task = (JavacTask) compiler.getTask(null, null, null, Arrays.asList("-d", output.toString()), null, sources);
+
+        new LogSitePlugin().init(task);
+        assertTrue(task.call());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { output.toUri().toURL() })) {
+            Class<?> foreign = loader.loadClass("sample.Foreign");
+
+            assertEquals("other.LogSite", invoke(foreign, "imported").getClass().getName());
+            assertOrigin(invoke(foreign, "qualified"), "sample.Foreign", "qualified", 6);
+            assertEquals("local.LogSite", invoke(loader.loadClass("local.Local"), "site").getClass().getName());
+        }
+    }
+
+    private static void assertOrigin(Object site, String type, String method, int line) throws Exception {
+        assertNotNull(site);
+        StackTraceElement origin = (StackTraceElement) site.getClass().getMethod("getOrigin").invoke(site);
+
+        assertEquals(type, origin.getClassName());
+        assertEquals(method, origin.getMethodName());
+        assertEquals(line, origin.getLineNumber());
+        assertTrue(origin.getFileName().endsWith(".java"));
+    }
+
+    private static Object invoke(Class<?> type, String name) throws Exception {
+        Method method = type.getDeclaredMethod(name);
+        method.setAccessible(true);
+
+        return method.invoke(null);
+    }
+
+    private static Object field(Class<?> type, String name) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+
+        return field.get(null);
+    }
+
+    private static JavaFileObject source(String path, String content) {
+        return new SimpleJavaFileObject(URI.create("string:///" + path), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+}
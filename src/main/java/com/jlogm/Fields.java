@@ -0,0 +1,320 @@
+package com.jlogm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The structured key-value fields of a single registry, in insertion order.
+ *
+ * <p>Fields are kept in parallel arrays specialized by type: {@code long}, {@code double} and {@code boolean}
+ * values are stored unboxed, so they can be written by the formatters without allocating. Values are read by
+ * index:
+ * <pre>{@code
+ * for (int index = 0; index < fields.size(); index++) {
+ *     if (fields.getType(index) == Fields.Type.LONG) {
+ *         output.write(fields.getKey(index), fields.getLong(index));
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>The fields of a registry are immutable, they're collected by a {@link Builder} while the registry is built.
+ * Adding a key that's already present replaces its value.</p>
+ */
+public final class Fields {
+
+    // Static initializers
+
+    public static final @NotNull Fields EMPTY = new Fields(new String[0], new byte[0], new long[0], null, 0);
+
+    // Object
+
+    private final @NotNull String @NotNull [] keys;
+    private final byte @NotNull [] types;
+    // Long values, double bits and booleans as 0 or 1
+    private final long @NotNull [] primitives;
+    // Only allocated once an object value is added
+    private final @Nullable Object @Nullable [] objects;
+
+    private final int size;
+
+    private Fields(@NotNull String @NotNull [] keys, byte @NotNull [] types, long @NotNull [] primitives, @Nullable Object @Nullable [] objects, int size) {
+        this.keys = keys;
+        this.types = types;
+        this.primitives = primitives;
+        this.objects = objects;
+        this.size = size;
+    }
+
+    // Getters
+
+    public int size() {
+        return size;
+    }
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public @NotNull String getKey(int index) {
+        return keys[check(index)];
+    }
+    public @NotNull Type getType(int index) {
+        return Type.values[types[check(index)]];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the field isn't a {@link Type#LONG} field
+     */
+    public long getLong(int index) {
+        return primitives[check(index, Type.LONG)];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the field isn't a {@link Type#DOUBLE} field
+     */
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(primitives[check(index, Type.DOUBLE)]);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the field isn't a {@link Type#BOOLEAN} field
+     */
+    public boolean getBoolean(int index) {
+        return primitives[check(index, Type.BOOLEAN)] != 0;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the field isn't an {@link Type#OBJECT} field
+     */
+    public @Nullable Object getObject(int index) {
+        check(index, Type.OBJECT);
+        return objects != null ? objects[index] : null;
+    }
+
+    /**
+     * Returns the value of the field, boxing primitive values. Prefer the typed getters.
+     *
+     * @param index the index of the field
+     * @return the value of the field
+     */
+    public @Nullable Object getValue(int index) {
+        switch (getType(index)) {
+            case LONG:
+                return getLong(index);
+            case DOUBLE:
+                return getDouble(index);
+            case BOOLEAN:
+                return getBoolean(index);
+            default:
+                return getObject(index);
+        }
+    }
+
+    /**
+     * @param key the key of the field
+     * @return the index of the field with the key, or -1 if there's no such field
+     */
+    public int indexOf(@NotNull String key) {
+        for (int index = 0; index < size; index++) {
+            if (keys[index].equals(key)) return index;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Appends the value as text, primitives are appended without boxing and null objects as {@code null}.
+     *
+     * @param index the index of the field
+     * @param builder the builder receiving the value
+     * @return the builder
+     */
+    public @NotNull StringBuilder appendValue(int index, @NotNull StringBuilder builder) {
+        switch (getType(index)) {
+            case LONG:
+                return builder.append(getLong(index));
+            case DOUBLE:
+                return builder.append(getDouble(index));
+            case BOOLEAN:
+                return builder.append(getBoolean(index));
+            default:
+                return builder.append(getObject(index));
+        }
+    }
+
+    // Utilities
+
+    private int check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("there's no field at index " + index);
+        }
+
+        return index;
+    }
+    private int check(int index, @NotNull Type type) {
+        if (types[check(index)] != type.ordinal()) {
+            throw new IllegalArgumentException("the field '" + keys[index] + "' isn't a " + type.name().toLowerCase() + " field");
+        }
+
+        return index;
+    }
+
+    // Implementations
+
+    @Override
+    public boolean equals(@Nullable Object object) {
+        if (this == object) return true;
+        if (!(object instanceof Fields)) return false;
+        @NotNull Fields fields = (Fields) object;
+        if (size != fields.size) return false;
+
+        for (int index = 0; index < size; index++) {
+            if (!keys[index].equals(fields.keys[index]) || types[index] != fields.types[index] || primitives[index] != fields.primitives[index]) return false;
+            if (types[index] == Type.OBJECT.ordinal() && !Objects.equals(getObject(index), fields.getObject(index))) return false;
+        }
+
+        return true;
+    }
+    @Override
+    public int hashCode() {
+        int hash = 1;
+
+        for (int index = 0; index < size; index++) {
+            hash = 31 * hash + keys[index].hashCode();
+            hash = 31 * hash + Long.hashCode(primitives[index]);
+            hash = 31 * hash + (types[index] == Type.OBJECT.ordinal() ? Objects.hashCode(getObject(index)) : 0);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        @NotNull StringBuilder builder = new StringBuilder("{");
+
+        for (int index = 0; index < size; index++) {
+            if (index > 0) builder.append(", ");
+            appendValue(index, builder.append(keys[index]).append('='));
+        }
+
+        return builder.append('}').toString();
+    }
+
+    // Classes
+
+    /**
+     * The type of a field value.
+     */
+    public enum Type {
+
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        OBJECT;
+
+        private static final @NotNull Type @NotNull [] values = values();
+
+    }
+
+    /**
+     * Collects the fields of a registry being built. Builders aren't thread-safe, and are emptied by
+     * {@link #build()} so the built fields never change.
+     */
+    public static final class Builder {
+
+        private @NotNull String @NotNull [] keys = new String[0];
+        private byte @NotNull [] types = new byte[0];
+        private long @NotNull [] primitives = new long[0];
+        private @Nullable Object @Nullable [] objects;
+
+        private int size;
+
+        public Builder() {
+        }
+
+        // Modules
+
+        public @NotNull Builder put(@NotNull String key, long value) {
+            return put(key, Type.LONG, value, null);
+        }
+        public @NotNull Builder put(@NotNull String key, double value) {
+            return put(key, Type.DOUBLE, Double.doubleToRawLongBits(value), null);
+        }
+        public @NotNull Builder put(@NotNull String key, boolean value) {
+            return put(key, Type.BOOLEAN, value ? 1 : 0, null);
+        }
+        /**
+         * Adds an object field, boxed numbers and booleans are unboxed into primitive fields.
+         */
+        public @NotNull Builder put(@NotNull String key, @Nullable Object value) {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return put(key, ((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                return put(key, ((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                return put(key, (boolean) (Boolean) value);
+            }
+
+            return put(key, Type.OBJECT, 0, value);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the collected fields; this builder is emptied
+         */
+        public @NotNull Fields build() {
+            if (size == 0) return EMPTY;
+
+            @NotNull Fields fields = new Fields(keys, types, primitives, objects, size);
+
+            keys = new String[0];
+            types = new byte[0];
+            primitives = new long[0];
+            objects = null;
+            size = 0;
+
+            return fields;
+        }
+
+        private @NotNull Builder put(@NotNull String key, @NotNull Type type, long primitive, @Nullable Object object) {
+            int index = 0;
+            while (index < size && !keys[index].equals(key)) index++;
+
+            if (index == size) {
+                if (size == keys.length) grow();
+                size++;
+            }
+
+            keys[index] = key;
+            types[index] = (byte) type.ordinal();
+            primitives[index] = primitive;
+
+            if (object != null && objects == null) {
+                objects = new Object[keys.length];
+            } if (objects != null) {
+                objects[index] = object;
+            }
+
+            return this;
+        }
+
+        private void grow() {
+            int capacity = Math.max(4, keys.length * 2);
+
+            keys = Arrays.copyOf(keys, capacity);
+            types = Arrays.copyOf(types, capacity);
+            primitives = Arrays.copyOf(primitives, capacity);
+
+            if (objects != null) {
+                objects = Arrays.copyOf(objects, capacity);
+            }
+        }
+
+    }
+
+}
@@ -11,4 +11,13 @@ public interface Filter {
     }
 
     boolean isSuppressed(@NotNull Registry.Builder registry, @Nullable Object object);
+
+    /**
+     * Filters only see the builder, so the origin is the only field they may need.
+     *
+     * @return the registry fields read by this filter, as a {@link Requirements} bitmask; the origin by default
+     */
+    default int getRequirements() {
+        return Requirements.ORIGIN;
+    }
 }
\ No newline at end of file
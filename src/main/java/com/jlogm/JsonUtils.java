@@ -1,20 +1,69 @@
 package com.jlogm;
 
+import com.jlogm.context.LogCtx;
 import com.jlogm.utils.Coloured;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
 
 final class JsonUtils {
 
     // Static initializers
 
+    private static final char @NotNull [] HEX = "0123456789abcdef".toCharArray();
+
+    // The last context and stack fragments of each thread, keyed by the identity of the immutable snapshots
+    private static final @NotNull ThreadLocal<Fragment> CONTEXT = ThreadLocal.withInitial(Fragment::new);
+    private static final @NotNull ThreadLocal<Fragment> STACK = ThreadLocal.withInitial(Fragment::new);
+
+    /**
+     * Escapes the string to be used as JSON string content, removing any ANSI escape sequence.
+     *
+     * @param s the string to escape
+     * @return the escaped string, or the same instance if there's nothing to escape or remove
+     */
     public static @NotNull String escapeJson(@NotNull String s) {
-        // Variables
-        s = Coloured.sanitize(s);
+        int index = 0;
+        while (index < s.length() && !special(s.charAt(index))) {
+            index++;
+        }
+
+        // Nothing to escape
+        if (index == s.length()) {
+            return s;
+        }
+
         @NotNull StringBuilder sb = new StringBuilder(s.length() + 16);
+        escapeJson(s, index, sb);
+
+        return sb.toString();
+    }
+
+    /**
+     * Escapes the string and removes any ANSI escape sequence in a single pass, appending the result
+     * to the builder.
+     *
+     * @param s the string to escape
+     * @param sb the builder receiving the escaped content
+     */
+    public static void escapeJson(@NotNull String s, @NotNull StringBuilder sb) {
+        escapeJson(s, 0, sb);
+    }
+
+    private static void escapeJson(@NotNull String s, int from, @NotNull StringBuilder sb) {
+        // Plain content before the first special character
+        sb.append(s, 0, from);
 
-        // Escape all characters
-        for (int i = 0; i < s.length(); i++) {
+        for (int i = from; i < s.length(); i++) {
             char c = s.charAt(i);
+
+            if (!special(c)) {
+                sb.append(c);
+                continue;
+            }
+
             switch (c) {
                 case '"': sb.append("\\\""); break;
                 case '\\': sb.append("\\\\"); break;
@@ -24,17 +73,127 @@ final class JsonUtils {
                 case '\r': sb.append("\\r"); break;
                 case '\t': sb.append("\\t"); break;
                 default:
-                    if (c < 0x20) {
-                        // controla outros chars de controle
-                        sb.append(String.format("\\u%04x", (int)c));
+                    int end = c == '\u001B' ? Coloured.sequence(s, i) : -1;
+
+                    if (end >= 0) {
+                        // Skips the whole ANSI sequence
+                        i = end;
                     } else {
-                        sb.append(c);
+                        sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
                     }
             }
         }
+    }
 
-        // Finish
-        return sb.toString();
+    /**
+     * Appends the fields as the members of a JSON object, without the braces. Numbers and booleans are written
+     * as JSON literals, non-finite doubles and objects as strings.
+     *
+     * @param fields the fields to append
+     * @param sb the builder receiving the members
+     */
+    public static void appendFields(@NotNull Fields fields, @NotNull StringBuilder sb) {
+        for (int index = 0; index < fields.size(); index++) {
+            if (index > 0) sb.append(',');
+
+            sb.append('"');
+            escapeJson(fields.getKey(index), sb);
+            sb.append("\":");
+
+            @NotNull Fields.Type type = fields.getType(index);
+
+            if (type == Fields.Type.OBJECT) {
+                @Nullable Object value = fields.getObject(index);
+
+                if (value != null) {
+                    sb.append('"');
+                    escapeJson(value.toString(), sb);
+                    sb.append('"');
+                } else {
+                    sb.append("null");
+                }
+            } else if (type == Fields.Type.DOUBLE && !Double.isFinite(fields.getDouble(index))) {
+                fields.appendValue(index, sb.append('"')).append('"');
+            } else {
+                fields.appendValue(index, sb);
+            }
+        }
+    }
+
+    /**
+     * Appends the context as the members of a JSON object, without the braces. Values are written as strings.
+     *
+     * <p>Contexts are immutable and replaced on every change, so the snapshot instance is their version: the
+     * fragment of the last context is kept per thread and appended again while the context doesn't change. Contexts
+     * with values that aren't {@link LogCtx#isImmutable(Map) immutable} are rendered every time.</p>
+     *
+     * @param context the context to append
+     * @param sb the builder receiving the members
+     */
+    public static void appendContext(@NotNull Map<String, Object> context, @NotNull StringBuilder sb) {
+        @NotNull Fragment fragment = CONTEXT.get();
+
+        if (fragment.key != context) {
+            @NotNull StringBuilder members = new StringBuilder();
+
+            boolean first = true;
+            for (@NotNull Map.Entry<String, Object> entry : context.entrySet()) {
+                if (!first) members.append(',');
+
+                members.append('"');
+                escapeJson(entry.getKey(), members);
+                members.append("\":");
+
+                if (entry.getValue() != null) {
+                    members.append('"');
+                    escapeJson(entry.getValue().toString(), members);
+                    members.append('"');
+                } else {
+                    members.append("null");
+                }
+
+                first = false;
+            }
+
+            // Mutable values may render differently next time, their contexts are rendered again
+            fragment.key = LogCtx.isImmutable(context) ? context : null;
+            fragment.value = members.toString();
+        }
+
+        sb.append(fragment.value);
+    }
+
+    /**
+     * Appends the stack values bottom first as the elements of a JSON array, without the brackets. The fragment of
+     * the last stack is reused like the context one, see {@link #appendContext(Map, StringBuilder)}.
+     *
+     * @param stack the stack values, top first
+     * @param sb the builder receiving the elements
+     */
+    public static void appendStack(@NotNull Set<String> stack, @NotNull StringBuilder sb) {
+        @NotNull Fragment fragment = STACK.get();
+
+        if (fragment.key != stack) {
+            @NotNull String @NotNull [] values = stack.toArray(new String[0]);
+            @NotNull StringBuilder elements = new StringBuilder();
+
+            for (int index = values.length - 1; index >= 0; index--) {
+                elements.append('"');
+                escapeJson(values[index], elements);
+                elements.append('"');
+
+                if (index > 0) elements.append(',');
+            }
+
+            fragment.key = stack;
+            fragment.value = elements.toString();
+        }
+
+        sb.append(fragment.value);
+    }
+
+    private static boolean special(char c) {
+        return c < 0x20 || c == '"' || c == '\\';
     }
 
     // Object
@@ -43,4 +202,13 @@ final class JsonUtils {
         throw new UnsupportedOperationException("this class cannot be instantiated");
     }
 
+    // Classes
+
+    private static final class Fragment {
+
+        private @Nullable Object key;
+        private @NotNull String value = "";
+
+    }
+
 }
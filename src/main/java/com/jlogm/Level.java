@@ -1,13 +1,24 @@
 package com.jlogm;
 
+import com.jlogm.utils.Coloured;
+import com.jlogm.utils.Rgb;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * A Level is an indicator of the log type. It is used to categorize the logs,
  * allowing for filtering and differentiated formatting. Each log message is associated
  * with a level, which corresponds to the severity of the log.
  *
- * <p>This enum defines a set of standard logging levels with default values.
+ * <p>This class defines a set of standard logging levels with default values.
  * The levels provided are:</p>
  * <ul>
  *   <li>{@code TRACE} - Detailed tracing messages for in-depth debugging.</li>
@@ -17,37 +28,197 @@ import org.jetbrains.annotations.NotNull;
  *   <li>{@code DEBUG} - Fine-grained messages used for debugging purposes.</li>
  * </ul>
  *
+ * <p>Custom levels can be added with {@link #register(String, int, Rgb, org.slf4j.event.Level)}, for example:
+ * <pre>{@code
+ * Level FATAL = Level.register("FATAL", 600, Rgb.of(255, 0, 90), org.slf4j.event.Level.ERROR);
+ * }</pre>
+ *
+ * <p>Every level has an ordinal, in registration order, indexing a table of metadata computed once: the severity
+ * rank, the color, the plain and ANSI colored labels, the JSON encoded name and the equivalent SLF4J level. Levels
+ * are unique per name, so they can be compared by identity like the enum constants they used to be. The only
+ * exception are the {@link #detached(String, int, Rgb, org.slf4j.event.Level) detached} levels, which stand for the
+ * levels of foreign sources and are never part of the table.</p>
+ *
+ * <p>Level used to be an enum. The standard levels keep their constant names and ordinals, and {@link #values()},
+ * {@link #valueOf(String)}, {@link #name()} and {@link #ordinal()} keep their signatures, so the change is
+ * source-compatible for code using only them. It isn't binary-compatible: code compiled against the enum links to
+ * the {@link Enum} supertype and its methods, such as {@code compareTo(Enum)} and the final {@code ordinal()}, and
+ * fails with a {@link NoSuchMethodError} or an {@link IncompatibleClassChangeError}, so the dependants must be
+ * recompiled. Source code switching over the levels, storing them in an {@link java.util.EnumSet} or
+ * {@link java.util.EnumMap}, or passing them where an {@link Enum} is expected doesn't compile anymore and must use
+ * {@code if} chains, sets and maps instead. Serialized levels of the enum can't be read back either, since the
+ * serialized form of enums is specific to them.</p>
+ *
  * <p>Each level has an inherent name which can be retrieved using the {@code getName()} method.
  * The {@code toString()} method is overridden to return the uppercase name of the level,
  * ensuring consistency in log outputs.</p>
  */
-public enum Level {
+public final class Level implements Comparable<Level>, Serializable {
+
+    // Static initializers
+
+    private static final long serialVersionUID = 1L;
+
+    // Copy-on-write tables, read without locking
+    private static volatile @NotNull Level @NotNull [] levels = new Level[0];
+    private static volatile @NotNull Map<String, Level> names = new HashMap<>();
+
+    // Levels by SLF4J level ordinal
+    private static final @NotNull Level @NotNull [] slf4jLevels = new Level[org.slf4j.event.Level.values().length];
 
     /**
      * Trace level logging. Intended for very fine-grained and detailed tracing messages.
      */
-    TRACE,
+    public static final @NotNull Level TRACE = register("TRACE", 100, Rgb.of(123, 123, 123), org.slf4j.event.Level.TRACE);
 
     /**
      * Info level logging. Used for informational messages that communicate the general progress of the application.
      */
-    INFO,
+    public static final @NotNull Level INFO = register("INFO", 300, Rgb.of(160, 160, 160), org.slf4j.event.Level.INFO);
 
     /**
      * Severe level logging. Represents serious error conditions that may prevent the application from continuing.
      */
-    SEVERE,
+    public static final @NotNull Level SEVERE = register("SEVERE", 500, Rgb.of(220, 0, 0), org.slf4j.event.Level.ERROR);
 
     /**
      * Warning level logging. Used for potentially harmful situations that should be noted but do not necessarily
      * require immediate intervention.
      */
-    WARN,
+    public static final @NotNull Level WARN = register("WARN", 400, Rgb.of(255, 255, 0), org.slf4j.event.Level.WARN);
 
     /**
      * Debug level logging. Provides detailed diagnostic information useful during development and debugging.
      */
-    DEBUG;
+    public static final @NotNull Level DEBUG = register("DEBUG", 200, Rgb.of(230, 150, 175), org.slf4j.event.Level.DEBUG);
+
+    static {
+        for (@NotNull Level level : new Level[] { TRACE, DEBUG, INFO, WARN, SEVERE }) {
+            slf4jLevels[level.getSlf4jLevel().ordinal()] = level;
+        }
+    }
+
+    /**
+     * Registers a custom level.
+     *
+     * @param name the name of the level, stored in upper case
+     * @param severity the severity rank, higher values are more severe; the standard levels range from 100 (TRACE)
+     *                 to 500 (SEVERE)
+     * @param color the color of the level label, or null to print it without color
+     * @param slf4j the equivalent SLF4J level
+     * @return the registered level
+     * @throws IllegalArgumentException if a level with the same name is already registered
+     */
+    public static synchronized @NotNull Level register(@NotNull String name, int severity, @Nullable Rgb color, @NotNull org.slf4j.event.Level slf4j) {
+        @NotNull String key = name.toUpperCase(Locale.ROOT);
+
+        if (names.containsKey(key)) {
+            throw new IllegalArgumentException("a level named '" + key + "' is already registered");
+        }
+
+        @NotNull Level level = new Level(key, levels.length, severity, color, slf4j);
+
+        @NotNull Map<String, Level> names = new HashMap<>(Level.names);
+        names.put(key, level);
+
+        @NotNull Level[] levels = Arrays.copyOf(Level.levels, Level.levels.length + 1);
+        levels[level.ordinal] = level;
+
+        Level.names = names;
+        Level.levels = levels;
+
+        return level;
+    }
+
+    /**
+     * Creates a level that isn't registered, for the levels of foreign sources such as the binary logs written by
+     * an application with custom levels. Detached levels have the ordinal {@code -1}, and are neither returned by
+     * {@link #values()} nor by the lookups by name.
+     *
+     * @param name the name of the level, stored in upper case
+     * @param severity the severity rank, higher values are more severe
+     * @param color the color of the level label, or null to print it without color
+     * @param slf4j the equivalent SLF4J level
+     * @return the detached level
+     */
+    public static @NotNull Level detached(@NotNull String name, int severity, @Nullable Rgb color, @NotNull org.slf4j.event.Level slf4j) {
+        return new Level(name.toUpperCase(Locale.ROOT), -1, severity, color, slf4j);
+    }
+
+    /**
+     * @return all the registered levels, in ordinal order
+     */
+    public static @NotNull Level @NotNull [] values() {
+        return levels.clone();
+    }
+
+    /**
+     * @param ordinal the ordinal of the level
+     * @return the level with the ordinal
+     * @throws IndexOutOfBoundsException if there's no level with the ordinal
+     */
+    public static @NotNull Level of(int ordinal) {
+        return levels[ordinal];
+    }
+
+    /**
+     * @param level the SLF4J level
+     * @return the standard level equivalent to the SLF4J level
+     */
+    public static @NotNull Level of(@NotNull org.slf4j.event.Level level) {
+        return slf4jLevels[level.ordinal()];
+    }
+
+    /**
+     * Looks up a level by name, ignoring case.
+     *
+     * @param name the name of the level
+     * @return the level, or null if there's no level with the name
+     */
+    public static @Nullable Level get(@NotNull String name) {
+        return names.get(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Looks up a level by name, ignoring case.
+     *
+     * @param name the name of the level
+     * @return the level
+     * @throws IllegalArgumentException if there's no level with the name
+     */
+    public static @NotNull Level valueOf(@NotNull String name) {
+        @Nullable Level level = get(name);
+
+        if (level == null) {
+            throw new IllegalArgumentException("there's no level named '" + name + "'");
+        }
+
+        return level;
+    }
+
+    // Object
+
+    private final @NotNull String name;
+    private final int ordinal;
+    private final int severity;
+
+    private final @NotNull org.slf4j.event.Level slf4j;
+
+    // Derived metadata, levels are resolved by name when deserialized
+    private final transient @Nullable Rgb color;
+    private final transient @NotNull String ansiLabel;
+    private final transient byte @NotNull [] json;
+
+    private Level(@NotNull String name, int ordinal, int severity, @Nullable Rgb color, @NotNull org.slf4j.event.Level slf4j) {
+        this.name = name;
+        this.ordinal = ordinal;
+        this.severity = severity;
+        this.color = color;
+        this.slf4j = slf4j;
+
+        this.ansiLabel = color != null ? Coloured.of(name).color(color).print() : name;
+        this.json = ("\"" + JsonUtils.escapeJson(name) + "\"").getBytes(StandardCharsets.UTF_8);
+    }
 
     // Getters
 
@@ -60,11 +231,85 @@ public enum Level {
      */
     @NotNull
     public String getName() {
-        return name();
+        return name;
+    }
+
+    /**
+     * @return the name of the level, same as {@link #getName()}
+     */
+    public @NotNull String name() {
+        return name;
+    }
+
+    /**
+     * @return the position of the level in the level table, in registration order, or {@code -1} if the level is
+     * {@link #detached(String, int, Rgb, org.slf4j.event.Level) detached}
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return true if the level is registered, false if it's detached
+     */
+    public boolean isRegistered() {
+        return ordinal >= 0;
+    }
+
+    /**
+     * @return the severity rank, higher values are more severe
+     */
+    public int getSeverity() {
+        return severity;
+    }
+
+    /**
+     * @return the color of the label, or null if the label has no color
+     */
+    public @Nullable Rgb getColor() {
+        return color;
+    }
+
+    /**
+     * @return the equivalent SLF4J level
+     */
+    public @NotNull org.slf4j.event.Level getSlf4jLevel() {
+        return slf4j;
+    }
+
+    /**
+     * @return the name rendered with the level color using ANSI escape sequences
+     */
+    public @NotNull String getAnsiLabel() {
+        return ansiLabel;
+    }
+
+    /**
+     * @return the length of the JSON encoded name, see {@link #getJsonName(byte[], int)}
+     */
+    public int getJsonNameLength() {
+        return json.length;
+    }
+
+    /**
+     * Copies the name encoded as an UTF-8 JSON string, quotes included, into the array.
+     *
+     * @param destination the array receiving the encoded name
+     * @param offset the position of the array to copy to
+     * @return the number of bytes copied
+     */
+    public int getJsonName(byte @NotNull [] destination, int offset) {
+        System.arraycopy(json, 0, destination, offset, json.length);
+        return json.length;
     }
 
     // Implementations
 
+    @Override
+    public int compareTo(@NotNull Level other) {
+        return Integer.compare(ordinal, other.ordinal);
+    }
+
     /**
      * Returns a string representation of the log level.
      * The returned value is the uppercase name of the level, ensuring consistency in log output.
@@ -73,7 +318,21 @@ public enum Level {
      */
     @Override
     public @NotNull String toString() {
-        return name();
+        return name;
+    }
+
+    private @NotNull Object readResolve() throws ObjectStreamException {
+        if (ordinal < 0) return detached(name, severity, null, slf4j);
+        return resolve(name, severity, slf4j);
+    }
+
+    /**
+     * Returns the level with the name, registering it when unknown. Holds the table lock across both steps, so a
+     * concurrent registration of the same name can't make it fail.
+     */
+    private static synchronized @NotNull Level resolve(@NotNull String name, int severity, @NotNull org.slf4j.event.Level slf4j) {
+        @Nullable Level level = get(name);
+        return level != null ? level : register(name, severity, null, slf4j);
     }
 
-}
\ No newline at end of file
+}
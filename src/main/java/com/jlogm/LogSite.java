@@ -0,0 +1,186 @@
+package com.jlogm;
+
+import com.jlogm.formatter.DefaultFormatter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A handle on a log statement, keeping the metadata that never changes for that line of code so it's computed once
+ * instead of on every call: the origin, its source label, the rate limiting and sampling state and an enabled flag.
+ *
+ * <p>Sites are declared as constants and passed to {@link Logger#registry(LogSite, Level)}, which uses the origin of
+ * the site instead of walking the stack trace, and suppresses the registry without running the filters when the
+ * site is disabled, sampled out or rate limited:
+ * <pre>{@code
+ * private static final LogSite CACHE_MISS = LogSite.create().limit(Duration.ofSeconds(1));
+ *
+ * logger.registry(CACHE_MISS, Level.DEBUG).log("cache miss for {}", key);
+ * }</pre>
+ *
+ * <p>The origin of {@link #create()} is the line calling it. Each site keeps its own rate limiting and sampling
+ * state, shared by every thread logging through it, unlike {@link com.jlogm.fluent.Every} which looks for the
+ * previous registries of the statement in the {@link com.jlogm.factory.LoggerFactory.Registries}.</p>
+ */
+public final class LogSite {
+
+    // Static initializers
+
+    /**
+     * Creates a site whose origin is the line calling this method. Code compiled with the {@code jlogm-processor}
+     * javac plugin has these calls replaced by constants, so the stack trace is only walked without it.
+     *
+     * @return the log site
+     */
+    public static @NotNull LogSite create() {
+        @NotNull StackTraceElement @NotNull [] elements = Thread.currentThread().getStackTrace();
+
+        for (int index = 0; index < elements.length - 1; index++) {
+            if (elements[index].getClassName().equals(LogSite.class.getName()) && elements[index].getMethodName().equals("create")) {
+                return of(elements[index + 1]);
+            }
+        }
+
+        throw new IllegalStateException("cannot locate the caller of the log site");
+    }
+
+    /**
+     * @param origin the origin of the log statement
+     * @return the log site of the origin
+     */
+    public static @NotNull LogSite of(@NotNull StackTraceElement origin) {
+        return new LogSite(origin, 0, 1);
+    }
+
+    // Object
+
+    private final @NotNull StackTraceElement origin;
+    private final @NotNull String source;
+
+    private final long period;
+    private final int sampling;
+
+    // Time of the last registry let through by the rate limit, and number of calls for the sampling
+    private final @NotNull AtomicLong last = new AtomicLong(Long.MIN_VALUE);
+    private final @NotNull AtomicLong calls = new AtomicLong();
+
+    private volatile boolean enabled = true;
+
+    private LogSite(@NotNull StackTraceElement origin, long period, int sampling) {
+        this.origin = origin;
+        this.source = DefaultFormatter.source(origin);
+        this.period = period;
+        this.sampling = sampling;
+    }
+
+    // Getters
+
+    public @NotNull StackTraceElement getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return the simple class name and line of the origin, as written by the {@link DefaultFormatter}
+     */
+    public @NotNull String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the minimum time between two registries of this site, zero if it isn't rate limited
+     */
+    public @NotNull Duration getPeriod() {
+        return Duration.ofNanos(period);
+    }
+
+    /**
+     * @return the sampling of this site, one registry written every {@code sampling} calls
+     */
+    public int getSampling() {
+        return sampling;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the site, the registries of a disabled site are always suppressed.
+     *
+     * @param enabled true to enable the site
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Modules
+
+    /**
+     * @param period the minimum time between two registries written
+     * @return a site with the same origin limited to a registry per period, with its own state
+     * @throws IllegalArgumentException if the period is negative
+     */
+    public @NotNull LogSite limit(@NotNull Duration period) {
+        if (period.isNegative()) {
+            throw new IllegalArgumentException("the period cannot be negative");
+        }
+
+        return new LogSite(origin, period.toNanos(), sampling);
+    }
+
+    /**
+     * @param sampling the number of calls per registry written, the first call is written
+     * @return a site with the same origin writing a registry every {@code sampling} calls, with its own state
+     * @throws IllegalArgumentException if the sampling isn't positive
+     */
+    public @NotNull LogSite sample(int sampling) {
+        if (sampling <= 0) {
+            throw new IllegalArgumentException("the sampling must be positive");
+        }
+
+        return new LogSite(origin, period, sampling);
+    }
+
+    /**
+     * Checks whether a registry of this site can be written, consuming the sampling and rate limiting state.
+     *
+     * @param epochNanos the time of the registry, in nanoseconds since the epoch
+     * @return true if the site is enabled and neither sampled out nor rate limited
+     */
+    public boolean allows(long epochNanos) {
+        if (!enabled) {
+            return false;
+        } else if (sampling > 1 && calls.getAndIncrement() % sampling != 0) {
+            return false;
+        } else if (period == 0) {
+            return true;
+        }
+
+        long last = this.last.get();
+        return (last == Long.MIN_VALUE || epochNanos - last >= period) && this.last.compareAndSet(last, epochNanos);
+    }
+
+    // Implementations
+
+    @Override
+    public boolean equals(@Nullable Object object) {
+        return this == object;
+    }
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "LogSite{" +
+                "source=" + source +
+                ", period=" + getPeriod() +
+                ", sampling=" + sampling +
+                ", enabled=" + enabled +
+                '}';
+    }
+
+}
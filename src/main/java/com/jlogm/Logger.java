@@ -5,13 +5,14 @@ import com.jlogm.factory.LoggerFactory;
 import com.jlogm.fluent.Every;
 import com.jlogm.fluent.StackFilter;
 import com.jlogm.formatter.Formatter;
+import com.jlogm.utils.Rgb;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Marker;
 
-import java.awt.*;
 import java.io.OutputStream;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public interface Logger {
 
@@ -33,7 +34,16 @@ public interface Logger {
 
     @NotNull Logger marker(@NotNull Marker marker);
     @NotNull Logger marker(@NotNull String name);
-    @NotNull Logger marker(@NotNull String name, @Nullable Color color);
+    @NotNull Logger marker(@NotNull String name, @Nullable Rgb color);
+
+    /**
+     * @deprecated use {@link #marker(String, Rgb)}, AWT colors are only kept for compatibility
+     */
+    @Deprecated
+    default @NotNull Logger marker(@NotNull String name, @Nullable java.awt.Color color) {
+        return marker(name, color != null ? Rgb.of(color) : null);
+    }
+
     @NotNull Logger markers(@NotNull Marker @NotNull ... markers);
     @NotNull Marker @NotNull [] getMarkers();
 
@@ -57,12 +67,47 @@ public interface Logger {
 
     @NotNull Builder registry(@NotNull Level level);
 
+    /**
+     * Creates a registry of a log statement declared as a {@link LogSite}: the origin of the site is used instead of
+     * walking the stack trace, and the registry is suppressed without running the filters if the site is disabled,
+     * sampled out or rate limited.
+     *
+     * @param site the site of the log statement
+     * @param level the level of the registry
+     * @return the registry builder
+     */
+    @NotNull Builder registry(@NotNull LogSite site, @NotNull Level level);
+
+    // The template overloads log a ParameterizedMessage, formatted only if the registry is written, and the
+    // supplier overloads a LazyMessage, evaluated only if the registry is written
+
     default @NotNull Builder warn() {
         return registry(Level.WARN);
     }
     default void warn(@Nullable String message) {
         warn().log(message);
     }
+    default void warn(@NotNull Supplier<String> message) {
+        warn().log(message);
+    }
+    default void warn(@Nullable String template, @Nullable Object argument) {
+        warn().log(template, argument);
+    }
+    default void warn(@Nullable String template, @Nullable Object first, @Nullable Object second) {
+        warn().log(template, first, second);
+    }
+    default void warn(@Nullable String template, @Nullable Object first, @Nullable Object second, @Nullable Object third) {
+        warn().log(template, first, second, third);
+    }
+    default void warn(@Nullable String template, int argument) {
+        warn().log(template, argument);
+    }
+    default void warn(@Nullable String template, long argument) {
+        warn().log(template, argument);
+    }
+    default void warn(@Nullable String template, double argument) {
+        warn().log(template, argument);
+    }
 
     default @NotNull Builder severe() {
         return registry(Level.SEVERE);
@@ -70,6 +115,27 @@ public interface Logger {
     default void severe(@Nullable String message) {
         severe().log(message);
     }
+    default void severe(@NotNull Supplier<String> message) {
+        severe().log(message);
+    }
+    default void severe(@Nullable String template, @Nullable Object argument) {
+        severe().log(template, argument);
+    }
+    default void severe(@Nullable String template, @Nullable Object first, @Nullable Object second) {
+        severe().log(template, first, second);
+    }
+    default void severe(@Nullable String template, @Nullable Object first, @Nullable Object second, @Nullable Object third) {
+        severe().log(template, first, second, third);
+    }
+    default void severe(@Nullable String template, int argument) {
+        severe().log(template, argument);
+    }
+    default void severe(@Nullable String template, long argument) {
+        severe().log(template, argument);
+    }
+    default void severe(@Nullable String template, double argument) {
+        severe().log(template, argument);
+    }
 
     default @NotNull Builder trace() {
         return registry(Level.TRACE);
@@ -77,6 +143,27 @@ public interface Logger {
     default void trace(@Nullable String message) {
         trace().log(message);
     }
+    default void trace(@NotNull Supplier<String> message) {
+        trace().log(message);
+    }
+    default void trace(@Nullable String template, @Nullable Object argument) {
+        trace().log(template, argument);
+    }
+    default void trace(@Nullable String template, @Nullable Object first, @Nullable Object second) {
+        trace().log(template, first, second);
+    }
+    default void trace(@Nullable String template, @Nullable Object first, @Nullable Object second, @Nullable Object third) {
+        trace().log(template, first, second, third);
+    }
+    default void trace(@Nullable String template, int argument) {
+        trace().log(template, argument);
+    }
+    default void trace(@Nullable String template, long argument) {
+        trace().log(template, argument);
+    }
+    default void trace(@Nullable String template, double argument) {
+        trace().log(template, argument);
+    }
 
     default @NotNull Builder debug() {
         return registry(Level.DEBUG);
@@ -84,6 +171,27 @@ public interface Logger {
     default void debug(@Nullable String message) {
         debug().log(message);
     }
+    default void debug(@NotNull Supplier<String> message) {
+        debug().log(message);
+    }
+    default void debug(@Nullable String template, @Nullable Object argument) {
+        debug().log(template, argument);
+    }
+    default void debug(@Nullable String template, @Nullable Object first, @Nullable Object second) {
+        debug().log(template, first, second);
+    }
+    default void debug(@Nullable String template, @Nullable Object first, @Nullable Object second, @Nullable Object third) {
+        debug().log(template, first, second, third);
+    }
+    default void debug(@Nullable String template, int argument) {
+        debug().log(template, argument);
+    }
+    default void debug(@Nullable String template, long argument) {
+        debug().log(template, argument);
+    }
+    default void debug(@Nullable String template, double argument) {
+        debug().log(template, argument);
+    }
 
     default @NotNull Builder info() {
         return registry(Level.INFO);
@@ -91,5 +199,26 @@ public interface Logger {
     default void info(@Nullable String message) {
         info().log(message);
     }
+    default void info(@NotNull Supplier<String> message) {
+        info().log(message);
+    }
+    default void info(@Nullable String template, @Nullable Object argument) {
+        info().log(template, argument);
+    }
+    default void info(@Nullable String template, @Nullable Object first, @Nullable Object second) {
+        info().log(template, first, second);
+    }
+    default void info(@Nullable String template, @Nullable Object first, @Nullable Object second, @Nullable Object third) {
+        info().log(template, first, second, third);
+    }
+    default void info(@Nullable String template, int argument) {
+        info().log(template, argument);
+    }
+    default void info(@Nullable String template, long argument) {
+        info().log(template, argument);
+    }
+    default void info(@Nullable String template, double argument) {
+        info().log(template, argument);
+    }
 
 }
@@ -1,16 +1,20 @@
 package com.jlogm;
 
+import com.jlogm.binary.RecordedThrowable;
 import com.jlogm.fluent.Every;
 import com.jlogm.fluent.StackFilter;
 import com.jlogm.formatter.Formatter;
+import com.jlogm.message.LazyMessage;
+import com.jlogm.message.ParameterizedMessage;
+import com.jlogm.message.Renderers;
+import com.jlogm.utils.Rgb;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Marker;
 
-import java.awt.*;
 import java.time.Instant;
 import java.util.*;
-import java.util.List;
+import java.util.function.Supplier;
 
 import static com.jlogm.JsonUtils.escapeJson;
 
@@ -19,9 +23,29 @@ public interface Registry {
     @NotNull Map<String, Object> getContext();
     @NotNull Set<String> getStack();
 
+    /**
+     * @return the structured fields attached to this registry only, see {@link Builder#kv(String, long)}
+     */
+    @NotNull Fields getFields();
+
     @NotNull Level getLevel();
     @NotNull Instant getInstant();
 
+    /**
+     * @return the time of the registry, in milliseconds since the epoch
+     */
+    default long getEpochMillis() {
+        return getInstant().toEpochMilli();
+    }
+
+    /**
+     * @return the time of the registry, in nanoseconds since the epoch; the resolution depends on the clock
+     */
+    default long getEpochNanos() {
+        @NotNull Instant instant = getInstant();
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
     @Nullable Every getEvery();
     @Nullable StackTraceElement getOrigin();
 
@@ -38,13 +62,26 @@ public interface Registry {
 
     boolean isSuppressed();
 
+    /**
+     * @return the registry formatted by its formatter, memoized following the {@link Retention} of the logger factory
+     */
     @Override
     @NotNull String toString();
 
+    /**
+     * Returns the formatted registry encoded with the charset of its formatter. Implementations may memoize the
+     * bytes, so the array must not be changed.
+     *
+     * @return the encoded registry
+     */
+    default byte @NotNull [] toBytes() {
+        return toString().getBytes(getFormatter().getCharset());
+    }
+
     default @NotNull String toJson() {
         @NotNull StringBuilder builder = new StringBuilder("{");
         builder.append("\"level\":\"").append(escapeJson(getLevel().getName())).append("\",");
-        builder.append("\"date\":").append(getInstant().toEpochMilli()).append(",");
+        builder.append("\"date\":").append(getEpochMillis()).append(",");
 
         if (getOrigin() != null) {
             builder.append("\"origin\":\"").append(escapeJson(getOrigin().toString())).append("\",");
@@ -65,7 +102,8 @@ public interface Registry {
                 builder.append("{");
 
                 // Type
-                builder.append("\"type\":\"").append(escapeJson(curr.getClass().getName())).append("\",");
+                @NotNull String type = curr instanceof RecordedThrowable ? ((RecordedThrowable) curr).getType() : curr.getClass().getName();
+                builder.append("\"type\":\"").append(escapeJson(type)).append("\",");
 
                 // Message
                 if (curr.getMessage() == null) {
@@ -79,7 +117,9 @@ public interface Registry {
 
                 @NotNull StackTraceElement[] st = curr.getStackTrace();
                 for (@NotNull StackTraceElement e : st) {
-                    builder.append("\"").append(escapeJson(e.toString())).append("\",");
+                    builder.append("\"");
+                    escapeJson(e.toString(), builder);
+                    builder.append("\",");
                 }
 
                 if (st.length > 0) builder.setLength(builder.length() - 1); // Removes last comma
@@ -98,47 +138,30 @@ public interface Registry {
             builder.append("],");
         }
 
-        // Context
+        // Context, the fragment of an unchanged context is reused
         if (!getContext().isEmpty()) {
             builder.append("\"context\":{");
+            JsonUtils.appendContext(getContext(), builder);
+            builder.append("},");
+        }
 
-            boolean first = true;
-            for (@NotNull Map.Entry<String, Object> entry : getContext().entrySet()) {
-                @NotNull String key = escapeJson(entry.getKey());
-                @NotNull String value = (entry.getValue() != null ? "\"" + escapeJson(entry.getValue().toString()) + "\"" : "null");
-
-                if (!first) builder.append(",");
-                builder.append("\"").append(key).append("\":").append(value);
-                first = false;
-            }
-
-            // Finish
+        // Fields
+        if (!getFields().isEmpty()) {
+            builder.append("\"fields\":{");
+            JsonUtils.appendFields(getFields(), builder);
             builder.append("},");
         }
 
-        // Stack
+        // Stack, bottom first
         if (!getStack().isEmpty()) {
-            // Reverse stack collection
-            @NotNull List<String> stackSet = new LinkedList<>(getStack());
-            Collections.reverse(stackSet);
-
-            // Serialize it
             builder.append("\"stack\":[");
-
-            boolean first = true;
-            for (@NotNull String stack : stackSet) {
-                if (!first) builder.append(",");
-                builder.append("\"").append(escapeJson(stack)).append("\"");
-                first = false;
-            }
-
-            // Finish
+            JsonUtils.appendStack(getStack(), builder);
             builder.append("],");
         }
 
         // Message
         if (getObject() != null) {
-            builder.append("\"object\":\"").append(escapeJson(String.valueOf(getObject()))).append("\"");
+            builder.append("\"object\":\"").append(escapeJson(Renderers.render(getObject()))).append("\"");
         } else {
             builder.append("\"object\":null");
         }
@@ -151,12 +174,52 @@ public interface Registry {
 
     // Classes
 
+    /**
+     * Defines how the formatted text, JSON and bytes of a registry are kept once computed, so the registries kept
+     * by the {@link com.jlogm.factory.LoggerFactory.Registries} aren't formatted again every time they're read.
+     */
+    enum Retention {
+
+        /**
+         * The text, JSON and bytes are kept as long as the registry.
+         */
+        STRONG,
+
+        /**
+         * The text, JSON and bytes are softly referenced, cleared when the memory runs low. The default.
+         */
+        SOFT,
+
+        /**
+         * The text, JSON and bytes are weakly referenced, cleared by the next garbage collection.
+         */
+        WEAK,
+
+        /**
+         * Only the encoded bytes are kept, the text is decoded from them and the JSON isn't memoized.
+         */
+        BYTES,
+
+        /**
+         * Nothing is memoized, the registry is formatted on every call.
+         */
+        NONE
+
+    }
+
     interface Builder {
         @NotNull Builder level(@NotNull Level level);
         @NotNull Level getLevel();
 
         @NotNull Builder instant(@NotNull Instant instant);
         @NotNull Instant getInstant();
+        default long getEpochMillis() {
+            return getInstant().toEpochMilli();
+        }
+        default long getEpochNanos() {
+            @NotNull Instant instant = getInstant();
+            return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+        }
 
         @NotNull Builder origin(@Nullable StackTraceElement origin);
         @Nullable StackTraceElement getOrigin();
@@ -184,15 +247,63 @@ public interface Registry {
 
         @NotNull Builder marker(@NotNull Marker marker);
         @NotNull Builder marker(@NotNull String name);
-        @NotNull Builder marker(@NotNull String name, @NotNull Color color);
+        @NotNull Builder marker(@NotNull String name, @NotNull Rgb color);
+
+        /**
+         * @deprecated use {@link #marker(String, Rgb)}, AWT colors are only kept for compatibility
+         */
+        @Deprecated
+        default @NotNull Builder marker(@NotNull String name, @NotNull java.awt.Color color) {
+            return marker(name, Rgb.of(color));
+        }
+
         @NotNull Builder markers(@NotNull Marker @NotNull ... markers);
         @NotNull Marker @NotNull [] getMarkers();
 
+        /**
+         * Attaches a structured field to this registry only, unlike the thread-wide {@link com.jlogm.context.LogCtx}.
+         * Primitive values are stored and written without boxing. A key added twice keeps the last value.
+         */
+        @NotNull Builder kv(@NotNull String key, long value);
+        @NotNull Builder kv(@NotNull String key, double value);
+        @NotNull Builder kv(@NotNull String key, boolean value);
+        @NotNull Builder kv(@NotNull String key, @Nullable Object value);
+
         default @NotNull Registry log() {
-            return log(null);
+            return log((Object) null);
         }
         @NotNull Registry log(@Nullable Object object);
 
+        /**
+         * Logs a {@link LazyMessage}, the supplier is only evaluated if the registry is written.
+         */
+        default @NotNull Registry log(@NotNull Supplier<?> supplier) {
+            return log(LazyMessage.of(supplier));
+        }
+
+        /**
+         * Logs a {@link ParameterizedMessage}, formatted only if the registry is written. A trailing throwable not
+         * used by the template becomes the cause, unless a cause is already set.
+         */
+        default @NotNull Registry log(@Nullable String template, @Nullable Object argument) {
+            return log(ParameterizedMessage.of(template, argument));
+        }
+        default @NotNull Registry log(@Nullable String template, @Nullable Object first, @Nullable Object second) {
+            return log(ParameterizedMessage.of(template, first, second));
+        }
+        default @NotNull Registry log(@Nullable String template, @Nullable Object first, @Nullable Object second, @Nullable Object third) {
+            return log(ParameterizedMessage.of(template, first, second, third));
+        }
+        default @NotNull Registry log(@Nullable String template, int argument) {
+            return log(ParameterizedMessage.of(template, argument));
+        }
+        default @NotNull Registry log(@Nullable String template, long argument) {
+            return log(ParameterizedMessage.of(template, argument));
+        }
+        default @NotNull Registry log(@Nullable String template, double argument) {
+            return log(ParameterizedMessage.of(template, argument));
+        }
+
         boolean isSuppressed();
         void setSuppressed(boolean suppressed);
     }
@@ -0,0 +1,44 @@
+package com.jlogm;
+
+/**
+ * The registry fields captured only when needed, as a bitmask.
+ *
+ * <p>Formatters, filters and {@link com.jlogm.factory.LoggerFactory.Registries} declare the fields they read with
+ * their {@code getRequirements()} methods. When a registry is logged, the requirements of its formatter, of the
+ * filters and of the registries are combined, and the fields nobody reads aren't captured: the origin isn't
+ * located from the stack trace, and the context and the stack aren't snapshotted, reading as empty instead.
+ * <pre>{@code
+ * @Override
+ * public int getRequirements() {
+ *     return Requirements.ORIGIN | Requirements.CONTEXT;
+ * }
+ * }</pre>
+ */
+public final class Requirements {
+
+    // Static initializers
+
+    public static final int NONE = 0;
+
+    /**
+     * The origin of the registry, located by walking the stack trace of the logging thread.
+     */
+    public static final int ORIGIN = 1;
+    /**
+     * The {@link com.jlogm.context.LogCtx} values of the logging thread.
+     */
+    public static final int CONTEXT = 1 << 1;
+    /**
+     * The {@link com.jlogm.context.Stack} values of the logging thread.
+     */
+    public static final int STACK = 1 << 2;
+
+    public static final int ALL = ORIGIN | CONTEXT | STACK;
+
+    // Object
+
+    private Requirements() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
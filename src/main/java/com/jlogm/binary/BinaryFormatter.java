@@ -0,0 +1,438 @@
+package com.jlogm.binary;
+
+import com.jlogm.Fields;
+import com.jlogm.Registry;
+import com.jlogm.fluent.StackFilter;
+import com.jlogm.formatter.DefaultFormatter;
+import com.jlogm.formatter.Formatter;
+import com.jlogm.message.ParameterizedMessage;
+import com.jlogm.message.Renderers;
+import com.jlogm.output.MappedFileOutputStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Marker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link Formatter} that writes registries in the compact jlogm binary log format.
+ *
+ * <p>Levels, origins, prefixes, suffixes, marker names, context keys, stack entries and exception frames are
+ * written once into the file dictionary and referenced by id afterward, and times are written as varint
+ * differences. The records are usually several times smaller than the {@link DefaultFormatter} output and
+ * cheaper to produce, they can be read back with the {@link BinaryLogReader}.</p>
+ *
+ * <p>The dictionary belongs to the file being written, so a binary formatter must be used with a single output.
+ * It is reset whenever the output changes, or when a {@link MappedFileOutputStream} rolls. Writing into any other
+ * destination than the file, such as {@link #format(Registry)} does, renders the registry as text instead.</p>
+ *
+ * <p>Example:
+ * <pre>{@code
+ * Logger logger = Logger.create("app")
+ *     .output(new MappedFileOutputStream(Paths.get("app.jlog")))
+ *     .formatter(new BinaryFormatter());
+ * }</pre>
+ */
+public final class BinaryFormatter implements Formatter {
+
+    // Static initializers
+
+    /**
+     * The default maximum number of dictionary entries, strings seen after the dictionary is full are written inline.
+     */
+    public static final int DEFAULT_DICTIONARY_LIMIT = 64 * 1024;
+
+    // Object
+
+    private final @NotNull Formatter text;
+    private final int dictionaryLimit;
+
+    private final @NotNull Map<String, Integer> dictionary = new HashMap<>();
+
+    private final @NotNull FrameBuffer chunk = new FrameBuffer(1024);
+    private final @NotNull FrameBuffer payload = new FrameBuffer(512);
+    private final @NotNull FrameBuffer definition = new FrameBuffer(128);
+    private final @NotNull CRC32 crc = new CRC32();
+
+    // Guards the encoding state, a lock instead of the monitor so virtual threads writing don't pin their carriers
+    private final @NotNull ReentrantLock lock = new ReentrantLock();
+    // Whether a registry is being written, set while holding the lock
+    private boolean writing;
+
+    private @Nullable OutputStream output;
+    private long rolls;
+
+    private long anchor;
+    private int sinceAnchor;
+
+    public BinaryFormatter() {
+        this(DefaultFormatter.getInstance(), DEFAULT_DICTIONARY_LIMIT);
+    }
+
+    /**
+     * Creates a binary formatter.
+     *
+     * @param text the formatter used by {@link #format(Registry)} to render registries as text
+     * @param dictionaryLimit the maximum number of dictionary entries per file
+     */
+    public BinaryFormatter(@NotNull Formatter text, int dictionaryLimit) {
+        if (dictionaryLimit < 0) {
+            throw new IllegalArgumentException("the dictionary limit cannot be negative");
+        }
+
+        this.text = text;
+        this.dictionaryLimit = dictionaryLimit;
+
+        reset();
+    }
+
+    // Getters
+
+    public @NotNull Formatter getText() {
+        return text;
+    }
+    public int getDictionaryLimit() {
+        return dictionaryLimit;
+    }
+
+    // Modules
+
+    /**
+     * Renders the registry as text using the text formatter, the binary encoding is only produced by
+     * {@link #write(Registry, OutputStream)}.
+     */
+    @Override
+    public @NotNull String format(@NotNull Registry registry) {
+        return text.format(registry);
+    }
+
+    /**
+     * @return true, the dictionary belongs to the file written
+     */
+    @Override
+    public boolean isOutputBound() {
+        return true;
+    }
+
+    /**
+     * Writes the registry into the binary log. The strings produced by user code, such as the rendered object or
+     * the context values, are rendered before the encoding state is touched: a registry logged by that code on the
+     * same thread is written whole, before the one being encoded.
+     *
+     * @throws IOException if an I/O error occurs, or if the output writes a registry into this formatter while
+     * receiving another one
+     */
+    @Override
+    public void write(@NotNull Registry registry, @NotNull OutputStream output) throws IOException {
+        @NotNull Rendered rendered = new Rendered(registry);
+        lock.lock();
+
+        try {
+            if (writing) {
+                throw new IOException("cannot write a registry into the binary log while writing another one");
+            }
+
+            writing = true;
+
+            try {
+                append(registry, rendered, output);
+            } finally {
+                writing = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(@NotNull Registry registry, @NotNull Rendered rendered, @NotNull OutputStream output) throws IOException {
+        @Nullable MappedFileOutputStream mapped = output instanceof MappedFileOutputStream ? (MappedFileOutputStream) output : null;
+
+        // The dictionary and the anchor time belong to the file
+        if (output != this.output || (mapped != null && mapped.getRolls() != rolls)) {
+            reset();
+            this.output = output;
+        }
+
+        encode(registry, rendered);
+
+        if (mapped != null && mapped.isRollDue(chunk.size())) {
+            // Rolls now, so the chunk is encoded again against the new file
+            mapped.roll();
+            reset();
+
+            encode(registry, rendered);
+        }
+        if (mapped != null) {
+            rolls = mapped.getRolls();
+        }
+
+        chunk.writeTo(output);
+    }
+
+    // Encoding
+
+    private void reset() {
+        dictionary.clear();
+        sinceAnchor = Frames.ANCHOR_INTERVAL;
+    }
+
+    private void encode(@NotNull Registry registry, @NotNull Rendered rendered) {
+        chunk.reset();
+        payload.reset();
+
+        // Header
+        long time = registry.getEpochMillis();
+        boolean anchored = sinceAnchor >= Frames.ANCHOR_INTERVAL;
+
+        int flags = 0;
+        if (anchored) flags |= Frames.FLAG_ANCHOR;
+        if (registry.getMarkers().length > 0) flags |= Frames.FLAG_MARKERS;
+        if (registry.getOrigin() != null) flags |= Frames.FLAG_ORIGIN;
+        if (registry.getObject() != null) flags |= Frames.FLAG_OBJECT;
+        if (registry.getObject() instanceof ParameterizedMessage) flags |= Frames.FLAG_TEMPLATE;
+        if (!registry.getContext().isEmpty()) flags |= Frames.FLAG_CONTEXT;
+        if (!registry.getStack().isEmpty()) flags |= Frames.FLAG_STACK;
+        if (rendered.causes.length > 0) flags |= Frames.FLAG_CAUSE;
+        if (!registry.getFields().isEmpty()) flags |= Frames.FLAG_FIELDS;
+
+        payload.writeVarint(flags);
+
+        if (anchored) {
+            payload.writeVarint(time);
+
+            anchor = time;
+            sinceAnchor = 0;
+        } else {
+            payload.writeZigzag(time - anchor);
+            sinceAnchor++;
+        }
+
+        reference(registry.getLevel().getName());
+
+        // Body
+        reference(registry.getPrefix());
+        reference(registry.getSuffix());
+
+        if ((flags & Frames.FLAG_MARKERS) != 0) {
+            payload.writeVarint(registry.getMarkers().length);
+
+            for (@NotNull Marker marker : registry.getMarkers()) {
+                reference(marker.getName());
+            }
+        } if ((flags & Frames.FLAG_ORIGIN) != 0) {
+            frame(registry.getOrigin());
+        } if ((flags & Frames.FLAG_TEMPLATE) != 0) {
+            template((ParameterizedMessage) registry.getObject(), rendered);
+        } else if ((flags & Frames.FLAG_OBJECT) != 0) {
+            payload.writeString(rendered.object);
+        } if ((flags & Frames.FLAG_CONTEXT) != 0) {
+            payload.writeVarint(registry.getContext().size());
+            int index = 0;
+
+            for (@NotNull String key : registry.getContext().keySet()) {
+                reference(key);
+                payload.writeString(rendered.context[index++]);
+            }
+        } if ((flags & Frames.FLAG_STACK) != 0) {
+            payload.writeVarint(registry.getStack().size());
+
+            for (@NotNull String stack : registry.getStack()) {
+                reference(stack);
+            }
+        } if ((flags & Frames.FLAG_CAUSE) != 0) {
+            cause(rendered);
+        } if ((flags & Frames.FLAG_FIELDS) != 0) {
+            fields(registry.getFields(), rendered);
+        }
+
+        chunk.writeFrame(Frames.RECORD, payload, crc);
+    }
+
+    private void cause(@NotNull Rendered rendered) {
+        payload.writeVarint(rendered.causes.length);
+
+        for (int index = 0; index < rendered.causes.length; index++) {
+            reference(rendered.causes[index].getClass().getName());
+            payload.writeString(rendered.messages[index]);
+            payload.writeVarint(rendered.traces[index].length);
+
+            for (@NotNull StackTraceElement trace : rendered.traces[index]) {
+                frame(trace);
+            }
+        }
+    }
+
+    private void template(@NotNull ParameterizedMessage message, @NotNull Rendered rendered) {
+        assert rendered.arguments != null;
+
+        reference(message.getTemplate());
+        payload.writeVarint(rendered.arguments.length);
+
+        for (@NotNull String argument : rendered.arguments) {
+            payload.writeString(argument);
+        }
+    }
+
+    private void fields(@NotNull Fields fields, @NotNull Rendered rendered) {
+        payload.writeVarint(fields.size());
+
+        for (int index = 0; index < fields.size(); index++) {
+            reference(fields.getKey(index));
+
+            switch (fields.getType(index)) {
+                case LONG:
+                    payload.write(Frames.FIELD_LONG);
+                    payload.writeZigzag(fields.getLong(index));
+                    break;
+                case DOUBLE:
+                    payload.write(Frames.FIELD_DOUBLE);
+                    payload.writeFixed64(Double.doubleToRawLongBits(fields.getDouble(index)));
+                    break;
+                case BOOLEAN:
+                    payload.write(Frames.FIELD_BOOLEAN);
+                    payload.write(fields.getBoolean(index) ? 1 : 0);
+                    break;
+                default:
+                    payload.write(Frames.FIELD_OBJECT);
+                    payload.writeString(rendered.fields[index]);
+            }
+        }
+    }
+
+    private void frame(@NotNull StackTraceElement element) {
+        reference(element.getClassName());
+        reference(element.getMethodName());
+        reference(element.getFileName());
+        payload.writeZigzag(element.getLineNumber());
+    }
+
+    /**
+     * Writes the string as a dictionary reference, adding a definition frame before the record when the string
+     * is new to the file. Strings are written inline once the dictionary is full.
+     */
+    private void reference(@Nullable String string) {
+        if (string == null) {
+            payload.write(0);
+            return;
+        }
+
+        @Nullable Integer id = dictionary.get(string);
+
+        if (id == null) {
+            if (dictionary.size() >= dictionaryLimit) {
+                payload.writeString(string);
+                return;
+            }
+
+            id = dictionary.size();
+            dictionary.put(string, id);
+
+            definition.reset();
+            definition.writeVarint(id);
+            definition.writeString(string);
+
+            chunk.writeFrame(Frames.DEFINE, definition, crc);
+        }
+
+        payload.writeReference(id);
+    }
+
+    // Classes
+
+    /**
+     * The strings of a registry produced by user code: the rendered object or template arguments, the context
+     * values, the object fields, and the causes with their messages and filtered stack traces.
+     */
+    private static final class Rendered {
+
+        private final @Nullable String object;
+        private final @NotNull String @Nullable [] arguments;
+        private final @Nullable String @NotNull [] context;
+        private final @Nullable String @NotNull [] fields;
+
+        private final @NotNull Throwable @NotNull [] causes;
+        private final @Nullable String @NotNull [] messages;
+        private final @NotNull StackTraceElement @NotNull [] @NotNull [] traces;
+
+        private Rendered(@NotNull Registry registry) {
+            @Nullable Object object = registry.getObject();
+
+            if (object instanceof ParameterizedMessage) {
+                @NotNull ParameterizedMessage message = (ParameterizedMessage) object;
+                @NotNull StringBuilder builder = new StringBuilder();
+
+                this.object = null;
+                this.arguments = new String[message.getArgumentCount()];
+
+                for (int index = 0; index < arguments.length; index++) {
+                    builder.setLength(0);
+                    arguments[index] = message.formatArgumentTo(index, builder).toString();
+                }
+            } else {
+                this.object = object != null ? Renderers.render(object) : null;
+                this.arguments = null;
+            }
+
+            this.context = new String[registry.getContext().size()];
+            int index = 0;
+
+            for (@Nullable Object value : registry.getContext().values()) {
+                context[index++] = value != null ? value.toString() : null;
+            }
+
+            @NotNull Fields fields = registry.getFields();
+            this.fields = new String[fields.size()];
+
+            for (index = 0; index < fields.size(); index++) {
+                if (fields.getType(index) == Fields.Type.OBJECT) {
+                    @Nullable Object value = fields.getObject(index);
+                    this.fields[index] = value != null ? value.toString() : null;
+                }
+            }
+
+            // The chain may be circular
+            @NotNull Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            @NotNull List<Throwable> chain = new ArrayList<>();
+
+            for (@Nullable Throwable curr = registry.getCause(); curr != null && seen.add(curr); curr = curr.getCause()) {
+                chain.add(curr);
+            }
+
+            this.causes = chain.toArray(new Throwable[0]);
+            this.messages = new String[causes.length];
+            this.traces = new StackTraceElement[causes.length][];
+
+            for (index = 0; index < causes.length; index++) {
+                @NotNull StackTraceElement[] traces = causes[index].getStackTrace();
+                for (@NotNull StackFilter filter : registry.getStackFilters()) {
+                    traces = filter.format(traces);
+                }
+
+                this.messages[index] = causes[index].getMessage();
+                this.traces[index] = traces;
+            }
+        }
+
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "BinaryFormatter{" +
+                "text=" + text +
+                ", dictionaryLimit=" + dictionaryLimit +
+                '}';
+    }
+
+}
@@ -0,0 +1,659 @@
+package com.jlogm.binary;
+
+import com.jlogm.Fields;
+import com.jlogm.Level;
+import com.jlogm.Registry;
+import com.jlogm.factory.LoggerFactory;
+import com.jlogm.fluent.StackFilter;
+import com.jlogm.formatter.DefaultFormatter;
+import com.jlogm.formatter.Formatter;
+import com.jlogm.impl.RegistryImpl;
+import com.jlogm.impl.SimpleMarker;
+import com.jlogm.message.ParameterizedMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Marker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the binary log files written by the {@link BinaryFormatter}.
+ *
+ * <p>The file is memory-mapped in fixed-size windows and the frames are decoded lazily while the stream returned
+ * by {@link #stream()} is consumed, so files of any size are read in constant memory. Records outside the time
+ * range or the levels configured on the reader are skipped after reading only their header, without decoding
+ * the rest of the record. Damaged or truncated frames are skipped as well, together with the records that follow
+ * them up to the next anchor record, whose times cannot be known.</p>
+ *
+ * <p>The decoded registries use the formatter of the reader, so they are rendered again by their
+ * {@link Registry#toString()} when viewed:
+ * <pre>{@code
+ * try (BinaryLogReader reader = new BinaryLogReader(Paths.get("app.jlog")).levels(Level.SEVERE, Level.WARN)) {
+ *     reader.stream().forEach(registry -> System.out.print(registry));
+ * }
+ * }</pre>
+ *
+ * <p>The reader can also be used from the command line, see {@link #main(String[])}.</p>
+ */
+public final class BinaryLogReader implements Closeable {
+
+    // Static initializers
+
+    /**
+     * The default size of the mapped windows, 128 MiB.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 128 * 1024 * 1024;
+
+    // The smallest window that still holds the largest valid frame
+    private static final int MINIMUM_WINDOW_SIZE = Frames.MAX_PAYLOAD + 32;
+
+    /**
+     * Prints the records of a binary log file to the standard output.
+     *
+     * <pre>
+     * java -cp jlogm.jar com.jlogm.binary.BinaryLogReader &lt;file&gt; [--from &lt;instant&gt;] [--to &lt;instant&gt;] [--level &lt;level&gt;[,&lt;level&gt;...]] [--json]
+     * </pre>
+     *
+     * <p>Instants use the ISO-8601 format, such as {@code 2024-01-31T10:15:30Z}.</p>
+     *
+     * @param args the command line arguments
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(@NotNull String @NotNull [] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: BinaryLogReader <file> [--from <instant>] [--to <instant>] [--level <level>[,<level>...]] [--json]");
+            System.exit(2);
+            return;
+        }
+
+        try (@NotNull BinaryLogReader reader = new BinaryLogReader(Paths.get(args[0]))) {
+            for (int index = 1; index < args.length; index++) {
+                @NotNull String option = args[index];
+
+                if (option.equals("--json")) {
+                    reader.formatter(registry -> registry.toJson() + System.lineSeparator());
+                    continue;
+                } else if (index + 1 == args.length) {
+                    throw new IllegalArgumentException("missing value of option '" + option + "'");
+                }
+
+                @NotNull String value = args[++index];
+
+                switch (option) {
+                    case "--from":
+                        reader.from(Instant.parse(value));
+                        break;
+                    case "--to":
+                        reader.to(Instant.parse(value));
+                        break;
+                    case "--level":
+                        @NotNull List<Level> levels = new ArrayList<>();
+                        for (@NotNull String name : value.split(",")) {
+                            levels.add(LoggerFactory.getInstance().getLevels().get(name.trim()).orElseThrow(() -> new IllegalArgumentException("unknown level '" + name + "'")));
+                        }
+
+                        reader.levels(levels.toArray(new Level[0]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option '" + option + "'");
+                }
+            }
+
+            @NotNull PrintStream output = System.out;
+            @NotNull Formatter formatter = reader.getFormatter();
+
+            @NotNull Iterator<Registry> iterator = reader.stream().iterator();
+            while (iterator.hasNext()) {
+                formatter.write(iterator.next(), output);
+            }
+
+            output.flush();
+        }
+    }
+
+    // Object
+
+    private final @NotNull Path path;
+    private final @NotNull FileChannel channel;
+    private final int windowSize;
+
+    private @NotNull Formatter formatter = DefaultFormatter.getInstance();
+
+    private @Nullable Instant from;
+    private @Nullable Instant to;
+    private @Nullable Set<String> levels;
+
+    private final @NotNull Map<String, Level> foreign = new ConcurrentHashMap<>();
+
+    public BinaryLogReader(@NotNull Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+    public BinaryLogReader(@NotNull Path path, int windowSize) throws IOException {
+        this.path = path;
+        this.windowSize = Math.max(windowSize, MINIMUM_WINDOW_SIZE);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    // Getters
+
+    public @NotNull Path getPath() {
+        return path;
+    }
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Sets the formatter of the decoded registries, used when they are rendered.
+     *
+     * @param formatter the formatter of the decoded registries
+     * @return this reader for chaining
+     */
+    public @NotNull BinaryLogReader formatter(@NotNull Formatter formatter) {
+        this.formatter = formatter;
+        return this;
+    }
+    public @NotNull Formatter getFormatter() {
+        return formatter;
+    }
+
+    /**
+     * Skips the records older than the given instant.
+     *
+     * @param from the inclusive start of the time range, or null for no lower bound
+     * @return this reader for chaining
+     */
+    public @NotNull BinaryLogReader from(@Nullable Instant from) {
+        this.from = from;
+        return this;
+    }
+    public @Nullable Instant getFrom() {
+        return from;
+    }
+
+    /**
+     * Skips the records newer than the given instant.
+     *
+     * @param to the exclusive end of the time range, or null for no upper bound
+     * @return this reader for chaining
+     */
+    public @NotNull BinaryLogReader to(@Nullable Instant to) {
+        this.to = to;
+        return this;
+    }
+    public @Nullable Instant getTo() {
+        return to;
+    }
+
+    /**
+     * Skips the records whose level is not one of the given levels.
+     *
+     * @param levels the accepted levels, none to accept all the levels
+     * @return this reader for chaining
+     */
+    public @NotNull BinaryLogReader levels(@NotNull Level @NotNull ... levels) {
+        if (levels.length == 0) {
+            this.levels = null;
+        } else {
+            this.levels = new HashSet<>();
+            for (@NotNull Level level : levels) this.levels.add(level.getName());
+        }
+
+        return this;
+    }
+
+    // Modules
+
+    /**
+     * Returns a sequential stream that decodes the records of the file as it is consumed. Every stream reads the
+     * file independently, from the beginning.
+     *
+     * @return a stream of the records that match the filters of this reader
+     */
+    public @NotNull Stream<Registry> stream() {
+        return StreamSupport.stream(new Cursor(), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Utilities
+
+    /**
+     * Returns the level with the name. The custom levels of the application that wrote the file, unknown to this
+     * one, are read as detached levels instead of being registered, so reading a foreign file never changes the
+     * level table.
+     */
+    private @NotNull Level level(@NotNull String name) {
+        @Nullable Level level = Level.get(name);
+        if (level != null) return level;
+
+        return foreign.computeIfAbsent(name, key -> Level.detached(key, Level.INFO.getSeverity(), null, org.slf4j.event.Level.INFO));
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "BinaryLogReader{" +
+                "path=" + path +
+                ", from=" + from +
+                ", to=" + to +
+                ", levels=" + levels +
+                '}';
+    }
+
+    // Classes
+
+    private final class Cursor extends Spliterators.AbstractSpliterator<Registry> {
+
+        private final long size;
+        private final long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        private final long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+
+        private final @NotNull CRC32 crc = new CRC32();
+        private byte @NotNull [] scratch = new byte[256];
+
+        private @NotNull String @NotNull [] dictionary = new String[256];
+
+        private @Nullable MappedByteBuffer window;
+        private long windowStart;
+
+        private long position = 0;
+
+        // The time of the last anchor, only known while anchored
+        private long anchor = 0;
+        private boolean anchored = false;
+
+        private Cursor() {
+            super(Long.MAX_VALUE, ORDERED | NONNULL);
+
+            try {
+                this.size = channel.size();
+            } catch (@NotNull IOException e) {
+                throw new IllegalStateException("cannot read the binary log file '" + path + "'", e);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(@NotNull Consumer<? super Registry> action) {
+            try {
+                @Nullable Registry registry;
+
+                do {
+                    @Nullable ByteBuffer frame = next();
+                    if (frame == null) return false;
+
+                    try {
+                        registry = decode(frame);
+                    } catch (@NotNull BufferUnderflowException | IllegalArgumentException ignore) {
+                        // The frame has a valid checksum but an unknown layout, it may have been an anchor
+                        anchored = false;
+                        registry = null;
+                    }
+                } while (registry == null);
+
+                action.accept(registry);
+                return true;
+            } catch (@NotNull IOException e) {
+                throw new IllegalStateException("cannot read the binary log file '" + path + "'", e);
+            }
+        }
+
+        // Frames
+
+        /**
+         * Moves to the next valid frame, validating its checksum. Returns a buffer holding the frame type, the
+         * payload length and the payload, or null at the end of the file.
+         */
+        private @Nullable ByteBuffer next() throws IOException {
+            while (true) {
+                if (!synchronize()) return null;
+
+                // Type and payload length
+                long start = position;
+                long cursor = start + Frames.SYNC.length + 1;
+
+                long length = 0;
+                int shift = 0;
+
+                while (true) {
+                    if (cursor >= size || shift > 28) {
+                        length = -1;
+                        break;
+                    }
+
+                    int b = get(cursor++);
+                    length |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+
+                    if ((b & 0x80) == 0) break;
+                }
+
+                long end = cursor + length + 4;
+
+                if (length < 0 || length > Frames.MAX_PAYLOAD || end > size) {
+                    // Damaged or truncated frame, looks for the next one
+                    position = start + 1;
+                    anchored = false;
+                    continue;
+                }
+
+                @NotNull ByteBuffer buffer = slice(start, (int) (end - start));
+
+                int type = buffer.get(Frames.SYNC.length) & 0xFF;
+                int payloadOffset = (int) (cursor - start);
+
+                @NotNull ByteBuffer payload = buffer.duplicate();
+                payload.position(payloadOffset).limit(payloadOffset + (int) length);
+
+                crc.reset();
+                crc.update(type);
+                crc.update(payload);
+
+                if ((int) crc.getValue() != buffer.getInt(payloadOffset + (int) length)) {
+                    position = start + 1;
+                    anchored = false;
+                    continue;
+                }
+
+                position = end;
+
+                buffer.position(Frames.SYNC.length).limit(payloadOffset + (int) length);
+                return buffer;
+            }
+        }
+
+        /**
+         * Moves the position to the next sync bytes, returning false if there are no more frames.
+         */
+        private boolean synchronize() throws IOException {
+            while (position + Frames.SYNC.length + 6 <= size) {
+                boolean matches = true;
+
+                for (int index = 0; index < Frames.SYNC.length; index++) {
+                    if (get(position + index) != (Frames.SYNC[index] & 0xFF)) {
+                        matches = false;
+                        break;
+                    }
+                }
+
+                if (matches) return true;
+
+                // Bytes outside of any frame, an anchor may have been lost with them
+                position++;
+                anchored = false;
+            }
+
+            return false;
+        }
+
+        private int get(long position) throws IOException {
+            return map(position, 1).get((int) (position - windowStart)) & 0xFF;
+        }
+
+        /**
+         * Returns a buffer holding the given range of the file.
+         */
+        private @NotNull ByteBuffer slice(long start, int length) throws IOException {
+            @NotNull ByteBuffer buffer = map(start, length).duplicate();
+            buffer.position((int) (start - windowStart)).limit((int) (start - windowStart) + length);
+
+            return buffer.slice();
+        }
+
+        /**
+         * Returns the current window, mapping a new one if the current window does not contain the given range.
+         */
+        private @NotNull MappedByteBuffer map(long start, int length) throws IOException {
+            if (window == null || start < windowStart || start + length > windowStart + window.capacity()) {
+                windowStart = start;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+            }
+
+            return window;
+        }
+
+        // Records
+
+        private @Nullable Registry decode(@NotNull ByteBuffer frame) {
+            int type = frame.get();
+            varint(frame); // Payload length
+
+            if (type == Frames.DEFINE) {
+                long id = varint(frame);
+                @Nullable String string = string(frame);
+
+                // The ids are sequential, one that would more than double the dictionary is damaged
+                if (id < 0 || id >= dictionary.length * 2L) {
+                    throw new IllegalArgumentException("invalid dictionary id " + id);
+                } else if (string != null) {
+                    if (id >= dictionary.length) dictionary = Arrays.copyOf(dictionary, dictionary.length * 2);
+                    dictionary[(int) id] = string;
+                }
+
+                return null;
+            } else if (type != Frames.RECORD) {
+                return null;
+            }
+
+            // Header
+            int flags = (int) varint(frame);
+            long time;
+
+            if ((flags & Frames.FLAG_ANCHOR) != 0) {
+                time = anchor = varint(frame);
+                anchored = true;
+            } else if (anchored) {
+                time = anchor + zigzag(frame);
+            } else {
+                // The anchor of this record was lost, its time is unknown
+                return null;
+            }
+
+            @Nullable String levelName = string(frame);
+
+            if (time < fromMillis || time >= toMillis || levelName == null || (levels != null && !levels.contains(levelName))) {
+                return null;
+            }
+
+            // Body
+            @NotNull Level level = level(levelName);
+
+            @Nullable String prefix = string(frame);
+            @Nullable String suffix = string(frame);
+
+            @NotNull Marker[] markers = new Marker[0];
+            @Nullable StackTraceElement origin = null;
+            @Nullable Object object = null;
+            @NotNull Map<String, Object> context = Collections.emptyMap();
+            @NotNull Set<String> stack = Collections.emptySet();
+            @Nullable Throwable cause = null;
+            @NotNull Fields fields = Fields.EMPTY;
+
+            if ((flags & Frames.FLAG_MARKERS) != 0) {
+                markers = new Marker[count(frame)];
+
+                for (int index = 0; index < markers.length; index++) {
+                    markers[index] = new SimpleMarker(String.valueOf(string(frame)));
+                }
+            } if ((flags & Frames.FLAG_ORIGIN) != 0) {
+                origin = element(frame);
+            } if ((flags & Frames.FLAG_TEMPLATE) != 0) {
+                object = template(frame);
+            } else if ((flags & Frames.FLAG_OBJECT) != 0) {
+                object = string(frame);
+            } if ((flags & Frames.FLAG_CONTEXT) != 0) {
+                int count = count(frame);
+                context = new LinkedHashMap<>();
+
+                for (int index = 0; index < count; index++) {
+                    context.put(String.valueOf(string(frame)), string(frame));
+                }
+            } if ((flags & Frames.FLAG_STACK) != 0) {
+                int count = count(frame);
+                stack = new LinkedHashSet<>();
+
+                for (int index = 0; index < count; index++) {
+                    stack.add(String.valueOf(string(frame)));
+                }
+            } if ((flags & Frames.FLAG_CAUSE) != 0) {
+                cause = cause(frame);
+            } if ((flags & Frames.FLAG_FIELDS) != 0) {
+                fields = fields(frame);
+            }
+
+            return new RegistryImpl(level, time * 1_000_000L, null, origin, suffix, prefix, formatter, cause, markers, new StackFilter[0], object, false, context, stack, fields);
+        }
+
+        private @NotNull ParameterizedMessage template(@NotNull ByteBuffer frame) {
+            @Nullable String template = string(frame);
+            @Nullable Object[] arguments = new Object[count(frame)];
+
+            for (int index = 0; index < arguments.length; index++) {
+                arguments[index] = string(frame);
+            }
+
+            return ParameterizedMessage.of(template, arguments);
+        }
+
+        private @NotNull Fields fields(@NotNull ByteBuffer frame) {
+            int count = count(frame);
+            @NotNull Fields.Builder fields = new Fields.Builder();
+
+            for (int index = 0; index < count; index++) {
+                @NotNull String key = String.valueOf(string(frame));
+                int type = frame.get();
+
+                if (type == Frames.FIELD_LONG) {
+                    fields.put(key, zigzag(frame));
+                } else if (type == Frames.FIELD_DOUBLE) {
+                    fields.put(key, Double.longBitsToDouble(frame.getLong()));
+                } else if (type == Frames.FIELD_BOOLEAN) {
+                    fields.put(key, frame.get() != 0);
+                } else {
+                    fields.put(key, (Object) string(frame));
+                }
+            }
+
+            return fields.build();
+        }
+
+        private @NotNull Throwable cause(@NotNull ByteBuffer frame) {
+            int count = count(frame);
+
+            if (count == 0) {
+                throw new IllegalArgumentException("empty cause chain");
+            }
+
+            @NotNull String[] types = new String[count];
+            @Nullable String[] messages = new String[count];
+            @NotNull StackTraceElement[][] traces = new StackTraceElement[count][];
+
+            for (int index = 0; index < count; index++) {
+                types[index] = String.valueOf(string(frame));
+                messages[index] = string(frame);
+                traces[index] = new StackTraceElement[count(frame)];
+
+                for (int element = 0; element < traces[index].length; element++) {
+                    traces[index][element] = element(frame);
+                }
+            }
+
+            // Chains the causes starting from the deepest one
+            @Nullable Throwable cause = null;
+            for (int index = count - 1; index >= 0; index--) {
+                cause = new RecordedThrowable(types[index], messages[index], traces[index], cause);
+            }
+
+            return Objects.requireNonNull(cause);
+        }
+
+        private @NotNull StackTraceElement element(@NotNull ByteBuffer frame) {
+            @Nullable String className = string(frame);
+            @Nullable String methodName = string(frame);
+            @Nullable String fileName = string(frame);
+            int line = (int) zigzag(frame);
+
+            return new StackTraceElement(String.valueOf(className), String.valueOf(methodName), fileName, line);
+        }
+
+        // Primitives
+
+        private @Nullable String string(@NotNull ByteBuffer frame) {
+            long value = varint(frame);
+
+            if (value == 0) {
+                return null;
+            } else if ((value & 1) != 0) {
+                long id = value >>> 1;
+                return id < dictionary.length && dictionary[(int) id] != null ? dictionary[(int) id] : "?";
+            }
+
+            long size = (value >>> 1) - 1;
+
+            if (size > frame.remaining()) {
+                throw new IllegalArgumentException("string of " + size + " bytes exceeds the frame");
+            }
+
+            int length = (int) size;
+            if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+
+            frame.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads the number of entries of a section. Every entry takes at least one byte, so a count larger than the
+         * rest of the frame is damaged and rejected before anything is allocated for it.
+         */
+        private int count(@NotNull ByteBuffer frame) {
+            long count = varint(frame);
+
+            if (count < 0 || count > frame.remaining()) {
+                throw new IllegalArgumentException("count " + count + " exceeds the frame");
+            }
+
+            return (int) count;
+        }
+
+        private long varint(@NotNull ByteBuffer frame) {
+            long value = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = frame.get();
+                value |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) break;
+            }
+
+            return value;
+        }
+
+        private long zigzag(@NotNull ByteBuffer frame) {
+            long value = varint(frame);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+    }
+
+}
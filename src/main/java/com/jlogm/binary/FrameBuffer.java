@@ -0,0 +1,176 @@
+package com.jlogm.binary;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A growable byte buffer with the primitive writers of the binary log format.
+ */
+final class FrameBuffer {
+
+    private byte @NotNull [] bytes;
+    private int size = 0;
+
+    FrameBuffer(int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    // Getters
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    // Writers
+
+    void write(int value) {
+        ensure(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void write(byte @NotNull [] source, int offset, int length) {
+        ensure(length);
+        System.arraycopy(source, offset, bytes, size, length);
+        size += length;
+    }
+
+    void writeVarint(long value) {
+        ensure(10);
+
+        while ((value & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        bytes[size++] = (byte) value;
+    }
+
+    void writeZigzag(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes the value as 8 big-endian bytes, used for the double bits which don't shrink as varints.
+     */
+    void writeFixed64(long value) {
+        ensure(8);
+
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            bytes[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Writes an inline string using the string encoding of the format.
+     */
+    void writeString(@Nullable String string) {
+        if (string == null) {
+            write(0);
+            return;
+        }
+
+        int length = utf8Length(string);
+        writeVarint(((long) length + 1) << 1);
+        writeUtf8(string, length);
+    }
+
+    /**
+     * Writes a reference to a dictionary entry using the string encoding of the format.
+     */
+    void writeReference(int id) {
+        writeVarint(((long) id << 1) | 1);
+    }
+
+    /**
+     * Writes a complete frame of the given type holding the content of the payload buffer.
+     */
+    void writeFrame(int type, @NotNull FrameBuffer payload, @NotNull CRC32 crc) {
+        write(Frames.SYNC, 0, Frames.SYNC.length);
+        write(type);
+        writeVarint(payload.size);
+        write(payload.bytes, 0, payload.size);
+
+        crc.reset();
+        crc.update(type);
+        crc.update(payload.bytes, 0, payload.size);
+
+        int checksum = (int) crc.getValue();
+        write(checksum >>> 24);
+        write(checksum >>> 16);
+        write(checksum >>> 8);
+        write(checksum);
+    }
+
+    void writeTo(@NotNull OutputStream output) throws IOException {
+        output.write(bytes, 0, size);
+    }
+
+    // Utilities
+
+    private void writeUtf8(@NotNull String string, int length) {
+        ensure(length);
+
+        for (int index = 0; index < string.length(); index++) {
+            char c = string.charAt(index);
+
+            if (c < 0x80) {
+                bytes[size++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[size++] = (byte) (0xC0 | (c >> 6));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && index + 1 < string.length() && Character.isLowSurrogate(string.charAt(index + 1))) {
+                int code = Character.toCodePoint(c, string.charAt(++index));
+
+                bytes[size++] = (byte) (0xF0 | (code >> 18));
+                bytes[size++] = (byte) (0x80 | ((code >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((code >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (code & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                bytes[size++] = '?';
+            } else {
+                bytes[size++] = (byte) (0xE0 | (c >> 12));
+                bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static int utf8Length(@NotNull String string) {
+        int length = 0;
+
+        for (int index = 0; index < string.length(); index++) {
+            char c = string.charAt(index);
+
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && index + 1 < string.length() && Character.isLowSurrogate(string.charAt(index + 1))) {
+                length += 4;
+                index++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    private void ensure(int length) {
+        if (size + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.jlogm.binary;
+
+/**
+ * Constants of the jlogm binary log format.
+ *
+ * <p>A binary log file is a sequence of frames, each one laid out as:
+ * <pre>
+ * sync (4 bytes) | type (1 byte) | payload length (varint) | payload | crc32 of type and payload (4 bytes)
+ * </pre>
+ *
+ * <p>{@link #DEFINE} frames add an entry to the file dictionary: a varint id followed by a string. {@link #RECORD}
+ * frames hold one registry. The record payload starts with a fixed header, that can be decoded without touching
+ * the rest of the record:
+ * <pre>
+ * flags (varint) | time (varint) | level (string)
+ * </pre>
+ * followed by the prefix, the suffix and the sections enabled by the flags: markers, origin, object, context,
+ * stack, cause and fields.
+ *
+ * <p>When {@link #FLAG_TEMPLATE} is set with {@link #FLAG_OBJECT}, the object is a parameterized message written
+ * as its template, which is usually a dictionary reference, followed by a varint count and the formatted
+ * arguments as strings.</p>
+ *
+ * <p>The fields section is a varint count followed by, for each field, its key as a string, a type byte and the
+ * value: a zigzag varint for {@link #FIELD_LONG}, 8 big-endian bytes of the IEEE 754 bits for
+ * {@link #FIELD_DOUBLE}, a byte for {@link #FIELD_BOOLEAN} and a string for {@link #FIELD_OBJECT}.</p>
+ *
+ * <p>Anchor records carry the absolute epoch milliseconds, the others carry the zigzag encoded difference from
+ * the last anchor. Together with the sync bytes and the checksum, this makes the frames self-synchronizing: a
+ * reader skips a damaged or truncated frame by looking for the next sync bytes, and the times recover at the next
+ * anchor.</p>
+ *
+ * <p>Strings are written as a varint {@code v} where {@code 0} is null, odd values reference the dictionary id
+ * {@code v >>> 1}, and even values are followed by {@code (v >>> 1) - 1} bytes of inline UTF-8 content.</p>
+ */
+final class Frames {
+
+    // Static initializers
+
+    static final byte[] SYNC = { (byte) 0xFF, 'J', 'L', (byte) 0xFE };
+
+    static final int DEFINE = 1;
+    static final int RECORD = 2;
+
+    static final int FLAG_ANCHOR = 1;
+    static final int FLAG_MARKERS = 1 << 1;
+    static final int FLAG_ORIGIN = 1 << 2;
+    static final int FLAG_OBJECT = 1 << 3;
+    static final int FLAG_CONTEXT = 1 << 4;
+    static final int FLAG_STACK = 1 << 5;
+    static final int FLAG_CAUSE = 1 << 6;
+    static final int FLAG_FIELDS = 1 << 7;
+    static final int FLAG_TEMPLATE = 1 << 8;
+
+    static final int FIELD_LONG = 0;
+    static final int FIELD_DOUBLE = 1;
+    static final int FIELD_BOOLEAN = 2;
+    static final int FIELD_OBJECT = 3;
+
+    /**
+     * The maximum number of records between two anchor records.
+     */
+    static final int ANCHOR_INTERVAL = 64;
+
+    /**
+     * Frames claiming a payload longer than this are considered damaged.
+     */
+    static final int MAX_PAYLOAD = 64 * 1024 * 1024;
+
+    // Object
+
+    private Frames() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.jlogm.binary;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A throwable decoded from a binary log file. It holds the type name, message and stack trace of the original
+ * throwable, whose class is usually not available to the reader.
+ */
+public final class RecordedThrowable extends Throwable {
+
+    // Static initializers
+
+    private static final long serialVersionUID = 1L;
+
+    // Object
+
+    private final @NotNull String type;
+
+    RecordedThrowable(@NotNull String type, @Nullable String message, @NotNull StackTraceElement @NotNull [] stackTrace, @Nullable Throwable cause) {
+        super(message, cause, false, true);
+        this.type = type;
+
+        setStackTrace(stackTrace);
+    }
+
+    // Getters
+
+    /**
+     * @return the fully qualified class name of the original throwable
+     */
+    public @NotNull String getType() {
+        return type;
+    }
+
+    // Implementations
+
+    @Override
+    public synchronized @NotNull Throwable fillInStackTrace() {
+        return this;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return getMessage() != null ? type + ": " + getMessage() : type;
+    }
+
+}
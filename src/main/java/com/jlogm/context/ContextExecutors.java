@@ -0,0 +1,266 @@
+package com.jlogm.context;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Decorators propagating the {@link LogCtx} and the {@link Stack} of the submitting thread to the tasks of executors,
+ * fork/join tasks and asynchronous {@link CompletableFuture} stages.
+ *
+ * <p>Each submission captures a single {@link ContextSnapshot}, which only references the immutable context map and
+ * stack node of the submitting thread, and the executing thread attaches it for the duration of the task without
+ * copying it. The tasks submitted together, such as the ones of {@link ExecutorService#invokeAll(Collection)}, share
+ * the same snapshot.
+ * <pre>{@code
+ * ExecutorService executor = ContextExecutors.wrap(Executors.newFixedThreadPool(8));
+ *
+ * LogCtx.put("requestId", "r1");
+ * executor.submit(() -> logger.info().log("runs with requestId=r1"));
+ * }</pre>
+ *
+ * <p>The asynchronous stages of a {@link CompletableFuture} run on the thread completing the previous stage, so the
+ * snapshot to propagate must be taken when the stage is created, with {@link ContextSnapshot#wrapFunction} and its
+ * siblings, or with {@link #supplyAsync(Supplier, Executor)} and {@link #runAsync(Runnable, Executor)} for the first
+ * stage.</p>
+ */
+public final class ContextExecutors {
+
+    // Static initializers
+
+    /**
+     * @param executor the executor to decorate
+     * @return an executor running the tasks under the context of the thread submitting them
+     */
+    public static @NotNull Executor wrap(@NotNull Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        if (executor instanceof ExecutorService) return wrap((ExecutorService) executor);
+
+        return task -> executor.execute(ContextSnapshot.capture().wrap(task));
+    }
+
+    /**
+     * @param executor the executor to decorate
+     * @return an executor service running the tasks under the context of the thread submitting them
+     */
+    public static @NotNull ExecutorService wrap(@NotNull ExecutorService executor) {
+        Objects.requireNonNull(executor, "executor");
+
+        if (executor instanceof ContextExecutorService) return executor;
+        if (executor instanceof ScheduledExecutorService) return wrap((ScheduledExecutorService) executor);
+
+        return new ContextExecutorService(executor);
+    }
+
+    /**
+     * @param executor the executor to decorate
+     * @return a scheduled executor service running the tasks under the context of the thread scheduling them,
+     * periodic tasks reuse the context of their scheduling on every run
+     */
+    public static @NotNull ScheduledExecutorService wrap(@NotNull ScheduledExecutorService executor) {
+        Objects.requireNonNull(executor, "executor");
+        if (executor instanceof ContextScheduledExecutorService) return executor;
+
+        return new ContextScheduledExecutorService(executor);
+    }
+
+    /**
+     * Wraps a fork/join task, to be submitted to a {@link java.util.concurrent.ForkJoinPool} or forked. The task
+     * runs under the context of the thread calling this method, including the subtasks it computes directly.
+     *
+     * @param task the task to wrap
+     * @param <T> the result type
+     * @return a task invoking the given one under the current context
+     */
+    public static <T> @NotNull ForkJoinTask<T> wrap(@NotNull ForkJoinTask<T> task) {
+        Objects.requireNonNull(task, "task");
+        return ForkJoinTask.adapt(ContextSnapshot.capture().wrap(task::invoke));
+    }
+
+    /**
+     * @param supplier the supplier computing the value
+     * @param executor the executor running the supplier
+     * @param <T> the result type
+     * @return a future completed by the supplier, run under the current context
+     * @see CompletableFuture#supplyAsync(Supplier, Executor)
+     */
+    public static <T> @NotNull CompletableFuture<T> supplyAsync(@NotNull Supplier<T> supplier, @NotNull Executor executor) {
+        return CompletableFuture.supplyAsync(ContextSnapshot.capture().wrapSupplier(supplier), executor);
+    }
+
+    /**
+     * @param supplier the supplier computing the value
+     * @param <T> the result type
+     * @return a future completed by the supplier on the common pool, run under the current context
+     * @see CompletableFuture#supplyAsync(Supplier)
+     */
+    public static <T> @NotNull CompletableFuture<T> supplyAsync(@NotNull Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(ContextSnapshot.capture().wrapSupplier(supplier));
+    }
+
+    /**
+     * @param task the task to run
+     * @param executor the executor running the task
+     * @return a future completed after the task, run under the current context
+     * @see CompletableFuture#runAsync(Runnable, Executor)
+     */
+    public static @NotNull CompletableFuture<Void> runAsync(@NotNull Runnable task, @NotNull Executor executor) {
+        return CompletableFuture.runAsync(ContextSnapshot.capture().wrap(task), executor);
+    }
+
+    /**
+     * @param task the task to run
+     * @return a future completed after the task on the common pool, run under the current context
+     * @see CompletableFuture#runAsync(Runnable)
+     */
+    public static @NotNull CompletableFuture<Void> runAsync(@NotNull Runnable task) {
+        return CompletableFuture.runAsync(ContextSnapshot.capture().wrap(task));
+    }
+
+    // Utilities
+
+    private static <T> @NotNull List<Callable<T>> wrap(@NotNull Collection<? extends Callable<T>> tasks) {
+        @NotNull ContextSnapshot snapshot = ContextSnapshot.capture();
+        @NotNull List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+
+        for (@NotNull Callable<T> task : tasks) {
+            wrapped.add(snapshot.wrap(task));
+        }
+
+        return wrapped;
+    }
+
+    // Object
+
+    private ContextExecutors() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+    // Classes
+
+    private static class ContextExecutorService implements ExecutorService {
+
+        protected final @NotNull ExecutorService executor;
+
+        private ContextExecutorService(@NotNull ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NotNull Runnable task) {
+            executor.execute(ContextSnapshot.capture().wrap(task));
+        }
+
+        @Override
+        public @NotNull Future<?> submit(@NotNull Runnable task) {
+            return executor.submit(ContextSnapshot.capture().wrap(task));
+        }
+        @Override
+        public <T> @NotNull Future<T> submit(@NotNull Runnable task, T result) {
+            return executor.submit(ContextSnapshot.capture().wrap(task), result);
+        }
+        @Override
+        public <T> @NotNull Future<T> submit(@NotNull Callable<T> task) {
+            return executor.submit(ContextSnapshot.capture().wrap(task));
+        }
+
+        @Override
+        public <T> @NotNull List<Future<T>> invokeAll(@NotNull Collection<? extends Callable<T>> tasks) throws InterruptedException {
+            return executor.invokeAll(wrap(tasks));
+        }
+        @Override
+        public <T> @NotNull List<Future<T>> invokeAll(@NotNull Collection<? extends Callable<T>> tasks, long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+            return executor.invokeAll(wrap(tasks), timeout, unit);
+        }
+
+        @Override
+        public <T> T invokeAny(@NotNull Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+            return executor.invokeAny(wrap(tasks));
+        }
+        @Override
+        public <T> T invokeAny(@NotNull Collection<? extends Callable<T>> tasks, long timeout, @NotNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return executor.invokeAny(wrap(tasks), timeout, unit);
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+        @Override
+        public @NotNull List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+        @Override
+        public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "ContextExecutorService{" +
+                    "executor=" + executor +
+                    '}';
+        }
+
+    }
+    private static final class ContextScheduledExecutorService extends ContextExecutorService implements ScheduledExecutorService {
+
+        private final @NotNull ScheduledExecutorService scheduler;
+
+        private ContextScheduledExecutorService(@NotNull ScheduledExecutorService scheduler) {
+            super(scheduler);
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public @NotNull ScheduledFuture<?> schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+            return scheduler.schedule(ContextSnapshot.capture().wrap(task), delay, unit);
+        }
+        @Override
+        public <V> @NotNull ScheduledFuture<V> schedule(@NotNull Callable<V> task, long delay, @NotNull TimeUnit unit) {
+            return scheduler.schedule(ContextSnapshot.capture().wrap(task), delay, unit);
+        }
+
+        @Override
+        public @NotNull ScheduledFuture<?> scheduleAtFixedRate(@NotNull Runnable task, long initialDelay, long period, @NotNull TimeUnit unit) {
+            return scheduler.scheduleAtFixedRate(ContextSnapshot.capture().wrap(task), initialDelay, period, unit);
+        }
+        @Override
+        public @NotNull ScheduledFuture<?> scheduleWithFixedDelay(@NotNull Runnable task, long initialDelay, long delay, @NotNull TimeUnit unit) {
+            return scheduler.scheduleWithFixedDelay(ContextSnapshot.capture().wrap(task), initialDelay, delay, unit);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "ContextScheduledExecutorService{" +
+                    "executor=" + scheduler +
+                    '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.jlogm.context;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pre-declared, typed key of the {@link LogCtx}. Every key gets a fixed slot when it's declared, and its values
+ * are kept in compact per-thread arrays next to the string-keyed map of the ad-hoc values: reading or writing a value
+ * indexes the array instead of hashing the name, and the {@link OfLong long} and {@link OfInt int} keys store their
+ * values unboxed.
+ *
+ * <p>Keys are meant to be declared once as constants. Declaring a name again with the same type returns the same
+ * key, the typed values appear under their name in the {@link LogCtx#snapshot() snapshots} written to the logs:
+ * <pre>{@code
+ * private static final ContextKey<String> USER = ContextKey.of("user", String.class);
+ * private static final ContextKey.OfLong REQUEST = ContextKey.ofLong("requestId");
+ *
+ * LogCtx.put(USER, "alice").put(REQUEST, 42L);
+ * long request = LogCtx.getLong(REQUEST, -1);
+ * }</pre>
+ *
+ * @param <T> the type of the values
+ */
+public class ContextKey<T> {
+
+    // Static initializers
+
+    private static final @NotNull Map<String, ContextKey<?>> KEYS = new ConcurrentHashMap<>();
+
+    // Keys by slot, replaced under the lock when a key is declared
+    private static volatile @NotNull ContextKey<?> @NotNull [] objects = new ContextKey<?>[0];
+    private static volatile @NotNull ContextKey<?> @NotNull [] primitives = new ContextKey<?>[0];
+
+    /**
+     * @param name the name of the values in the logs
+     * @param type the type of the values
+     * @param <T> the type of the values
+     * @return the key of the name
+     * @throws IllegalArgumentException if the name is already declared with another type, or if the type is a
+     * primitive type, see {@link #ofLong(String)} and {@link #ofInt(String)}
+     */
+    public static <T> @NotNull ContextKey<T> of(@NotNull String name, @NotNull Class<T> type) {
+        // Declared with the type, or the declaration fails
+        @SuppressWarnings("unchecked")
+        @NotNull ContextKey<T> key = (ContextKey<T>) declare(name, type, false);
+        return key;
+    }
+
+    /**
+     * @param name the name of the values in the logs
+     * @return the key of the name, storing its values as unboxed longs
+     * @throws IllegalArgumentException if the name is already declared with another type
+     */
+    public static @NotNull OfLong ofLong(@NotNull String name) {
+        return (OfLong) declare(name, Long.class, true);
+    }
+
+    /**
+     * @param name the name of the values in the logs
+     * @return the key of the name, storing its values as unboxed ints
+     * @throws IllegalArgumentException if the name is already declared with another type
+     */
+    public static @NotNull OfInt ofInt(@NotNull String name) {
+        return (OfInt) declare(name, Integer.class, true);
+    }
+
+    /**
+     * @param name the name of a key
+     * @return the key declared with the name, or null if there's none
+     */
+    public static @Nullable ContextKey<?> get(@NotNull String name) {
+        return KEYS.get(name);
+    }
+
+    static @NotNull ContextKey<?> object(int slot) {
+        return objects[slot];
+    }
+    static @NotNull ContextKey<?> primitive(int slot) {
+        return primitives[slot];
+    }
+
+    private static synchronized @NotNull ContextKey<?> declare(@NotNull String name, @NotNull Class<?> type, boolean primitive) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(type, "type");
+
+        if (type.isPrimitive()) {
+            throw new IllegalArgumentException("the context key '" + name + "' cannot have the primitive type " + type.getName() + ", use the boxed type or a primitive key");
+        }
+
+        @Nullable ContextKey<?> key = KEYS.get(name);
+
+        if (key != null) {
+            if (key.type != type || key.isPrimitive() != primitive) {
+                throw new IllegalArgumentException("the context key '" + name + "' is already declared with the type " + key.type.getName());
+            }
+
+            return key;
+        }
+
+        if (!primitive) {
+            key = new ContextKey<>(name, type, objects.length);
+            objects = append(objects, key);
+        } else {
+            key = type == Long.class ? new OfLong(name, primitives.length) : new OfInt(name, primitives.length);
+            primitives = append(primitives, key);
+        }
+
+        KEYS.put(name, key);
+        return key;
+    }
+
+    private static @NotNull ContextKey<?> @NotNull [] append(@NotNull ContextKey<?> @NotNull [] keys, @NotNull ContextKey<?> key) {
+        @NotNull ContextKey<?> @NotNull [] copy = Arrays.copyOf(keys, keys.length + 1);
+        copy[keys.length] = key;
+
+        return copy;
+    }
+
+    // Object
+
+    private final @NotNull String name;
+    private final @NotNull Class<T> type;
+    final int slot;
+
+    private ContextKey(@NotNull String name, @NotNull Class<T> type, int slot) {
+        this.name = name;
+        this.type = type;
+        this.slot = slot;
+    }
+
+    // Getters
+
+    public final @NotNull String getName() {
+        return name;
+    }
+
+    public final @NotNull Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return true if the values are stored unboxed, by the {@link OfLong} and {@link OfInt} keys
+     */
+    public boolean isPrimitive() {
+        return false;
+    }
+
+    // Modules
+
+    /**
+     * @param value the stored value of a primitive key
+     * @return the boxed value
+     */
+    @Nullable T box(long value) {
+        throw new UnsupportedOperationException("the context key '" + name + "' isn't primitive");
+    }
+
+    // Implementations
+
+    @Override
+    public final boolean equals(@Nullable Object object) {
+        return this == object;
+    }
+    @Override
+    public final int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public final @NotNull String toString() {
+        return "ContextKey{" +
+                "name=" + name +
+                ", type=" + type.getSimpleName() +
+                '}';
+    }
+
+    // Classes
+
+    /**
+     * A key storing its values as unboxed longs.
+     */
+    public static final class OfLong extends ContextKey<Long> {
+        private OfLong(@NotNull String name, int slot) {
+            super(name, Long.class, slot);
+        }
+
+        @Override
+        public boolean isPrimitive() {
+            return true;
+        }
+
+        @Override
+        @NotNull Long box(long value) {
+            return value;
+        }
+    }
+
+    /**
+     * A key storing its values as unboxed ints.
+     */
+    public static final class OfInt extends ContextKey<Integer> {
+        private OfInt(@NotNull String name, int slot) {
+            super(name, Integer.class, slot);
+        }
+
+        @Override
+        public boolean isPrimitive() {
+            return true;
+        }
+
+        @Override
+        @NotNull Integer box(long value) {
+            return (int) value;
+        }
+    }
+
+}
@@ -0,0 +1,252 @@
+package com.jlogm.context;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An immutable capture of both the {@link LogCtx}, with its typed values, and the {@link Stack} of a thread, to run code of other threads
+ * under them.
+ *
+ * <p>The context map, its typed values and the stack nodes are never modified once published, so capturing only
+ * keeps a reference to them and attaching installs those references back: neither copies anything, whatever the
+ * size of the context.
+ * The tasks run with the captured context replacing the one of the executing thread, which is restored afterwards.
+ * <pre>{@code
+ * ContextSnapshot snapshot = ContextSnapshot.capture();
+ *
+ * future.thenApplyAsync(snapshot.wrapFunction(response -> handle(response)), executor);
+ * }</pre>
+ *
+ * @see ContextExecutors
+ */
+public final class ContextSnapshot {
+
+    // Static initializers
+
+    private static final @NotNull ContextSnapshot EMPTY = new ContextSnapshot(Collections.emptyMap(), LogCtx.Slots.EMPTY, null);
+
+    /**
+     * @return a snapshot of the current thread's context and stack
+     */
+    public static @NotNull ContextSnapshot capture() {
+        return of(LogCtx.map(), LogCtx.slots(), Stack.top());
+    }
+
+    /**
+     * @return a snapshot without context nor stack, attaching it clears them while the task runs
+     */
+    public static @NotNull ContextSnapshot empty() {
+        return EMPTY;
+    }
+
+    private static @NotNull ContextSnapshot of(@NotNull Map<String, Object> context, LogCtx.@NotNull Slots slots, Stack.@Nullable Node stack) {
+        return context.isEmpty() && slots.isEmpty() && stack == null ? EMPTY : new ContextSnapshot(context, slots, stack);
+    }
+
+    // Object
+
+    private final @NotNull Map<String, Object> context;
+    private final LogCtx.@NotNull Slots slots;
+    private final Stack.@Nullable Node stack;
+
+    private ContextSnapshot(@NotNull Map<String, Object> context, LogCtx.@NotNull Slots slots, Stack.@Nullable Node stack) {
+        this.context = context;
+        this.slots = slots;
+        this.stack = stack;
+    }
+
+    // Getters
+
+    /**
+     * @return the captured context including the values of the typed keys, unmodifiable
+     */
+    public @NotNull Map<String, Object> getContext() {
+        return LogCtx.merge(context, slots);
+    }
+
+    /**
+     * @return the captured stack, top-first and unmodifiable
+     */
+    public @NotNull List<String> getStack() {
+        return stack != null ? stack.list() : Collections.emptyList();
+    }
+
+    public boolean isEmpty() {
+        return context.isEmpty() && slots.isEmpty() && stack == null;
+    }
+
+    // Modules
+
+    /**
+     * Installs this snapshot as the context and stack of the current thread. The previous state is returned as
+     * another snapshot, which must be attached back once done:
+     * <pre>{@code
+     * ContextSnapshot previous = snapshot.attach();
+     * try {
+     *     // ...
+     * } finally {
+     *     previous.attach();
+     * }
+     * }</pre>
+     *
+     * @return the previous context and stack of the current thread
+     */
+    public @NotNull ContextSnapshot attach() {
+        return of(LogCtx.swap(context), LogCtx.swap(slots), Stack.swap(stack));
+    }
+
+    /**
+     * Runs the task under this snapshot, restoring the current thread's context and stack afterwards.
+     *
+     * @param task the task to run
+     */
+    public void run(@NotNull Runnable task) {
+        @NotNull ContextSnapshot previous = attach();
+
+        try {
+            task.run();
+        } finally {
+            previous.attach();
+        }
+    }
+
+    /**
+     * Calls the task under this snapshot, restoring the current thread's context and stack afterwards.
+     *
+     * @param task the task to call
+     * @param <T> the result type
+     * @return the result of the task
+     * @throws Exception if the task fails
+     */
+    public <T> T call(@NotNull Callable<T> task) throws Exception {
+        @NotNull ContextSnapshot previous = attach();
+
+        try {
+            return task.call();
+        } finally {
+            previous.attach();
+        }
+    }
+
+    /**
+     * @param task the task to wrap
+     * @return a runnable running the task under this snapshot
+     */
+    public @NotNull Runnable wrap(@NotNull Runnable task) {
+        Objects.requireNonNull(task, "task");
+        return () -> run(task);
+    }
+
+    /**
+     * @param task the task to wrap
+     * @param <T> the result type
+     * @return a callable calling the task under this snapshot
+     */
+    public <T> @NotNull Callable<T> wrap(@NotNull Callable<T> task) {
+        Objects.requireNonNull(task, "task");
+        return () -> call(task);
+    }
+
+    /**
+     * @param supplier the supplier to wrap
+     * @param <T> the result type
+     * @return a supplier calling the supplier under this snapshot
+     */
+    public <T> @NotNull Supplier<T> wrapSupplier(@NotNull Supplier<T> supplier) {
+        Objects.requireNonNull(supplier, "supplier");
+
+        return () -> {
+            @NotNull ContextSnapshot previous = attach();
+
+            try {
+                return supplier.get();
+            } finally {
+                previous.attach();
+            }
+        };
+    }
+
+    /**
+     * @param function the function to wrap
+     * @param <T> the argument type
+     * @param <R> the result type
+     * @return a function applying the function under this snapshot
+     */
+    public <T, R> @NotNull Function<T, R> wrapFunction(@NotNull Function<T, R> function) {
+        Objects.requireNonNull(function, "function");
+
+        return argument -> {
+            @NotNull ContextSnapshot previous = attach();
+
+            try {
+                return function.apply(argument);
+            } finally {
+                previous.attach();
+            }
+        };
+    }
+
+    /**
+     * @param function the function to wrap
+     * @param <T> the first argument type
+     * @param <U> the second argument type
+     * @param <R> the result type
+     * @return a function applying the function under this snapshot
+     */
+    public <T, U, R> @NotNull BiFunction<T, U, R> wrapFunction(@NotNull BiFunction<T, U, R> function) {
+        Objects.requireNonNull(function, "function");
+
+        return (first, second) -> {
+            @NotNull ContextSnapshot previous = attach();
+
+            try {
+                return function.apply(first, second);
+            } finally {
+                previous.attach();
+            }
+        };
+    }
+
+    /**
+     * @param consumer the consumer to wrap
+     * @param <T> the argument type
+     * @return a consumer accepting the values under this snapshot
+     */
+    public <T> @NotNull Consumer<T> wrapConsumer(@NotNull Consumer<T> consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        return argument -> run(() -> consumer.accept(argument));
+    }
+
+    /**
+     * @param consumer the consumer to wrap
+     * @param <T> the first argument type
+     * @param <U> the second argument type
+     * @return a consumer accepting the values under this snapshot
+     */
+    public <T, U> @NotNull BiConsumer<T, U> wrapConsumer(@NotNull BiConsumer<T, U> consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        return (first, second) -> run(() -> consumer.accept(first, second));
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "ContextSnapshot{" +
+                "context=" + context +
+                ", stack=" + getStack() +
+                '}';
+    }
+
+}
@@ -3,11 +3,13 @@ package com.jlogm.context;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -17,9 +19,14 @@ import java.util.function.Supplier;
  * Design goals:
  * <ul>
  *   <li>Thread-local per-thread context map with predictable ordering (LinkedHashMap).</li>
+ *   <li>Immutable context maps, replaced on every change: snapshots and propagation share the map instead of
+ *   copying it, and threads that never write a value don't allocate anything.</li>
+ *   <li>Pre-declared {@link ContextKey typed keys} stored in immutable slot-indexed arrays next to the map, read and
+ *   written without hashing their name nor boxing the {@code long}/{@code int} values.</li>
  *   <li>Fluent API for concise composition (chainable {@code put} calls).</li>
  *   <li>Builder-style API to install multiple values as a scope (try-with-resources friendly).</li>
- *   <li>Safe helpers to wrap Runnable/Callable for executor propagation.</li>
+ *   <li>Safe helpers to wrap Runnable/Callable for executor propagation, see {@link ContextExecutors} to propagate
+ *   the context together with the {@link Stack} through whole executors.</li>
  *   <li>JSON formatting helper for structured logging output.</li>
  * </ul>
  *
@@ -28,6 +35,10 @@ import java.util.function.Supplier;
  * // quick chained puts
  * LogCtx.put("requestId", "r1").put("user", 42);
  *
+ * // typed keys, declared once as constants
+ * LogCtx.put(REQUEST_ID, 42L);
+ * long requestId = LogCtx.getLong(REQUEST_ID, -1);
+ *
  * // scoped installation (restores previous values automatically)
  * try (LogCtx.Scope s = LogCtx.with("requestId", "r1")) {
  *     log.info("do work -> " + LogCtx.asJson());
@@ -45,15 +56,49 @@ import java.util.function.Supplier;
  */
 public final class LogCtx {
 
-    // Per-thread LogCtx instance
-    private static final ThreadLocal<LogCtx> CONTEXT = ThreadLocal.withInitial(LogCtx::new);
+    // Per-thread LogCtx instance, created on the first write
+    private static final ThreadLocal<LogCtx> CONTEXT = new ThreadLocal<>();
+
+    private static final @NotNull Map<String, Object> EMPTY = Collections.emptyMap();
 
-    // Internal map preserving insertion order (useful for deterministic JSON output)
-    private final @NotNull Map<String, Object> map = new LinkedHashMap<>();
+    // Unmodifiable map preserving insertion order (useful for deterministic JSON output), replaced on every change
+    private @NotNull Map<String, Object> map = EMPTY;
+    // Values of the typed keys, replaced on every change
+    private @NotNull Slots slots = Slots.EMPTY;
+
+    // The map merged with the typed values, computed once per state for the snapshots
+    private @Nullable Map<String, Object> view;
+    private @Nullable Map<String, Object> viewMap;
+    private @Nullable Slots viewSlots;
 
     // Private constructor - instances are thread-local
     private LogCtx() {}
 
+    /**
+     * @return the current thread's context map, without creating the thread's LogCtx instance
+     */
+    static @NotNull Map<String, Object> map() {
+        @Nullable LogCtx ctx = CONTEXT.get();
+        return ctx != null ? ctx.map : EMPTY;
+    }
+
+    /**
+     * @return the current thread's context map merged with the typed values, without creating the thread's LogCtx
+     * instance
+     */
+    private static @NotNull Map<String, Object> view() {
+        @Nullable LogCtx ctx = CONTEXT.get();
+        return ctx != null ? ctx.merged() : EMPTY;
+    }
+
+    /**
+     * @return the current thread's typed values, without creating the thread's LogCtx instance
+     */
+    static @NotNull Slots slots() {
+        @Nullable LogCtx ctx = CONTEXT.get();
+        return ctx != null ? ctx.slots : Slots.EMPTY;
+    }
+
     /* =========================
      * Static convenience / Fluent
      * ========================= */
@@ -65,7 +110,14 @@ public final class LogCtx {
      */
     @NotNull
     public static LogCtx current() {
-        return CONTEXT.get();
+        @Nullable LogCtx ctx = CONTEXT.get();
+
+        if (ctx == null) {
+            ctx = new LogCtx();
+            CONTEXT.set(ctx);
+        }
+
+        return ctx;
     }
 
     /**
@@ -78,9 +130,7 @@ public final class LogCtx {
      */
     @NotNull
     public static LogCtx put(@NotNull String key, @Nullable Object value) {
-        @NotNull LogCtx ctx = CONTEXT.get();
-        ctx.map.put(key, value);
-        return ctx;
+        return current().change(map -> map.put(key, value));
     }
 
     /**
@@ -92,9 +142,10 @@ public final class LogCtx {
      */
     @NotNull
     public static LogCtx putIfAbsent(@NotNull String key, @Nullable Object value) {
-        @NotNull LogCtx ctx = CONTEXT.get();
-        ctx.map.putIfAbsent(key, value);
-        return ctx;
+        @NotNull LogCtx ctx = current();
+        if (ctx.map.get(key) != null) return ctx;
+
+        return ctx.change(map -> map.putIfAbsent(key, value));
     }
 
     /**
@@ -105,8 +156,8 @@ public final class LogCtx {
      */
     @NotNull
     public static LogCtx putAll(@NotNull Map<String, Object> values) {
-        @NotNull LogCtx ctx = CONTEXT.get();
-        if (!values.isEmpty()) ctx.map.putAll(values);
+        @NotNull LogCtx ctx = current();
+        if (!values.isEmpty()) ctx.change(map -> map.putAll(values));
 
         return ctx;
     }
@@ -121,9 +172,10 @@ public final class LogCtx {
      */
     @NotNull
     public static LogCtx remove(@NotNull String key) {
-        @NotNull LogCtx ctx = CONTEXT.get();
-        ctx.map.remove(key);
-        return ctx;
+        @NotNull LogCtx ctx = current();
+        if (!ctx.map.containsKey(key)) return ctx;
+
+        return ctx.change(map -> map.remove(key));
     }
 
     /**
@@ -135,8 +187,10 @@ public final class LogCtx {
      */
     @Nullable
     public static Object removeAndGet(@NotNull String key) {
-        @NotNull LogCtx ctx = CONTEXT.get();
-        return ctx.map.remove(key);
+        @Nullable Object previous = map().get(key);
+        remove(key);
+
+        return previous;
     }
 
     /**
@@ -148,19 +202,44 @@ public final class LogCtx {
      */
     @NotNull
     public static LogCtx clear() {
-        @NotNull LogCtx ctx = CONTEXT.get();
-        ctx.map.clear();
+        @NotNull LogCtx ctx = current();
+        ctx.map = EMPTY;
+        ctx.slots = Slots.EMPTY;
         return ctx;
     }
 
     /**
-     * Return an immutable snapshot of the current context map (shallow copy).
+     * Return an immutable snapshot of the current context map, including the values of the typed keys. The context
+     * map is never modified once published, so without typed values the snapshot is the map itself and taking it
+     * costs nothing; otherwise the merged map is computed once and shared until the context changes.
      *
      * @return unmodifiable map snapshot (never null)
      */
     @NotNull
     public static Map<String, Object> snapshot() {
-        return Collections.unmodifiableMap(new LinkedHashMap<>(CONTEXT.get().map));
+        return view();
+    }
+
+    /**
+     * Returns true if every value of the context always renders to the same text: nulls, strings, boxed primitives
+     * and enum constants. The snapshots are immutable, but their values may not be, so the formatters only reuse
+     * the rendered text of a snapshot whose values are all immutable.
+     *
+     * @param context non-null context snapshot
+     * @return true if the values of the context are immutable
+     */
+    public static boolean isImmutable(@NotNull Map<String, ?> context) {
+        for (Object value : context.values()) {
+            if (value == null || value instanceof String || value instanceof Enum) continue;
+
+            Class<?> type = value.getClass();
+            if (type != Long.class && type != Integer.class && type != Boolean.class && type != Double.class && type != Character.class
+                    && type != Short.class && type != Byte.class && type != Float.class) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
@@ -171,7 +250,7 @@ public final class LogCtx {
      */
     @Nullable
     public static String getString(@NotNull String key) {
-        Object v = CONTEXT.get().map.get(key);
+        Object v = view().get(key);
         return v == null ? null : v.toString();
     }
 
@@ -183,7 +262,7 @@ public final class LogCtx {
      */
     @Nullable
     public static Object get(@NotNull String key) {
-        return CONTEXT.get().map.get(key);
+        return view().get(key);
     }
 
     /**
@@ -192,7 +271,7 @@ public final class LogCtx {
      * @return size >= 0
      */
     public static int size() {
-        return CONTEXT.get().map.size();
+        return view().size();
     }
 
     /**
@@ -202,22 +281,133 @@ public final class LogCtx {
      * @return true if present
      */
     public static boolean containsKey(@NotNull String key) {
-        return CONTEXT.get().map.containsKey(key);
+        return view().containsKey(key);
     }
 
     /**
-     * Restore the current thread's context to the provided map (replaces current contents).
-     * Fluent: returns the current LogCtx.
+     * Restore the current thread's context to the provided map (replaces current contents, including the values of
+     * the typed keys, which are then only restored as ad-hoc entries). Fluent: returns the current LogCtx.
      *
      * @param m nullable map; if null behaves like clear()
      * @return current LogCtx for chaining
      */
     @NotNull
     public static LogCtx restore(@Nullable Map<String, Object> m) {
-        @NotNull LogCtx ctx = CONTEXT.get();
-        @NotNull Map<String, Object> to = ctx.map;
-        to.clear();
-        if (m != null && !m.isEmpty()) to.putAll(m);
+        @NotNull LogCtx ctx = current();
+        ctx.map = m == null || m.isEmpty() ? EMPTY : Collections.unmodifiableMap(new LinkedHashMap<>(m));
+        ctx.slots = Slots.EMPTY;
+        return ctx;
+    }
+
+    /* =========================
+     * Typed keys
+     * ========================= */
+
+    /**
+     * Put the value of a typed key into the current thread's context and return the LogCtx for chaining.
+     *
+     * @param key   non-null key
+     * @param value nullable value, null removes the key
+     * @param <T>   the type of the value
+     * @return current LogCtx for chaining
+     */
+    @NotNull
+    public static <T> LogCtx put(@NotNull ContextKey<T> key, @Nullable T value) {
+        @NotNull LogCtx ctx = current();
+
+        if (value == null) {
+            ctx.slots = ctx.slots.without(key);
+        } else if (key.isPrimitive()) {
+            ctx.slots = ctx.slots.with(key, ((Number) value).longValue());
+        } else {
+            ctx.slots = ctx.slots.with(key, value);
+        }
+
+        return ctx;
+    }
+
+    /**
+     * Put the value of a long key, without boxing it, and return the LogCtx for chaining.
+     *
+     * @param key   non-null key
+     * @param value the value
+     * @return current LogCtx for chaining
+     */
+    @NotNull
+    public static LogCtx put(@NotNull ContextKey.OfLong key, long value) {
+        @NotNull LogCtx ctx = current();
+        ctx.slots = ctx.slots.with(key, value);
+        return ctx;
+    }
+
+    /**
+     * Put the value of an int key, without boxing it, and return the LogCtx for chaining.
+     *
+     * @param key   non-null key
+     * @param value the value
+     * @return current LogCtx for chaining
+     */
+    @NotNull
+    public static LogCtx put(@NotNull ContextKey.OfInt key, int value) {
+        @NotNull LogCtx ctx = current();
+        ctx.slots = ctx.slots.with(key, value);
+        return ctx;
+    }
+
+    /**
+     * Get the value of a typed key, boxed for the long and int keys.
+     *
+     * @param key non-null key
+     * @param <T> the type of the value
+     * @return value or null
+     */
+    @Nullable
+    public static <T> T get(@NotNull ContextKey<T> key) {
+        return slots().get(key);
+    }
+
+    /**
+     * Get the value of a long key without boxing it.
+     *
+     * @param key          non-null key
+     * @param defaultValue the value returned if the key is absent
+     * @return value or the default value
+     */
+    public static long getLong(@NotNull ContextKey.OfLong key, long defaultValue) {
+        return slots().get(key, defaultValue);
+    }
+
+    /**
+     * Get the value of an int key without boxing it.
+     *
+     * @param key          non-null key
+     * @param defaultValue the value returned if the key is absent
+     * @return value or the default value
+     */
+    public static int getInt(@NotNull ContextKey.OfInt key, int defaultValue) {
+        return (int) slots().get(key, defaultValue);
+    }
+
+    /**
+     * Returns true if the current thread's context contains a value for the typed key.
+     *
+     * @param key non-null key
+     * @return true if present
+     */
+    public static boolean containsKey(@NotNull ContextKey<?> key) {
+        return slots().contains(key);
+    }
+
+    /**
+     * Remove a typed key from the current thread's context and return this LogCtx for chaining.
+     *
+     * @param key non-null key
+     * @return current LogCtx for chaining
+     */
+    @NotNull
+    public static LogCtx remove(@NotNull ContextKey<?> key) {
+        @NotNull LogCtx ctx = current();
+        ctx.slots = ctx.slots.without(key);
         return ctx;
     }
 
@@ -316,12 +506,12 @@ public final class LogCtx {
         private Scope(@NotNull Map<String, Object> valuesToInstall) {
             // copy to be safe
             this.currentValues = new LinkedHashMap<>(Objects.requireNonNull(valuesToInstall, "values"));
-            Map<String, Object> ctx = CONTEXT.get().map;
+            Map<String, Object> ctx = map();
             for (String k : currentValues.keySet()) {
                 // explicit marker that it was absent
                 previousValues.put(k, ctx.getOrDefault(k, null));
-                ctx.put(k, currentValues.get(k));
             }
+            if (!currentValues.isEmpty()) current().change(map -> map.putAll(currentValues));
         }
 
         /**
@@ -330,15 +520,16 @@ public final class LogCtx {
         @Override
         public void close() {
             if (closed) return;
-            Map<String, Object> ctx = CONTEXT.get().map;
-            // remove the keys we set
-            for (String k : currentValues.keySet()) {
-                ctx.remove(k);
-            }
-            // restore previous values (null means absent before)
-            for (Map.Entry<String, Object> e : previousValues.entrySet()) {
-                if (e.getValue() != null) ctx.put(e.getKey(), e.getValue());
-            }
+            if (!currentValues.isEmpty()) current().change(ctx -> {
+                // remove the keys we set
+                for (String k : currentValues.keySet()) {
+                    ctx.remove(k);
+                }
+                // restore previous values (null means absent before)
+                for (Map.Entry<String, Object> e : previousValues.entrySet()) {
+                    if (e.getValue() != null) ctx.put(e.getKey(), e.getValue());
+                }
+            });
             closed = true;
         }
     }
@@ -357,14 +548,18 @@ public final class LogCtx {
     @NotNull
     public static Runnable wrap(@NotNull Runnable task) {
         Objects.requireNonNull(task, "task");
-        final Map<String, Object> snap = snapshot();
+        final Map<String, Object> snap = map();
+        final Slots slots = slots();
         return () -> {
-            Map<String, Object> previous = snapshot();
-            try (Scope s = new Scope(snap)) {
+            @NotNull LogCtx ctx = current();
+            Slots previousSlots = ctx.slots;
+            Map<String, Object> previous = install(snap);
+            ctx.slots = previousSlots.with(slots);
+            try {
                 task.run();
             } finally {
-                // ensure previous restored even if Scope.close() didn't because of mismatch
-                restore(previous);
+                ctx.map = previous;
+                ctx.slots = previousSlots;
             }
         };
     }
@@ -380,17 +575,99 @@ public final class LogCtx {
     @NotNull
     public static <T> Callable<T> wrap(@NotNull Callable<T> task) {
         Objects.requireNonNull(task, "task");
-        final Map<String, Object> snap = snapshot();
+        final Map<String, Object> snap = map();
+        final Slots slots = slots();
         return () -> {
-            Map<String, Object> previous = snapshot();
-            try (Scope s = new Scope(snap)) {
+            @NotNull LogCtx ctx = current();
+            Slots previousSlots = ctx.slots;
+            Map<String, Object> previous = install(snap);
+            ctx.slots = previousSlots.with(slots);
+            try {
                 return task.call();
             } finally {
-                restore(previous);
+                ctx.map = previous;
+                ctx.slots = previousSlots;
             }
         };
     }
 
+    /**
+     * Install a snapshot over the current thread's context. A thread without context, the usual case for pooled and
+     * virtual threads, shares the snapshot itself instead of copying it.
+     *
+     * @param values immutable context map of another thread
+     * @return the previous context map, to be restored afterwards
+     */
+    private static @NotNull Map<String, Object> install(@NotNull Map<String, Object> values) {
+        @NotNull LogCtx ctx = current();
+        @NotNull Map<String, Object> previous = ctx.map;
+
+        if (previous.isEmpty()) {
+            ctx.map = values;
+        } else if (!values.isEmpty()) {
+            ctx.change(map -> map.putAll(values));
+        }
+
+        return previous;
+    }
+
+    /**
+     * Replace the current thread's context by a snapshot, used by {@link ContextSnapshot} to install a captured
+     * context without copying it. A thread without context installing an empty one doesn't allocate anything.
+     *
+     * @param values immutable context map of another thread
+     * @return the previous context map, to be restored afterwards
+     */
+    static @NotNull Map<String, Object> swap(@NotNull Map<String, Object> values) {
+        @Nullable LogCtx ctx = CONTEXT.get();
+
+        if (ctx == null) {
+            if (values.isEmpty()) return EMPTY;
+            ctx = current();
+        }
+
+        @NotNull Map<String, Object> previous = ctx.map;
+        ctx.map = values;
+
+        return previous;
+    }
+
+    /**
+     * Replace the current thread's typed values, as {@link #swap(Map)} does for the context map.
+     *
+     * @param slots immutable typed values of another thread
+     * @return the previous typed values, to be restored afterwards
+     */
+    static @NotNull Slots swap(@NotNull Slots slots) {
+        @Nullable LogCtx ctx = CONTEXT.get();
+
+        if (ctx == null) {
+            if (slots.isEmpty()) return Slots.EMPTY;
+            ctx = current();
+        }
+
+        @NotNull Slots previous = ctx.slots;
+        ctx.slots = slots;
+
+        return previous;
+    }
+
+    /**
+     * Merge a context map with typed values, the typed values taking precedence over the entries with the same name.
+     *
+     * @param map   immutable context map
+     * @param slots immutable typed values
+     * @return the merged unmodifiable map, the map itself without typed values
+     */
+    static @NotNull Map<String, Object> merge(@NotNull Map<String, Object> map, @NotNull Slots slots) {
+        if (slots.isEmpty()) return map;
+
+        @NotNull Map<String, Object> merged = new LinkedHashMap<>(map);
+        slots.putTo(merged);
+
+        return Collections.unmodifiableMap(merged);
+    }
+
     /* =========================
      * Instance (non-static) helpers used by fluent static API
      * ========================= */
@@ -403,17 +680,184 @@ public final class LogCtx {
      * @return this instance for chaining
      */
     private @NotNull LogCtx putInternal(@NotNull String key, @Nullable Object value) {
-        this.map.put(key, value);
-        return this;
+        return change(map -> map.put(key, value));
+    }
+
+    /**
+     * Return this instance's map merged with its typed values, computed once per state.
+     *
+     * @return unmodifiable merged map
+     */
+    private @NotNull Map<String, Object> merged() {
+        if (slots.isEmpty()) return map;
+
+        if (viewMap != map || viewSlots != slots) {
+            view = merge(map, slots);
+            viewMap = map;
+            viewSlots = slots;
+        }
+
+        //noinspection DataFlowIssue
+        return view;
     }
 
     /**
-     * Return an unmodifiable shallow copy of this instance's internal map.
+     * Return this instance's internal map, which is already unmodifiable.
      *
      * @return snapshot map
      */
     private @NotNull Map<String, Object> snapshotInternal() {
-        return Collections.unmodifiableMap(new LinkedHashMap<>(this.map));
+        return this.map;
+    }
+
+    /**
+     * Apply a change to a copy of this instance's map and publish the copy, the previous map is left untouched
+     * for the snapshots sharing it.
+     *
+     * @param change the change applied to the copy
+     * @return this instance for chaining
+     */
+    private @NotNull LogCtx change(@NotNull Consumer<Map<String, Object>> change) {
+        @NotNull Map<String, Object> copy = new LinkedHashMap<>(this.map);
+        change.accept(copy);
+
+        this.map = copy.isEmpty() ? EMPTY : Collections.unmodifiableMap(copy);
+        return this;
+    }
+
+    /* =========================
+     * Typed values
+     * ========================= */
+
+    /**
+     * The immutable values of the typed keys of a context, indexed by the slots of the keys: the objects in an array
+     * and the long and int values unboxed in another. Every change returns a copy, so the values can be shared by
+     * the snapshots and other threads like the context map.
+     */
+    static final class Slots {
+
+        static final @NotNull Slots EMPTY = new Slots(new Object[0], new long[0], new boolean[0], 0);
+
+        private final @Nullable Object @NotNull [] objects;
+        private final long @NotNull [] primitives;
+        private final boolean @NotNull [] present;
+        private final int size;
+
+        private Slots(@Nullable Object @NotNull [] objects, long @NotNull [] primitives, boolean @NotNull [] present, int size) {
+            this.objects = objects;
+            this.primitives = primitives;
+            this.present = present;
+            this.size = size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(@NotNull ContextKey<?> key) {
+            if (key.isPrimitive()) {
+                return key.slot < present.length && present[key.slot];
+            } else {
+                return key.slot < objects.length && objects[key.slot] != null;
+            }
+        }
+
+        @Nullable <T> T get(@NotNull ContextKey<T> key) {
+            if (key.isPrimitive()) {
+                return contains(key) ? key.box(primitives[key.slot]) : null;
+            }
+
+            if (key.slot >= objects.length) return null;
+
+            // Only values of the key's type are stored in its slot
+            @SuppressWarnings("unchecked")
+            @Nullable T value = (T) objects[key.slot];
+            return value;
+        }
+
+        long get(@NotNull ContextKey<?> key, long defaultValue) {
+            return contains(key) ? primitives[key.slot] : defaultValue;
+        }
+
+        @NotNull Slots with(@NotNull ContextKey<?> key, @NotNull Object value) {
+            if (!key.getType().isInstance(value)) {
+                throw new IllegalArgumentException("the value of the context key '" + key.getName() + "' must be a " + key.getType().getName());
+            }
+
+            @Nullable Object @NotNull [] objects = Arrays.copyOf(this.objects, Math.max(this.objects.length, key.slot + 1));
+            int size = objects[key.slot] == null ? this.size + 1 : this.size;
+            objects[key.slot] = value;
+
+            return new Slots(objects, primitives, present, size);
+        }
+
+        @NotNull Slots with(@NotNull ContextKey<?> key, long value) {
+            int length = Math.max(this.primitives.length, key.slot + 1);
+            long @NotNull [] primitives = Arrays.copyOf(this.primitives, length);
+            boolean @NotNull [] present = Arrays.copyOf(this.present, length);
+
+            int size = present[key.slot] ? this.size : this.size + 1;
+            primitives[key.slot] = value;
+            present[key.slot] = true;
+
+            return new Slots(objects, primitives, present, size);
+        }
+
+        @NotNull Slots without(@NotNull ContextKey<?> key) {
+            if (!contains(key)) {
+                return this;
+            } else if (size == 1) {
+                return EMPTY;
+            } else if (key.isPrimitive()) {
+                boolean @NotNull [] present = this.present.clone();
+                present[key.slot] = false;
+
+                return new Slots(objects, primitives, present, size - 1);
+            }
+
+            @Nullable Object @NotNull [] objects = this.objects.clone();
+            objects[key.slot] = null;
+
+            return new Slots(objects, primitives, present, size - 1);
+        }
+
+        /**
+         * @param values the values to set over these ones
+         * @return these values overridden by the given ones
+         */
+        @NotNull Slots with(@NotNull Slots values) {
+            if (values.isEmpty()) return this;
+            else if (isEmpty()) return values;
+
+            @NotNull Slots slots = this;
+
+            for (int slot = 0; slot < values.objects.length; slot++) {
+                if (values.objects[slot] != null) slots = slots.with(ContextKey.object(slot), values.objects[slot]);
+            }
+            for (int slot = 0; slot < values.present.length; slot++) {
+                if (values.present[slot]) slots = slots.with(ContextKey.primitive(slot), values.primitives[slot]);
+            }
+
+            return slots;
+        }
+
+        /**
+         * Puts the values into a map under the names of their keys, in the order of the slots.
+         *
+         * @param map the map receiving the values
+         */
+        void putTo(@NotNull Map<String, Object> map) {
+            for (int slot = 0; slot < objects.length; slot++) {
+                if (objects[slot] != null) map.put(ContextKey.object(slot).getName(), objects[slot]);
+            }
+            for (int slot = 0; slot < present.length; slot++) {
+                if (present[slot]) {
+                    @NotNull ContextKey<?> key = ContextKey.primitive(slot);
+                    map.put(key.getName(), key.box(primitives[slot]));
+                }
+            }
+        }
+
     }
 
     /* =========================
@@ -15,7 +15,8 @@ import java.util.function.Supplier;
  * <ul>
  *     <li>Push a scope marker at the beginning of a service/operation and pop it at the end.</li>
  *     <li>Use {@link Scope} with try-with-resources to guarantee proper pop/restore.</li>
- *     <li>Capture a snapshot and wrap a {@link Runnable} / {@link Callable} to propagate the context across threads.</li>
+ *     <li>Capture a snapshot and wrap a {@link Runnable} / {@link Callable} to propagate the context across threads,
+ *     or use {@link ContextExecutors} to propagate it together with the {@link LogCtx}.</li>
  * </ul>
  *
  * <p><b>Design goals</b>:
@@ -24,6 +25,8 @@ import java.util.function.Supplier;
  *     <li>Helpers to avoid leaks in pooled threads ( {@link #removeThreadContext()} ).</li>
  *     <li>Formatting helpers to integrate with structured logging (asString, asJson).</li>
  *     <li>Scoped usage via {@link Scope} to avoid bugs caused by forgotten pops.</li>
+ *     <li>Immutable linked nodes shared between the stacks: snapshots and propagation only capture the top node,
+ *     and threads that never push a value don't allocate anything.</li>
  * </ul>
  *
  * <p><b>Example</b>:
@@ -38,17 +41,61 @@ import java.util.function.Supplier;
 public final class Stack {
 
     /**
-     * Thread-local Stack instance — each thread holds its own Stack object which contains the internal deque.
+     * Thread-local Stack instance — each thread holds its own Stack object which points to the top node.
      * This lets static fluent methods return the per-thread Stack instance for chaining.
+     * The instance is created on the first write.
      */
-    private static final ThreadLocal<Stack> CONTEXT = ThreadLocal.withInitial(Stack::new);
+    private static final ThreadLocal<Stack> CONTEXT = new ThreadLocal<>();
 
-    // instance field: the actual deque used as the stack (head == top)
-    private final Deque<String> ndc = new ArrayDeque<>();
+    // instance field: the top node of the stack, or null if empty; nodes are immutable and shared
+    private @Nullable Node top;
 
     // allow instantiation only for the ThreadLocal; keep constructor private
     private Stack() {}
 
+    /**
+     * @return the per-thread Stack instance, created if missing
+     */
+    private static @NotNull Stack current() {
+        @Nullable Stack stack = CONTEXT.get();
+
+        if (stack == null) {
+            stack = new Stack();
+            CONTEXT.set(stack);
+        }
+
+        return stack;
+    }
+
+    /**
+     * @return the top node of the current thread's stack, without creating the per-thread Stack instance
+     */
+    static @Nullable Node top() {
+        @Nullable Stack stack = CONTEXT.get();
+        return stack != null ? stack.top : null;
+    }
+
+    /**
+     * Replace the current thread's stack by the given top node, used by {@link ContextSnapshot} to install a
+     * captured stack without copying it. A thread without stack installing an empty one doesn't allocate anything.
+     *
+     * @param top the top node to install, or null for an empty stack
+     * @return the previous top node, to be restored afterwards
+     */
+    static @Nullable Node swap(@Nullable Node top) {
+        @Nullable Stack stack = CONTEXT.get();
+
+        if (stack == null) {
+            if (top == null) return null;
+            stack = current();
+        }
+
+        @Nullable Node previous = stack.top;
+        stack.top = top;
+
+        return previous;
+    }
+
     /* =========================
      * Basic stack operations (fluent where mutating)
      * ========================= */
@@ -63,8 +110,9 @@ public final class Stack {
     @NotNull
     public static Stack push(@NotNull String value) {
         Objects.requireNonNull(value, "value");
-        CONTEXT.get().ndc.push(value);
-        return CONTEXT.get();
+        @NotNull Stack stack = current();
+        stack.top = new Node(value, stack.top);
+        return stack;
     }
 
     /**
@@ -74,8 +122,11 @@ public final class Stack {
      */
     @Nullable
     public static String pop() {
-        Deque<String> d = CONTEXT.get().ndc;
-        return d.isEmpty() ? null : d.pop();
+        @Nullable Node top = top();
+        if (top == null) return null;
+
+        current().top = top.next;
+        return top.value;
     }
 
     /**
@@ -85,8 +136,8 @@ public final class Stack {
      */
     @Nullable
     public static String peek() {
-        Deque<String> d = CONTEXT.get().ndc;
-        return d.peek();
+        @Nullable Node top = top();
+        return top != null ? top.value : null;
     }
 
     /**
@@ -96,8 +147,9 @@ public final class Stack {
      */
     @NotNull
     public static Stack clear() {
-        CONTEXT.get().ndc.clear();
-        return CONTEXT.get();
+        @NotNull Stack stack = current();
+        stack.top = null;
+        return stack;
     }
 
     /**
@@ -108,9 +160,20 @@ public final class Stack {
      */
     @NotNull
     public static List<String> snapshot() {
-        Deque<String> d = CONTEXT.get().ndc;
-        if (d.isEmpty()) return Collections.emptyList();
-        return Collections.unmodifiableList(new ArrayList<>(d));
+        @Nullable Node top = top();
+        return top != null ? top.list() : Collections.emptyList();
+    }
+
+    /**
+     * Return the distinct values of the current NDC stack, top-first. The set is computed once per stack state
+     * and shared by every caller until the stack changes, which makes it cheap to attach to each log registry.
+     *
+     * @return an unmodifiable, ordered set of the stack values
+     */
+    @NotNull
+    public static Set<String> values() {
+        @Nullable Node top = top();
+        return top != null ? top.set() : Collections.emptySet();
     }
 
     /**
@@ -122,17 +185,18 @@ public final class Stack {
      */
     @NotNull
     public static Stack restore(@Nullable List<String> snap) {
-        Deque<String> d = CONTEXT.get().ndc;
-        d.clear();
+        @Nullable Node top = null;
         if (snap != null && !snap.isEmpty()) {
             // push values in reverse so that index 0 becomes the top
             for (int i = snap.size() - 1; i >= 0; i--) {
                 String v = snap.get(i);
                 // skip nulls for safety
-                if (v != null) d.push(v);
+                if (v != null) top = new Node(v, top);
             }
         }
-        return CONTEXT.get();
+        @NotNull Stack stack = current();
+        stack.top = top;
+        return stack;
     }
 
     /**
@@ -141,14 +205,15 @@ public final class Stack {
      * @return depth >= 0
      */
     public static int depth() {
-        return CONTEXT.get().ndc.size();
+        @Nullable Node top = top();
+        return top != null ? top.depth : 0;
     }
 
     /**
      * Return true if the current thread's NDC stack is empty.
      */
     public static boolean isEmpty() {
-        return CONTEXT.get().ndc.isEmpty();
+        return top() == null;
     }
 
     /* =========================
@@ -212,11 +277,12 @@ public final class Stack {
         @Override
         public void close() {
             if (closed) return;
-            Deque<String> d = CONTEXT.get().ndc;
+            @Nullable Node top = top();
             for (int i = 0; i < count; i++) {
-                if (d.isEmpty()) break;
-                d.pop();
+                if (top == null) break;
+                top = top.next;
             }
+            if (count > 0) current().top = top;
             closed = true;
         }
     }
@@ -235,14 +301,15 @@ public final class Stack {
     @NotNull
     public static Runnable wrap(@NotNull Runnable task) {
         Objects.requireNonNull(task, "task");
-        final List<String> snap = snapshot();
+        final Node snap = top();
         return () -> {
-            List<String> previous = snapshot();
+            @NotNull Stack stack = current();
+            Node previous = stack.top;
             try {
-                restore(snap);
+                stack.top = snap;
                 task.run();
             } finally {
-                restore(previous);
+                stack.top = previous;
             }
         };
     }
@@ -258,14 +325,15 @@ public final class Stack {
     @NotNull
     public static <T> Callable<T> wrap(@NotNull Callable<T> task) {
         Objects.requireNonNull(task, "task");
-        final List<String> snap = snapshot();
+        final Node snap = top();
         return () -> {
-            List<String> previous = snapshot();
+            @NotNull Stack stack = current();
+            Node previous = stack.top;
             try {
-                restore(snap);
+                stack.top = snap;
                 return task.call();
             } finally {
-                restore(previous);
+                stack.top = previous;
             }
         };
     }
@@ -280,11 +348,11 @@ public final class Stack {
     @NotNull
     public static <T> T runWithContext(@NotNull Supplier<T> supplier) {
         Objects.requireNonNull(supplier, "supplier");
-        List<String> snap = snapshot();
+        Node snap = top();
         try {
             return supplier.get();
         } finally {
-            restore(snap);
+            if (snap != top()) current().top = snap;
         }
     }
 
@@ -306,25 +374,63 @@ public final class Stack {
      */
     public static boolean popTo(@NotNull String value) {
         Objects.requireNonNull(value, "value");
-        Deque<String> d = CONTEXT.get().ndc;
-        if (d.isEmpty()) return false;
-        Deque<String> clone = new ArrayDeque<>(d);
-        boolean found = false;
-        Deque<String> popped = new ArrayDeque<>();
-        while (!clone.isEmpty()) {
-            String top = clone.pop();
-            popped.push(top);
-            if (value.equals(top)) {
-                found = true;
-                break;
+        for (Node node = top(); node != null; node = node.next) {
+            if (value.equals(node.value)) {
+                current().top = node.next;
+                return true;
             }
         }
-        if (!found) return false;
-        // actually pop from original
-        for (String p : popped) {
-            if (!d.isEmpty()) d.pop();
+        return false;
+    }
+
+    /* =========================
+     * Nodes
+     * ========================= */
+
+    /**
+     * An immutable stack entry. Pushing creates a node pointing to the previous top, so every stack state is
+     * fully described by its top node and can be captured or restored without copying.
+     */
+    static final class Node {
+        private final @NotNull String value;
+        private final @Nullable Node next;
+        private final int depth;
+
+        // Views computed on demand, racy but idempotent
+        private @Nullable List<String> list;
+        private @Nullable Set<String> set;
+
+        private Node(@NotNull String value, @Nullable Node next) {
+            this.value = value;
+            this.next = next;
+            this.depth = next != null ? next.depth + 1 : 1;
+        }
+
+        @NotNull List<String> list() {
+            @Nullable List<String> list = this.list;
+
+            if (list == null) {
+                @NotNull String[] values = new String[depth];
+                int index = 0;
+                for (Node node = this; node != null; node = node.next) {
+                    values[index++] = node.value;
+                }
+
+                this.list = list = Collections.unmodifiableList(Arrays.asList(values));
+            }
+
+            return list;
+        }
+
+        private @NotNull Set<String> set() {
+            @Nullable Set<String> set = this.set;
+
+            if (set == null) {
+                this.set = set = Collections.unmodifiableSet(new LinkedHashSet<>(list()));
+            }
+
+            return set;
         }
-        return true;
     }
 
 }
\ No newline at end of file
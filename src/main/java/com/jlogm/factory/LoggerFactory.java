@@ -4,7 +4,10 @@ import com.jlogm.Filter;
 import com.jlogm.Level;
 import com.jlogm.Logger;
 import com.jlogm.Registry;
+import com.jlogm.Registry.Retention;
+import com.jlogm.Requirements;
 import com.jlogm.impl.LoggerFactoryImpl;
+import com.jlogm.utils.Clock;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -60,6 +63,36 @@ public interface LoggerFactory {
      */
     void setRegistries(@Nullable Registries registries) throws IOException;
 
+    /**
+     * Retrieves the clock used to timestamp the registries of the loggers created by this factory.
+     *
+     * @return The clock, {@link Clock#system()} by default.
+     */
+    @NotNull Clock getClock();
+
+    /**
+     * Sets the clock used to timestamp the registries, such as {@link Clock#coarse()} to make timestamps cheaper
+     * or {@link Clock#precise()} to order registries within the same millisecond.
+     *
+     * @param clock The new clock.
+     */
+    void setClock(@NotNull Clock clock);
+
+    /**
+     * Retrieves how the registries memoize their formatted text, JSON and bytes.
+     *
+     * @return The retention, {@link Retention#SOFT} by default.
+     */
+    @NotNull Retention getRetention();
+
+    /**
+     * Sets how the registries memoize their formatted text, JSON and bytes, such as {@link Retention#BYTES} to
+     * keep the registries compact or {@link Retention#NONE} to format them on every call.
+     *
+     * @param retention The new retention.
+     */
+    void setRetention(@NotNull Retention retention);
+
     // Builders
 
     /**
@@ -110,6 +143,15 @@ public interface LoggerFactory {
             return stream().anyMatch(filter -> filter.isSuppressed(registry, object));
         }
 
+        /**
+         * Combines the requirements of the filters.
+         *
+         * @return The registry fields read by any of the filters, as a {@link Requirements} bitmask.
+         */
+        default int getRequirements() {
+            return stream().mapToInt(Filter::getRequirements).reduce(Requirements.NONE, (first, second) -> first | second);
+        }
+
         /**
          * Adds a filter to the list.
          *
@@ -153,6 +195,15 @@ public interface LoggerFactory {
      * An interface for accessing registries within the logger factory.
      */
     interface Registries extends Iterable<Registry>, Flushable {
+        /**
+         * Retrieves the registry fields that must be captured for the stored registries.
+         *
+         * @return The fields as a {@link Requirements} bitmask, every field by default.
+         */
+        default int getRequirements() {
+            return Requirements.ALL;
+        }
+
         /**
          * Adds a registry to the list.
          *
@@ -3,12 +3,12 @@ package com.jlogm.fluent;
 import com.jlogm.Registry;
 import com.jlogm.factory.LoggerFactory;
 import com.jlogm.factory.LoggerFactory.Registries;
+import com.jlogm.message.LazyMessage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Range;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -23,16 +23,19 @@ public interface Every {
                 throw new UnsupportedOperationException("the 'times' every function can only be used on logger factories with registries");
             }
 
+            // Located here, from the logging thread's frames rather than the stream's
+            @Nullable StackTraceElement origin = registry.getOrigin();
+
             @Nullable Registry last = registries.stream()
                     .filter(second -> !second.isSuppressed())
                     .filter(second -> Arrays.equals(second.getMarkers(), registry.getMarkers()))
                     .filter(second -> second.getLevel().equals(registry.getLevel()))
-                    .filter(second -> Objects.equals(second.getObject(), object))
-                    .filter(second -> Objects.equals(second.getOrigin(), registry.getOrigin()))
+                    .filter(second -> same(second, origin, object))
+                    .filter(second -> Objects.equals(second.getOrigin(), origin))
                     .reduce((first, second) -> second)
                     .orElse(null);
 
-            return last == null || last.getInstant().plus(duration).isBefore(Instant.now());
+            return last == null || last.getEpochNanos() + duration.toNanos() < factory.getClock().nanos();
         };
     }
     static @NotNull Every times(@Range(from = 0, to = Integer.MAX_VALUE) int number) {
@@ -42,17 +45,38 @@ public interface Every {
                 throw new UnsupportedOperationException("the 'times' every function can only be used on logger factories with registries");
             }
 
+            // Located here, from the logging thread's frames rather than the stream's
+            @Nullable StackTraceElement origin = registry.getOrigin();
+
             long count = registries.stream()
                     .filter(second -> Arrays.equals(second.getMarkers(), registry.getMarkers()))
                     .filter(second -> second.getLevel().equals(registry.getLevel()))
-                    .filter(second -> Objects.equals(second.getObject(), object))
-                    .filter(second -> Objects.equals(second.getOrigin(), registry.getOrigin()))
+                    .filter(second -> same(second, origin, object))
+                    .filter(second -> Objects.equals(second.getOrigin(), origin))
                     .count();
 
             return (count != 0 && (count - 1) % (number + 1) != 0);
         };
     }
 
+    /**
+     * Checks whether the stored registry has the same message as the one being logged. Lazy messages are compared
+     * without evaluating them: the stored registries hold their value once written, and the supplier of each call is
+     * a new instance, so the lazy messages of the same log site are considered the same message instead.
+     *
+     * @param registry the stored registry
+     * @param origin the log site of the registry being logged
+     * @param object the message of the registry being logged
+     * @return true if both registries have the same message
+     */
+    static boolean same(@NotNull Registry registry, @Nullable StackTraceElement origin, @Nullable Object object) {
+        if (object instanceof LazyMessage && origin != null) {
+            return origin.equals(registry.getOrigin());
+        }
+
+        return Objects.equals(registry.getObject(), object);
+    }
+
     // Object
 
     boolean canLog(@NotNull LoggerFactory factory, @NotNull Registry.Builder builder, @Nullable Object object);
@@ -1,93 +1,126 @@
 package com.jlogm.formatter;
 
+import com.jlogm.Fields;
 import com.jlogm.Registry;
+import com.jlogm.Requirements;
+import com.jlogm.binary.RecordedThrowable;
 import com.jlogm.fluent.StackFilter;
-import com.jlogm.impl.LoggerFactoryImpl;
+import com.jlogm.message.Renderers;
 import com.jlogm.utils.Coloured;
+import com.jlogm.utils.Rgb;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Marker;
 
-import java.awt.*;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public final class DefaultFormatter implements Formatter {
 
+    // Static initializers
+
+    private static final @NotNull Pattern URL = Pattern.compile("^(http(s?)://)?(((www\\.)?[a-zA-Z0-9.\\-_]+(\\.[a-zA-Z]{2,3})+)|(\\b(?:(?:25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(?:25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\b))(/[a-zA-Z0-9_\\-\\s./?%#&=]*)?$");
+
+    private static final @NotNull Cache<StackTraceElement, String> SOURCES = new Cache<>(4096);
+
+    private static final @NotNull DefaultFormatter INSTANCE = new DefaultFormatter();
+
+    /**
+     * Returns the shared default formatter, using the default theme and the {@link ColorMode#AUTO} color mode.
+     * It's the formatter of the loggers unless they're configured with another one.
+     *
+     * @return the shared default formatter
+     */
+    public static @NotNull DefaultFormatter getInstance() {
+        return INSTANCE;
+    }
+
     // Object
 
-    private final @NotNull Map<String, Color> binds = new HashMap<String, Color>() {{
-        put("loading", new Color(0, 180, 255));
-        put("initializing", new Color(0, 180, 255));
-        put("generating", new Color(0, 180, 255));
-        put("saving", new Color(0, 180, 255));
-        put("enabling", new Color(0, 180, 255));
-        put("importing", new Color(0, 180, 255));
-        put("localhost", new Color(0, 180, 255));
-        put("127.0.0.1", new Color(0, 180, 255));
-        put("running", new Color(0, 180, 255));
-        put("loaded", new Color(0, 180, 255));
-        put("uploading", new Color(0, 180, 255));
-        put("downloading", new Color(0, 180, 255));
-
-        put("successfully", new Color(0, 180, 0));
-        put("connected", new Color(0, 180, 0));
-        put("success", new Color(0, 180, 0));
-        put("initialized", new Color(0, 180, 0));
-        put("saved", new Color(0, 180, 0));
-        put("enabled", new Color(0, 180, 0));
-        put("unloaded", new Color(0, 180, 0));
-        put("imported", new Color(0, 180, 0));
-        put("done", new Color(0, 180, 0));
-        put("uploaded", new Color(0, 180, 0));
-        put("downloaded", new Color(0, 180, 0));
-
-        put("warning", new Color(0xFFE300));
-
-        put("unloading", new Color(0xFF9100));
-        put("stopping", new Color(0xFF9100));
-        put("disabling", new Color(0xFF9100));
-        put("closing", new Color(0xFF9100));
-        put("flushing", new Color(0xFF9100));
-        put("pending", new Color(0xFF9100));
-        put("inactivating", new Color(0xFF9100));
-        put("ending", new Color(0xFF9100));
-
-        put("disconnected", new Color(220, 0, 0));
-        put("error", new Color(220, 0, 0));
-        put("failed", new Color(220, 0, 0));
-        put("fail", new Color(220, 0, 0));
-        put("failure", new Color(220, 0, 0));
-        put("exception", new Color(220, 0, 0));
-        put("issue", new Color(220, 0, 0));
-        put("cannot", new Color(220, 0, 0));
-        put("won't", new Color(220, 0, 0));
-        put("interrupted", new Color(220, 0, 0));
-    }};
+    private final @NotNull Theme theme;
+    private final @NotNull ColorMode colorMode;
+
+    // Plain and colored marker blocks, by markers and their children
+    private final @NotNull Cache<MarkersKey, String> plainMarkers = new Cache<>(256);
+    private final @NotNull Cache<MarkersKey, String> coloredMarkers = new Cache<>(256);
+
+    /**
+     * Creates a default formatter using the default theme and the {@link ColorMode#AUTO} color mode. Prefer the
+     * shared {@link #getInstance()}.
+     */
+    public DefaultFormatter() {
+        this(Theme.getDefault(), ColorMode.AUTO);
+    }
+
+    public DefaultFormatter(@NotNull ColorMode colorMode) {
+        this(Theme.getDefault(), colorMode);
+    }
+
+    public DefaultFormatter(@NotNull Theme theme, @NotNull ColorMode colorMode) {
+        this.theme = theme;
+        this.colorMode = colorMode;
+    }
 
     // Getters
 
-    public @NotNull Map<String, Color> getBinds() {
-        return binds;
+    /**
+     * @return an unmodifiable view of the binds of the theme
+     */
+    public @NotNull Map<String, Rgb> getBinds() {
+        return theme.getBinds();
+    }
+    public @NotNull Theme getTheme() {
+        return theme;
+    }
+    public @NotNull ColorMode getColorMode() {
+        return colorMode;
     }
 
     // Modules
 
+    /**
+     * Formats the registry, with colors unless the color mode is {@link ColorMode#NEVER}. The output isn't known
+     * here, so the {@link ColorMode#AUTO} mode renders colors.
+     */
     @Override
     public @NotNull String format(@NotNull Registry registry) {
+        return format(registry, colorMode != ColorMode.NEVER);
+    }
+
+    /**
+     * @return the origin only, the context and the stack aren't written
+     */
+    @Override
+    public int getRequirements() {
+        return Requirements.ORIGIN;
+    }
+
+    @Override
+    public void write(@NotNull Registry registry, @NotNull OutputStream output) throws IOException {
+        write(registry, output, output);
+    }
+
+    /**
+     * Writes the registry into the output, with colors if the color mode renders them into the target.
+     */
+    @Override
+    public void write(@NotNull Registry registry, @NotNull OutputStream output, @NotNull OutputStream target) throws IOException {
+        output.write(format(registry, colorMode.isColored(target)).getBytes(getCharset()));
+    }
+
+    private @NotNull String format(@NotNull Registry registry, boolean colored) {
         // Message
         @NotNull StringBuilder content = new StringBuilder();
 
-        @NotNull Predicate<String> url = string -> {
-            @NotNull Pattern pattern = Pattern.compile("^(http(s?)://)?(((www\\.)?[a-zA-Z0-9.\\-_]+(\\.[a-zA-Z]{2,3})+)|(\\b(?:(?:25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(?:25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\b))(/[a-zA-Z0-9_\\-\\s./?%#&=]*)?$");
-            return pattern.matcher(string).find();
-        };
         @NotNull Function<StackTraceElement[], StackTraceElement[]> stackFilter = elements -> {
             for (@NotNull StackFilter filter : registry.getStackFilters()) {
                 elements = filter.format(elements);
@@ -99,17 +132,21 @@ public final class DefaultFormatter implements Formatter {
         // Content
         @Nullable Object object = registry.getObject();
 
-        if (object != null) {
-            @NotNull String[] parts = object.toString().replace("\r", "").split(" ", -1);
+        if (object != null && !colored) {
+            content.append(Renderers.render(object).replace("\r", ""));
+        } else if (object != null) {
+            @NotNull String[] parts = Renderers.render(object).replace("\r", "").split(" ", -1);
 
             for (int index = 0; index < parts.length; index++) {
                 // Parts
                 @NotNull String part = parts[index];
                 @NotNull Coloured coloured = Coloured.of(part);
 
-                if (binds.containsKey(part.toLowerCase())) {
-                    coloured.color(binds.get(part.toLowerCase()));
-                } if (url.test(part)) {
+                @Nullable Rgb color = theme.getBind(part.toLowerCase());
+
+                if (color != null) {
+                    coloured.color(color);
+                } if (URL.matcher(part).find()) {
                     coloured.underlined();
                 }
 
@@ -122,15 +159,22 @@ public final class DefaultFormatter implements Formatter {
                 }
             }
         }
+
+        // Fields, as key=value pairs after the message
+        @NotNull Fields fields = registry.getFields();
+        for (int index = 0; index < fields.size(); index++) {
+            if (object != null || index > 0) content.append(' ');
+            fields.appendValue(index, content.append(fields.getKey(index)).append('='));
+        }
         if (registry.getCause() != null) {
             @NotNull StackTraceElement[] traces = stackFilter.apply(registry.getCause().getStackTrace());
 
-            if (object != null) {
+            if (object != null || !fields.isEmpty()) {
                 content.append(System.lineSeparator());
             }
 
             @Nullable String message = registry.getCause().getMessage() != null ? registry.getCause().getMessage().replace("\r", "") : null;
-            content.append(registry.getCause().getClass().getName()).append(": ").append(message).append(System.lineSeparator());
+            content.append(type(registry.getCause())).append(": ").append(message).append(System.lineSeparator());
 
             for (int index = 0; index < traces.length; index++) {
                 if (index > 0) content.append(System.lineSeparator());
@@ -144,7 +188,7 @@ public final class DefaultFormatter implements Formatter {
                 content.append(System.lineSeparator());
 
                 message = recurring.getMessage() != null ? recurring.getMessage().replace("\r", "") : null;
-                content.append("Caused by ").append(recurring.getClass().getName()).append(": ").append(message).append(System.lineSeparator());
+                content.append("Caused by ").append(type(recurring)).append(": ").append(message).append(System.lineSeparator());
 
                 for (int index = 0; index < traces.length; index++) {
                     if (index > 0) content.append(System.lineSeparator());
@@ -156,61 +200,201 @@ public final class DefaultFormatter implements Formatter {
         }
 
         // Markers
+        @NotNull String markers = markers(registry.getMarkers(), colored);
+
+        // Date
+        @NotNull SimpleDateFormat format = new SimpleDateFormat("yy-dd-MM HH:mm:ss.S");
+        @NotNull String date = format.format(new Date(registry.getEpochMillis()));
+        date = String.format("%-" + 21 + "s", date);
+
+        // Source
+        @Nullable String source = registry.getOrigin() != null ? source(registry.getOrigin()) : null;
+
+        // Colors
+        @NotNull String level = theme.label(registry.getLevel(), colored);
+        @NotNull String spacing = theme.separator(colored);
+
+        // Generate message, the prefix is the logger's shared string appended as is
+        @NotNull StringBuilder message = new StringBuilder(spacing.length() + date.length() + level.length() + markers.length() + content.length() + 64);
+        message.append(spacing).append(date).append(' ').append(level).append(' ').append(markers);
+        if (source != null) message.append(' ').append(source);
+
+        // Finish
+        return message.append(' ').append(registry.getPrefix()).append(content).append(registry.getSuffix()).toString();
+    }
+
+    /**
+     * Returns the rendered markers block, cached by the identity of the markers and of their children. A logger's
+     * registries share the same markers until they change, so the block is rendered once per logger configuration,
+     * even if the registries carry their own copy of the markers array. Markers equal by name but with other colors
+     * or children are rendered on their own, and so are the markers whose children changed.
+     */
+    private @NotNull String markers(@NotNull Marker @NotNull [] array, boolean colored) {
+        if (array.length == 0) return "";
+
+        @NotNull Cache<MarkersKey, String> cache = colored ? coloredMarkers : plainMarkers;
+        @NotNull MarkersKey key = new MarkersKey(array);
+
+        @Nullable String block = cache.get(key);
+        if (block != null) return block;
+
         @NotNull StringBuilder markers = new StringBuilder();
-        int row = 0;
-        for (@NotNull Marker marker : registry.getMarkers()) {
-            markers.append(" ").append(marker);
+        for (@NotNull Marker marker : array) {
+            markers.append(" ").append(colored ? marker.toString() : marker.getName());
 
             for (@NotNull Iterator<Marker> it = marker.iterator(); it.hasNext(); ) {
                 @NotNull Marker children = it.next();
-                markers.append(" ").append(children.toString());
+                markers.append(" ").append(colored ? children.toString() : children.getName());
             }
-
-            if (row + 1 == registry.getMarkers().length) markers.append(" ");
-            row++;
         }
+        markers.append(" ");
 
-        // Date
-        @NotNull SimpleDateFormat format = new SimpleDateFormat("yy-dd-MM HH:mm:ss.S");
-        @NotNull String date = format.format(new Date(registry.getInstant().toEpochMilli()));
-        date = String.format("%-" + 21 + "s", date);
+        block = markers.toString();
+        cache.put(key, block);
 
-        // Source
-        @Nullable String source = null;
+        return block;
+    }
+
+    /**
+     * Returns the simple class name and line of the origin, cached by stack trace element.
+     *
+     * @param origin the origin of a registry
+     * @return the source label written before the message
+     */
+    public static @NotNull String source(@NotNull StackTraceElement origin) {
+        @Nullable String source = SOURCES.get(origin);
+        if (source != null) return source;
+
+        @NotNull String name = origin.getClassName();
+        name = name.substring(name.lastIndexOf('.') + 1);
+
+        int inner = name.indexOf('$');
+        if (inner >= 0) name = name.substring(0, inner);
 
-        if (registry.getOrigin() != null) {
-            @NotNull StackTraceElement origin = registry.getOrigin();
+        source = name + (origin.getLineNumber() >= 0 ? (":" + origin.getLineNumber()) : "");
+        SOURCES.put(origin, source);
 
-            @NotNull String[] sources = origin.getClassName().split("\\.");
-            source = sources[sources.length - 1].split("\\$", 2)[0] + (origin.getLineNumber() >= 0 ? (":" + origin.getLineNumber()) : "");
+        return source;
+    }
+
+    private static @NotNull String type(@NotNull Throwable throwable) {
+        return throwable instanceof RecordedThrowable ? ((RecordedThrowable) throwable).getType() : throwable.getClass().getName();
+    }
+
+    // Classes
+
+    /**
+     * The markers of a registry followed by their children, compared by identity. The colors of the markers are
+     * part of their identity, and the children are read again for every registry.
+     */
+    static final class MarkersKey {
+
+        private final @Nullable Object @NotNull [] elements;
+        private final int hash;
+
+        MarkersKey(@NotNull Marker @NotNull [] markers) {
+            @NotNull List<Marker> elements = new ArrayList<>(markers.length * 2);
+
+            for (@NotNull Marker marker : markers) {
+                elements.add(marker);
+                for (@NotNull Iterator<Marker> it = marker.iterator(); it.hasNext(); ) {
+                    elements.add(it.next());
+                }
+
+                // Separates the children of the consecutive markers
+                elements.add(null);
+            }
+
+            this.elements = elements.toArray();
+
+            int hash = 1;
+            for (@Nullable Object element : this.elements) {
+                hash = 31 * hash + System.identityHashCode(element);
+            }
+
+            this.hash = hash;
         }
 
-        // Colors
-        @NotNull String level;
+        @Override
+        public boolean equals(@Nullable Object object) {
+            if (this == object) return true;
+            if (!(object instanceof MarkersKey)) return false;
+            @NotNull MarkersKey key = (MarkersKey) object;
+            if (hash != key.hash || elements.length != key.elements.length) return false;
 
-        {
-            @Nullable Color color = LoggerFactoryImpl.getColor(registry.getLevel());
-            @NotNull Coloured coloured = Coloured.of(registry.getLevel().toString());
-            if (color != null) coloured.color(color);
+            for (int index = 0; index < elements.length; index++) {
+                if (elements[index] != key.elements[index]) return false;
+            }
 
-            level = coloured.print();
+            return true;
         }
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
 
-        // Timestamp
-        @NotNull String spacing;
+    /**
+     * A concurrent cache of rendered strings, cleared once it reaches its capacity: a working set too big to fit
+     * is rendered again instead of growing the cache, and the entries no longer used are evicted by the next clear.
+     */
+    static final class Cache<K, V> {
 
-        {
-            @NotNull Coloured coloured = Coloured.of("| ");
-            coloured.color(new Color(65, 65, 65));
-            coloured.bold();
+        private final @NotNull Map<K, V> map = new ConcurrentHashMap<>();
+        private final int capacity;
 
-            spacing = coloured.print();
+        Cache(int capacity) {
+            this.capacity = capacity;
         }
 
-        // Generate message
-        @NotNull String message = spacing + date + " " + level + " " + markers + (source != null ? " " + source : "") + " ";
+        int size() {
+            return map.size();
+        }
+
+        @Nullable V get(@NotNull K key) {
+            return map.get(key);
+        }
+
+        void put(@NotNull K key, @NotNull V value) {
+            if (map.size() >= capacity) map.clear();
+            map.put(key, value);
+        }
+
+    }
+
+    /**
+     * Defines when the default formatter renders ANSI colors.
+     */
+    public enum ColorMode {
+
+        /**
+         * Always renders colors.
+         */
+        ALWAYS,
+
+        /**
+         * Never renders colors, the registries are written as plain text.
+         */
+        NEVER,
+
+        /**
+         * Renders colors only when writing into the standard output or error streams attached to a terminal,
+         * plain text is written into files, pipes and any other output.
+         */
+        AUTO;
+
+        // Whether the standard streams are attached to a terminal, detected once
+        static volatile boolean terminal = System.console() != null;
+
+        public boolean isColored(@NotNull OutputStream output) {
+            if (this == AUTO) {
+                return terminal && (output == System.out || output == System.err);
+            } else {
+                return this == ALWAYS;
+            }
+        }
 
-        // Finish
-        return message + registry.getPrefix() + content + registry.getSuffix();
     }
+
 }
@@ -1,9 +1,12 @@
 package com.jlogm.formatter;
 
 import com.jlogm.Registry;
+import com.jlogm.Requirements;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
@@ -15,4 +18,50 @@ public interface Formatter {
         return StandardCharsets.UTF_8;
     }
 
+    /**
+     * @return the registry fields read by this formatter, as a {@link Requirements} bitmask; every field by default
+     */
+    default int getRequirements() {
+        return Requirements.ALL;
+    }
+
+    /**
+     * Encodes the registry and writes the resulting bytes into the output. This is the path used by the loggers
+     * to print a registry, formatters that produce bytes directly may override it to skip the intermediate
+     * {@link String} created by {@link #format(Registry)}.
+     *
+     * <p>Unless the formatter is {@link #isOutputBound() bound to its output}, the loggers encode the registry into a
+     * per-thread buffer outside the output lock through {@link #write(Registry, OutputStream, OutputStream)}, and
+     * only hold the lock to copy the buffer into the output.</p>
+     *
+     * @param registry the registry to be written
+     * @param output the output that will receive the encoded registry
+     * @throws IOException if an I/O error occurs while writing into the output
+     */
+    default void write(@NotNull Registry registry, @NotNull OutputStream output) throws IOException {
+        output.write(format(registry).getBytes(getCharset()));
+    }
+
+    /**
+     * Encodes the registry for the target and writes the resulting bytes into the output, a buffer that's copied
+     * into the target afterwards. Formatters whose encoding depends on the target, such as the colors of a
+     * terminal, must override it to decide against the target instead of the buffer.
+     *
+     * @param registry the registry to be written
+     * @param output the buffer that will receive the encoded registry
+     * @param target the output the buffer will be copied into
+     * @throws IOException if an I/O error occurs while writing into the output
+     */
+    default void write(@NotNull Registry registry, @NotNull OutputStream output, @NotNull OutputStream target) throws IOException {
+        write(registry, output);
+    }
+
+    /**
+     * @return true if {@link #write(Registry, OutputStream)} depends on the output it writes into, such as an
+     * encoding state kept per file; the loggers then call it directly on the output while holding its lock
+     */
+    default boolean isOutputBound() {
+        return false;
+    }
+
 }
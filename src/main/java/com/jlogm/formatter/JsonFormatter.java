@@ -0,0 +1,624 @@
+package com.jlogm.formatter;
+
+import com.jlogm.Level;
+import com.jlogm.Fields;
+import com.jlogm.Registry;
+import com.jlogm.Requirements;
+import com.jlogm.binary.RecordedThrowable;
+import com.jlogm.context.LogCtx;
+import com.jlogm.fluent.StackFilter;
+import com.jlogm.message.Renderers;
+import com.jlogm.utils.Coloured;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Marker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A {@link Formatter} that writes registries as JSON objects, with the same layout as {@link Registry#toJson()}.
+ *
+ * <p>Registries are encoded straight into a reusable UTF-8 byte buffer of the writing thread: field names are
+ * pre-encoded constants, strings are escaped using a lookup table in the same pass that encodes them (stripping
+ * ANSI escape sequences as well), numbers are written without creating strings, and exception frames are written
+ * piece by piece instead of through {@link StackTraceElement#toString()}. The {@link LogCtx}
+ * and {@link com.jlogm.context.Stack} snapshots are immutable and replaced on every change, so each thread keeps the
+ * encoded fragments of the last ones and appends them again while they don't change, unless the context holds
+ * values that aren't {@link LogCtx#isImmutable(Map) immutable}.</p>
+ *
+ * <p>The written fields can be selected, and by default every object is followed by a line feed so the output is
+ * newline-delimited JSON:
+ * <pre>{@code
+ * Logger logger = Logger.create("app").formatter(new JsonFormatter(EnumSet.of(Field.LEVEL, Field.DATE, Field.OBJECT), true));
+ * }</pre>
+ */
+public final class JsonFormatter implements Formatter {
+
+    // Static initializers
+
+    private static final byte @NotNull [] @Nullable [] ESCAPES = new byte[128][];
+    private static final byte @NotNull [] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte @NotNull [] NULL = bytes("null");
+    private static final byte @NotNull [] TRUE = bytes("true");
+    private static final byte @NotNull [] FALSE = bytes("false");
+    private static final byte @NotNull [] DECIMAL = bytes(".0");
+    private static final byte @NotNull [] TYPE = bytes("{\"type\":");
+    private static final byte @NotNull [] MESSAGE = bytes(",\"message\":");
+    private static final byte @NotNull [] STACK_TRACE = bytes(",\"stackTrace\":[");
+    private static final byte @NotNull [] NATIVE_METHOD = bytes("(Native Method)");
+    private static final byte @NotNull [] UNKNOWN_SOURCE = bytes("(Unknown Source)");
+
+    // Encoders bigger than this are not kept by the threads after use
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = new byte[] { '\\', 'u', '0', '0', HEX[c >> 4], HEX[c & 0xF] };
+        }
+
+        ESCAPES['"'] = bytes("\\\"");
+        ESCAPES['\\'] = bytes("\\\\");
+        ESCAPES['\b'] = bytes("\\b");
+        ESCAPES['\f'] = bytes("\\f");
+        ESCAPES['\n'] = bytes("\\n");
+        ESCAPES['\r'] = bytes("\\r");
+        ESCAPES['\t'] = bytes("\\t");
+    }
+
+    private static byte @NotNull [] bytes(@NotNull String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Object
+
+    private final @NotNull Field @NotNull [] fields;
+    private final boolean delimited;
+    private final int requirements;
+
+    /**
+     * Creates a JSON formatter that writes every field, followed by a line feed.
+     */
+    public JsonFormatter() {
+        this(EnumSet.allOf(Field.class), true);
+    }
+
+    /**
+     * Creates a JSON formatter.
+     *
+     * @param fields the fields to be written, in the order of the {@link Field} constants
+     * @param delimited true to write a line feed after every object
+     */
+    public JsonFormatter(@NotNull Set<Field> fields, boolean delimited) {
+        this.fields = EnumSet.copyOf(fields.isEmpty() ? EnumSet.noneOf(Field.class) : fields).toArray(new Field[0]);
+        this.delimited = delimited;
+
+        int requirements = Requirements.NONE;
+        if (fields.contains(Field.ORIGIN)) requirements |= Requirements.ORIGIN;
+        if (fields.contains(Field.CONTEXT)) requirements |= Requirements.CONTEXT;
+        if (fields.contains(Field.STACK)) requirements |= Requirements.STACK;
+
+        this.requirements = requirements;
+    }
+
+    // Getters
+
+    public @NotNull Set<Field> getFields() {
+        return fields.length == 0 ? EnumSet.noneOf(Field.class) : EnumSet.copyOf(Arrays.asList(fields));
+    }
+    public boolean isDelimited() {
+        return delimited;
+    }
+
+    /**
+     * @return the fields among the origin, the context and the stack that are written
+     */
+    @Override
+    public int getRequirements() {
+        return requirements;
+    }
+
+    // Modules
+
+    @Override
+    public @NotNull String format(@NotNull Registry registry) {
+        @NotNull Encoder encoder = encode(registry);
+
+        try {
+            return new String(encoder.bytes, 0, encoder.size, StandardCharsets.UTF_8);
+        } finally {
+            encoder.release();
+        }
+    }
+
+    @Override
+    public void write(@NotNull Registry registry, @NotNull OutputStream output) throws IOException {
+        @NotNull Encoder encoder = encode(registry);
+
+        try {
+            output.write(encoder.bytes, 0, encoder.size);
+        } finally {
+            encoder.release();
+        }
+    }
+
+    private @NotNull Encoder encode(@NotNull Registry registry) {
+        @NotNull Encoder encoder = Encoder.acquire();
+
+        try {
+            encoder.write('{');
+
+            boolean first = true;
+            for (@NotNull Field field : fields) {
+                int mark = encoder.size;
+                if (!first) encoder.write(',');
+
+                if (field.write(this, registry, encoder)) {
+                    first = false;
+                } else {
+                    // Nothing to write, drops the comma
+                    encoder.size = mark;
+                }
+            }
+
+            encoder.write('}');
+            if (delimited) encoder.write('\n');
+
+            return encoder;
+        } catch (@NotNull Throwable throwable) {
+            encoder.release();
+            throw throwable;
+        }
+    }
+
+    // Fields
+
+    private void causes(@NotNull Registry registry, @NotNull Encoder encoder) {
+        @NotNull Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        @Nullable Throwable curr = registry.getCause();
+
+        encoder.write('[');
+
+        while (curr != null && seen.add(curr)) {
+            if (seen.size() > 1) encoder.write(',');
+
+            encoder.write(TYPE);
+            encoder.string(curr instanceof RecordedThrowable ? ((RecordedThrowable) curr).getType() : curr.getClass().getName());
+            encoder.write(MESSAGE);
+            encoder.string(curr.getMessage());
+            encoder.write(STACK_TRACE);
+
+            @NotNull StackTraceElement[] traces = curr.getStackTrace();
+            for (@NotNull StackFilter filter : registry.getStackFilters()) {
+                traces = filter.format(traces);
+            }
+
+            for (int index = 0; index < traces.length; index++) {
+                if (index > 0) encoder.write(',');
+                element(traces[index], encoder);
+            }
+
+            encoder.write(']');
+            encoder.write('}');
+
+            curr = curr.getCause();
+        }
+
+        encoder.write(']');
+    }
+
+    private static void element(@NotNull StackTraceElement element, @NotNull Encoder encoder) {
+        encoder.write('"');
+        encoder.escaped(element.getClassName());
+        encoder.write('.');
+        encoder.escaped(element.getMethodName());
+
+        if (element.isNativeMethod()) {
+            encoder.write(NATIVE_METHOD);
+        } else if (element.getFileName() == null) {
+            encoder.write(UNKNOWN_SOURCE);
+        } else {
+            encoder.write('(');
+            encoder.escaped(element.getFileName());
+
+            if (element.getLineNumber() >= 0) {
+                encoder.write(':');
+                encoder.number(element.getLineNumber());
+            }
+
+            encoder.write(')');
+        }
+
+        encoder.write('"');
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "JsonFormatter{" +
+                "fields=" + Arrays.toString(fields) +
+                ", delimited=" + delimited +
+                '}';
+    }
+
+    // Classes
+
+    /**
+     * The fields a {@link JsonFormatter} can write, in the order they are written.
+     */
+    public enum Field {
+
+        LEVEL("level") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                @NotNull Level level = registry.getLevel();
+
+                encoder.write(name);
+                encoder.ensure(level.getJsonNameLength());
+                encoder.size += level.getJsonName(encoder.bytes, encoder.size);
+                return true;
+            }
+        },
+        DATE("date") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                encoder.write(name);
+                encoder.number(registry.getEpochMillis());
+                return true;
+            }
+        },
+        ORIGIN("origin") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                if (registry.getOrigin() == null) return false;
+
+                encoder.write(name);
+                element(registry.getOrigin(), encoder);
+                return true;
+            }
+        },
+        PREFIX("prefix") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                if (registry.getPrefix() == null) return false;
+
+                encoder.write(name);
+                encoder.string(registry.getPrefix());
+                return true;
+            }
+        },
+        SUFFIX("suffix") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                if (registry.getSuffix() == null) return false;
+
+                encoder.write(name);
+                encoder.string(registry.getSuffix());
+                return true;
+            }
+        },
+        MARKERS("markers") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                @NotNull Marker[] markers = registry.getMarkers();
+                if (markers.length == 0) return false;
+
+                encoder.write(name);
+                encoder.write('[');
+
+                for (int index = 0; index < markers.length; index++) {
+                    if (index > 0) encoder.write(',');
+                    encoder.string(markers[index].getName());
+                }
+
+                encoder.write(']');
+                return true;
+            }
+        },
+        CAUSES("causes") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                if (registry.getCause() == null) return false;
+
+                encoder.write(name);
+                formatter.causes(registry, encoder);
+                return true;
+            }
+        },
+        CONTEXT("context") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                @NotNull Map<String, Object> context = registry.getContext();
+                if (context.isEmpty()) return false;
+
+                encoder.write(name);
+
+                // Contexts are immutable, an unchanged context of immutable values reuses its encoded fragment
+                if (encoder.context == context) {
+                    encoder.write(encoder.contextFragment);
+                    return true;
+                }
+
+                int start = encoder.size;
+                encoder.write('{');
+
+                boolean first = true;
+                for (@NotNull Map.Entry<String, Object> entry : context.entrySet()) {
+                    if (!first) encoder.write(',');
+
+                    encoder.string(entry.getKey());
+                    encoder.write(':');
+                    encoder.string(entry.getValue() != null ? entry.getValue().toString() : null);
+
+                    first = false;
+                }
+
+                encoder.write('}');
+
+                // Mutable values may encode differently next time, their contexts are encoded again
+                encoder.context = LogCtx.isImmutable(context) ? context : null;
+                encoder.contextFragment = Arrays.copyOfRange(encoder.bytes, start, encoder.size);
+
+                return true;
+            }
+        },
+        FIELDS("fields") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                @NotNull Fields fields = registry.getFields();
+                if (fields.isEmpty()) return false;
+
+                encoder.write(name);
+                encoder.write('{');
+
+                for (int index = 0; index < fields.size(); index++) {
+                    if (index > 0) encoder.write(',');
+
+                    encoder.string(fields.getKey(index));
+                    encoder.write(':');
+
+                    switch (fields.getType(index)) {
+                        case LONG:
+                            encoder.number(fields.getLong(index));
+                            break;
+                        case DOUBLE:
+                            encoder.number(fields.getDouble(index));
+                            break;
+                        case BOOLEAN:
+                            encoder.write(fields.getBoolean(index) ? TRUE : FALSE);
+                            break;
+                        default:
+                            @Nullable Object object = fields.getObject(index);
+                            encoder.string(object != null ? object.toString() : null);
+                    }
+                }
+
+                encoder.write('}');
+                return true;
+            }
+        },
+        STACK("stack") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                @NotNull Set<String> values = registry.getStack();
+                if (values.isEmpty()) return false;
+
+                encoder.write(name);
+
+                // Stack values are shared until the stack changes, like the contexts
+                if (encoder.stack == values) {
+                    encoder.write(encoder.stackFragment);
+                    return true;
+                }
+
+                // Bottom of the stack first
+                @NotNull String[] stack = values.toArray(new String[0]);
+
+                int start = encoder.size;
+                encoder.write('[');
+
+                for (int index = stack.length - 1; index >= 0; index--) {
+                    encoder.string(stack[index]);
+                    if (index > 0) encoder.write(',');
+                }
+
+                encoder.write(']');
+
+                encoder.stack = values;
+                encoder.stackFragment = Arrays.copyOfRange(encoder.bytes, start, encoder.size);
+
+                return true;
+            }
+        },
+        OBJECT("object") {
+            @Override
+            boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder) {
+                encoder.write(name);
+                encoder.string(registry.getObject() != null ? Renderers.render(registry.getObject()) : null);
+                return true;
+            }
+        };
+
+        // Pre-encoded '"name":'
+        final byte @NotNull [] name;
+
+        Field(@NotNull String name) {
+            this.name = bytes("\"" + name + "\":");
+        }
+
+        abstract boolean write(@NotNull JsonFormatter formatter, @NotNull Registry registry, @NotNull Encoder encoder);
+
+    }
+
+    /**
+     * The reusable UTF-8 buffer of a thread.
+     *
+     * <p>Rendering the objects, the context values or the fields may log again on the same thread, through any
+     * JSON formatter. The thread's encoder is in use by the outer registry then, so the nested one is encoded into
+     * a fresh encoder instead.</p>
+     */
+    static final class Encoder {
+
+        private static final @NotNull ThreadLocal<Encoder> ENCODERS = ThreadLocal.withInitial(Encoder::new);
+
+        /**
+         * @return the encoder of the current thread, or a fresh one if it's already in use, emptied
+         */
+        static @NotNull Encoder acquire() {
+            @NotNull Encoder encoder = ENCODERS.get();
+            if (encoder.busy) encoder = new Encoder();
+
+            encoder.busy = true;
+            encoder.size = 0;
+
+            return encoder;
+        }
+
+        private boolean busy;
+
+        private byte @NotNull [] bytes = new byte[1024];
+        private int size = 0;
+
+        // The last context and stack encoded by the thread, and their encoded fragments
+        private @Nullable Map<String, Object> context;
+        private byte @NotNull [] contextFragment = new byte[0];
+        private @Nullable Set<String> stack;
+        private byte @NotNull [] stackFragment = new byte[0];
+
+        void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte @NotNull [] source) {
+            ensure(source.length);
+            System.arraycopy(source, 0, bytes, size, source.length);
+            size += source.length;
+        }
+
+        void number(long value) {
+            if (value == Long.MIN_VALUE) {
+                write(bytes(Long.toString(value)));
+                return;
+            } else if (value < 0) {
+                write('-');
+                value = -value;
+            }
+
+            ensure(19);
+
+            int start = size;
+            do {
+                bytes[size++] = (byte) ('0' + (value % 10));
+                value /= 10;
+            } while (value != 0);
+
+            // Digits were written backwards
+            for (int left = start, right = size - 1; left < right; left++, right--) {
+                byte swap = bytes[left];
+                bytes[left] = bytes[right];
+                bytes[right] = swap;
+            }
+        }
+
+        /**
+         * Writes the number, integral values without creating strings. JSON has no literal for the non-finite
+         * values, they're written as strings.
+         */
+        void number(double value) {
+            if (!Double.isFinite(value)) {
+                string(Double.toString(value));
+            } else if (value == (long) value && Math.abs(value) < 1e15) {
+                number((long) value);
+                write(DECIMAL);
+            } else {
+                write(bytes(Double.toString(value)));
+            }
+        }
+
+        /**
+         * Writes the string as a quoted JSON string, or {@code null}.
+         */
+        void string(@Nullable String string) {
+            if (string == null) {
+                write(NULL);
+                return;
+            }
+
+            write('"');
+            escaped(string);
+            write('"');
+        }
+
+        /**
+         * Writes the escaped UTF-8 content of the string, skipping ANSI escape sequences.
+         */
+        void escaped(@NotNull String string) {
+            int length = string.length();
+            ensure(length);
+
+            for (int index = 0; index < length; index++) {
+                char c = string.charAt(index);
+
+                if (c < 0x80) {
+                    if (c == 0x1B) {
+                        int end = Coloured.sequence(string, index);
+
+                        if (end > 0) {
+                            index = end;
+                            continue;
+                        }
+                    }
+
+                    @Nullable byte[] escape = ESCAPES[c];
+
+                    if (escape == null) {
+                        ensure(1);
+                        bytes[size++] = (byte) c;
+                    } else {
+                        write(escape);
+                    }
+                } else if (c < 0x800) {
+                    ensure(2);
+                    bytes[size++] = (byte) (0xC0 | (c >> 6));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && index + 1 < length && Character.isLowSurrogate(string.charAt(index + 1))) {
+                    int code = Character.toCodePoint(c, string.charAt(++index));
+
+                    ensure(4);
+                    bytes[size++] = (byte) (0xF0 | (code >> 18));
+                    bytes[size++] = (byte) (0x80 | ((code >> 12) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | ((code >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (code & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    write('?');
+                } else {
+                    ensure(3);
+                    bytes[size++] = (byte) (0xE0 | (c >> 12));
+                    bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        void release() {
+            busy = false;
+
+            if (bytes.length > RETAINED_CAPACITY) {
+                bytes = new byte[1024];
+            }
+        }
+
+        void ensure(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,235 @@
+package com.jlogm.formatter;
+
+import com.jlogm.Level;
+import com.jlogm.utils.Coloured;
+import com.jlogm.utils.Rgb;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The immutable colors used by the {@link DefaultFormatter}: the keyword binds that color words of the messages,
+ * the level colors and the separator at the beginning of each line.
+ *
+ * <p>Themes are built once and can be shared by any number of formatters and threads, the rendered labels
+ * are cached by the theme itself.
+ * <pre>{@code
+ * Theme theme = Theme.getDefault().toBuilder()
+ *     .bind("retrying", Rgb.of(0xFF9100))
+ *     .level("INFO", Rgb.WHITE)
+ *     .build();
+ * Formatter formatter = new DefaultFormatter(theme, ColorMode.AUTO);
+ * }</pre>
+ */
+public final class Theme {
+
+    // Static initializers
+
+    private static final @NotNull Theme DEFAULT;
+
+    static {
+        @NotNull Rgb loading = Rgb.of(0, 180, 255);
+        @NotNull Rgb success = Rgb.of(0, 180, 0);
+        @NotNull Rgb warning = Rgb.of(0xFFE300);
+        @NotNull Rgb stopping = Rgb.of(0xFF9100);
+        @NotNull Rgb error = Rgb.of(220, 0, 0);
+
+        @NotNull Builder builder = builder();
+
+        for (@NotNull String word : new String[] { "loading", "initializing", "generating", "saving", "enabling", "importing", "localhost", "127.0.0.1", "running", "loaded", "uploading", "downloading" }) {
+            builder.bind(word, loading);
+        } for (@NotNull String word : new String[] { "successfully", "connected", "success", "initialized", "saved", "enabled", "unloaded", "imported", "done", "uploaded", "downloaded" }) {
+            builder.bind(word, success);
+        } for (@NotNull String word : new String[] { "warning" }) {
+            builder.bind(word, warning);
+        } for (@NotNull String word : new String[] { "unloading", "stopping", "disabling", "closing", "flushing", "pending", "inactivating", "ending" }) {
+            builder.bind(word, stopping);
+        } for (@NotNull String word : new String[] { "disconnected", "error", "failed", "fail", "failure", "exception", "issue", "cannot", "won't", "interrupted" }) {
+            builder.bind(word, error);
+        }
+
+        builder.separator("| ", Rgb.of(65, 65, 65));
+
+        DEFAULT = builder.build();
+    }
+
+    /**
+     * @return the theme used by the default formatters
+     */
+    public static @NotNull Theme getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return a builder of an empty theme, without any bind, using the colors of the levels
+     */
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    // Object
+
+    private final @NotNull Map<String, Rgb> binds;
+    private final @NotNull Map<String, Rgb> levels;
+
+    private final @NotNull String separator;
+    private final @Nullable Rgb separatorColor;
+
+    private final @NotNull String renderedSeparator;
+    private final @NotNull Map<String, String> labels = new ConcurrentHashMap<>();
+
+    private Theme(@NotNull Builder builder) {
+        this.binds = Collections.unmodifiableMap(new HashMap<>(builder.binds));
+        this.levels = Collections.unmodifiableMap(new HashMap<>(builder.levels));
+        this.separator = builder.separator;
+        this.separatorColor = builder.separatorColor;
+
+        @NotNull Coloured coloured = Coloured.of(separator).bold();
+        if (separatorColor != null) coloured.color(separatorColor);
+
+        this.renderedSeparator = coloured.print();
+    }
+
+    // Getters
+
+    /**
+     * @return an unmodifiable view of the colors of the words, keyed by lower case words
+     */
+    public @NotNull Map<String, Rgb> getBinds() {
+        return binds;
+    }
+
+    /**
+     * @return an unmodifiable view of the level colors overridden by this theme, keyed by upper case level names
+     */
+    public @NotNull Map<String, Rgb> getLevels() {
+        return levels;
+    }
+
+    public @NotNull String getSeparator() {
+        return separator;
+    }
+    public @Nullable Rgb getSeparatorColor() {
+        return separatorColor;
+    }
+
+    /**
+     * @param word the lower case word
+     * @return the color of the word, or null if the word isn't bound
+     */
+    public @Nullable Rgb getBind(@NotNull String word) {
+        return binds.get(word);
+    }
+
+    /**
+     * @param level the level
+     * @return the color of the level in this theme, or null if the level has no color
+     */
+    public @Nullable Rgb getColor(@NotNull Level level) {
+        return levels.containsKey(level.getName()) ? levels.get(level.getName()) : level.getColor();
+    }
+
+    // Rendering
+
+    @NotNull String separator(boolean colored) {
+        return colored ? renderedSeparator : separator;
+    }
+
+    @NotNull String label(@NotNull Level level, boolean colored) {
+        if (!colored) {
+            return level.toString();
+        } else if (!levels.containsKey(level.getName())) {
+            // Pre-rendered by the level
+            return level.getAnsiLabel();
+        }
+
+        return labels.computeIfAbsent(level.getName(), name -> {
+            @Nullable Rgb color = getColor(level);
+            @NotNull Coloured coloured = Coloured.of(level.toString());
+            if (color != null) coloured.color(color);
+
+            return coloured.print();
+        });
+    }
+
+    /**
+     * @return a builder initialized with the binds, level colors and separator of this theme
+     */
+    public @NotNull Builder toBuilder() {
+        @NotNull Builder builder = new Builder();
+        builder.binds.putAll(binds);
+        builder.levels.putAll(levels);
+        builder.separator = separator;
+        builder.separatorColor = separatorColor;
+
+        return builder;
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "Theme{" +
+                "binds=" + binds.size() +
+                ", levels=" + levels.keySet() +
+                ", separator='" + separator + '\'' +
+                '}';
+    }
+
+    // Classes
+
+    public static final class Builder {
+
+        private final @NotNull Map<String, Rgb> binds = new HashMap<>();
+        private final @NotNull Map<String, Rgb> levels = new HashMap<>();
+
+        private @NotNull String separator = "| ";
+        private @Nullable Rgb separatorColor;
+
+        private Builder() {
+        }
+
+        public @NotNull Builder bind(@NotNull String word, @NotNull Rgb color) {
+            binds.put(word.toLowerCase(Locale.ROOT), color);
+            return this;
+        }
+        public @NotNull Builder unbind(@NotNull String word) {
+            binds.remove(word.toLowerCase(Locale.ROOT));
+            return this;
+        }
+
+        /**
+         * Overrides the color of a level, a null color prints the level without color.
+         */
+        public @NotNull Builder level(@NotNull String name, @Nullable Rgb color) {
+            levels.put(name.toUpperCase(Locale.ROOT), color);
+            return this;
+        }
+
+        /**
+         * Restores the color of the level itself.
+         */
+        public @NotNull Builder unlevel(@NotNull String name) {
+            levels.remove(name.toUpperCase(Locale.ROOT));
+            return this;
+        }
+
+        public @NotNull Builder separator(@NotNull String separator, @Nullable Rgb color) {
+            this.separator = separator;
+            this.separatorColor = color;
+
+            return this;
+        }
+
+        public @NotNull Theme build() {
+            return new Theme(this);
+        }
+
+    }
+
+}
@@ -3,12 +3,15 @@ package com.jlogm.impl;
 import com.jlogm.Filter;
 import com.jlogm.Level;
 import com.jlogm.Logger;
+import com.jlogm.Registry.Retention;
+import com.jlogm.Requirements;
 import com.jlogm.factory.LoggerFactory;
+import com.jlogm.utils.Clock;
+import com.jlogm.utils.Rgb;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.ILoggerFactory;
 
-import java.awt.*;
 import java.io.IOException;
 import java.util.List;
 import java.util.*;
@@ -18,20 +21,11 @@ public final class LoggerFactoryImpl implements LoggerFactory, ILoggerFactory {
 
     // Static initializers
 
-    public static @Nullable Color getColor(@NotNull Level level) {
-        if (level.getName().equalsIgnoreCase("TRACE")) {
-            return new Color(123, 123, 123);
-        } else if (level.getName().equalsIgnoreCase("ERROR") || level.getName().equalsIgnoreCase("SEVERE")) {
-            return new Color(220, 0, 0);
-        } else if (level.getName().equalsIgnoreCase("INFO")) {
-            return new Color(160, 160, 160);
-        } else if (level.getName().equalsIgnoreCase("WARN") || level.getName().equalsIgnoreCase("WARNING")) {
-            return new Color(255, 255, 0);
-        } else if (level.getName().equalsIgnoreCase("DEBUG")) {
-            return new Color(230, 150, 175);
-        } else {
-            return null;
-        }
+    /**
+     * @return the color of the level in the default theme
+     */
+    public static @Nullable Rgb getColor(@NotNull Level level) {
+        return level.getColor();
     }
 
     @SuppressWarnings("FieldMayBeFinal")
@@ -42,6 +36,8 @@ public final class LoggerFactoryImpl implements LoggerFactory, ILoggerFactory {
     private final @NotNull Levels levels = new LevelsImpl();
     private final @NotNull Filters filters = new FiltersImpl();
     private @Nullable Registries registries = null;
+    private volatile @NotNull Clock clock = Clock.system();
+    private volatile @NotNull Retention retention = Retention.SOFT;
 
     LoggerFactoryImpl() {
     }
@@ -70,6 +66,24 @@ public final class LoggerFactoryImpl implements LoggerFactory, ILoggerFactory {
         this.registries = registries;
     }
 
+    @Override
+    public @NotNull Clock getClock() {
+        return clock;
+    }
+    @Override
+    public void setClock(@NotNull Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public @NotNull Retention getRetention() {
+        return retention;
+    }
+    @Override
+    public void setRetention(@NotNull Retention retention) {
+        this.retention = retention;
+    }
+
     @Override
     public @NotNull Logger create(@NotNull String name) {
         return new LoggerImpl(name);
@@ -101,40 +115,53 @@ public final class LoggerFactoryImpl implements LoggerFactory, ILoggerFactory {
 
     private static final class LevelsImpl implements Levels {
 
-        private final @NotNull Set<Level> levels = new HashSet<>();
-
         private LevelsImpl() {
-            levels.add(Level.INFO);
-            levels.add(Level.SEVERE);
-            levels.add(Level.WARN);
-            levels.add(Level.DEBUG);
-            levels.add(Level.TRACE);
+        }
+
+        // The registered levels, including the custom ones
+
+        @Override
+        public @NotNull Optional<Level> get(@NotNull String name) {
+            return Optional.ofNullable(Level.get(name));
         }
 
         @Override
         public @NotNull Stream<Level> stream() {
-            return levels.stream();
+            return Arrays.stream(Level.values());
         }
         @Override
         public @NotNull Iterator<Level> iterator() {
-            return levels.iterator();
+            return Arrays.asList(Level.values()).iterator();
         }
     }
     private static final class FiltersImpl implements Filters {
 
         private final @NotNull List<Filter> filters = new LinkedList<>();
+        // Combined when the filters change, instead of on every log call
+        private volatile int requirements = Requirements.NONE;
 
         private FiltersImpl() {
         }
 
         @Override
         public boolean add(@NotNull Filter filter) {
-            return filters.add(filter);
+            boolean added = filters.add(filter);
+            requirements = Filters.super.getRequirements();
+
+            return added;
         }
 
         @Override
         public boolean remove(@NotNull Filter filter) {
-            return filters.remove(filter);
+            boolean removed = filters.remove(filter);
+            requirements = Filters.super.getRequirements();
+
+            return removed;
+        }
+
+        @Override
+        public int getRequirements() {
+            return requirements;
         }
 
         @Override
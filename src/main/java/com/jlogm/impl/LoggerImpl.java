@@ -1,22 +1,26 @@
 package com.jlogm.impl;
 
 import com.jlogm.Level;
+import com.jlogm.LogSite;
 import com.jlogm.Logger;
 import com.jlogm.Registry.Builder;
+import com.jlogm.factory.LoggerFactory;
 import com.jlogm.fluent.Every;
 import com.jlogm.fluent.StackFilter;
 import com.jlogm.formatter.DefaultFormatter;
 import com.jlogm.formatter.Formatter;
+import com.jlogm.output.OutputLocks;
+import com.jlogm.utils.Rgb;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnknownNullability;
 import org.slf4j.Marker;
 
-import java.awt.*;
 import java.io.OutputStream;
-import java.time.Instant;
-import java.util.List;
-import java.util.*;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 final class LoggerImpl implements Logger {
@@ -25,17 +29,8 @@ final class LoggerImpl implements Logger {
 
     private @UnknownNullability Throwable throwable;
 
-    private final @NotNull Set<StackFilter> stackFilters = new LinkedHashSet<>();
-    private final @NotNull Set<Marker> markers = new LinkedHashSet<>();
-    private final @NotNull List<Consumer<Builder>> consumers = new LinkedList<>();
-
-    private @NotNull Formatter formatter = new DefaultFormatter();
-    private @NotNull OutputStream output = System.out;
-
-    private @UnknownNullability Every every;
-
-    private @Nullable String suffix = "\n";
-    private @Nullable String prefix = "- ";
+    // Replaced as a whole on every change, never modified once published
+    private volatile @NotNull Config config = new Config();
 
     LoggerImpl(@NotNull String name) {
         this.name = name;
@@ -50,120 +45,130 @@ final class LoggerImpl implements Logger {
 
     @Override
     public @NotNull Logger getEvery(@NotNull Every every) {
-        this.every = every;
-        return this;
+        return update(config -> config.every = every);
     }
     @Override
     public @NotNull Every getEvery() {
-        return every;
+        return config.every;
     }
 
     @Override
     public @NotNull Logger marker(@NotNull Marker marker) {
-        this.markers.add(marker);
-        return this;
+        return update(config -> config.markers = add(config.markers, marker));
     }
     @Override
     public @NotNull Logger marker(@NotNull String name) {
-        this.markers.add(new SimpleMarker(name));
-        return this;
+        return marker(new SimpleMarker(name));
     }
     @Override
-    public @NotNull Logger marker(@NotNull String name, @Nullable Color color) {
-        this.markers.add(new SimpleMarker(name, color));
-        return this;
+    public @NotNull Logger marker(@NotNull String name, @Nullable Rgb color) {
+        return marker(new SimpleMarker(name, color));
     }
 
     @Override
     public @NotNull Logger markers(@NotNull Marker @NotNull ... markers) {
-        this.markers.clear();
-        this.markers.addAll(Arrays.asList(markers));
-
-        return this;
+        @NotNull Marker[] array = new LinkedHashSet<>(Arrays.asList(markers)).toArray(new Marker[0]);
+        return update(config -> config.markers = array);
     }
     @Override
     public @NotNull Marker @NotNull [] getMarkers() {
-        return this.markers.toArray(new Marker[0]);
+        return config.markers.clone();
     }
 
     @Override
     public @NotNull Logger output(@NotNull OutputStream output) {
-        this.output = output;
-        return this;
+        @NotNull ReentrantLock lock = OutputLocks.of(output);
+
+        return update(config -> {
+            config.output = output;
+            config.lock = lock;
+        });
     }
     @Override
     public @NotNull OutputStream getOutput() {
-        return output;
+        return config.output;
     }
 
     @Override
     public @NotNull Logger formatter(@NotNull Formatter formatter) {
-        this.formatter = formatter;
-        return this;
+        return update(config -> config.formatter = formatter);
     }
     @Override
     public @NotNull Formatter getFormatter() {
-        return formatter;
+        return config.formatter;
     }
 
     @Override
     public @NotNull Logger prefix(@Nullable String prefix) {
-        this.prefix = prefix;
-        return this;
+        return update(config -> config.prefix = prefix);
     }
     @Override
     public @Nullable String getPrefix() {
-        return prefix;
+        return config.prefix;
     }
 
     @Override
     public @NotNull Logger suffix(@Nullable String suffix) {
-        this.suffix = suffix;
-        return this;
+        return update(config -> config.suffix = suffix);
     }
     @Override
     public @Nullable String getSuffix() {
-        return suffix;
+        return config.suffix;
     }
 
     @Override
     public @NotNull Logger stackFilters(@NotNull StackFilter @NotNull ... stackFilters) {
-        this.stackFilters.clear();
-        this.stackFilters.addAll(Arrays.asList(stackFilters));
-
-        return this;
+        @NotNull StackFilter[] array = new LinkedHashSet<>(Arrays.asList(stackFilters)).toArray(new StackFilter[0]);
+        return update(config -> config.stackFilters = array);
     }
     @Override
     public @NotNull Logger stackFilter(@NotNull StackFilter stackFilter) {
-        this.stackFilters.add(stackFilter);
-        return this;
+        return update(config -> config.stackFilters = add(config.stackFilters, stackFilter));
     }
     @Override
     public @NotNull StackFilter @NotNull [] getStackFilters() {
-        return stackFilters.toArray(new StackFilter[0]);
+        return config.stackFilters.clone();
     }
 
     @Override
     public @NotNull Logger consumer(@NotNull Consumer<Builder> registry) {
-        consumers.add(0, registry);
-        return this;
+        return update(config -> {
+            // The last consumer added runs first
+            @NotNull Consumer<Builder>[] consumers = Arrays.copyOf(config.consumers, config.consumers.length + 1);
+            System.arraycopy(consumers, 0, consumers, 1, consumers.length - 1);
+            consumers[0] = registry;
+
+            config.consumers = consumers;
+        });
     }
     @Override
     public @NotNull Consumer<Builder> @NotNull [] getConsumers() {
-        //noinspection unchecked
-        return consumers.toArray(new Consumer[0]);
+        return config.consumers.clone();
     }
 
     // Modules
 
     @Override
     public @NotNull Builder registry(@NotNull Level level) {
+        return registry(null, level);
+    }
+    @Override
+    public @NotNull Builder registry(@Nullable LogSite site, @NotNull Level level) {
+        // A single read, the arrays are shared and never modified
+        @NotNull Config config = this.config;
+
         // Generate registry
-        long time = System.currentTimeMillis();
-        @NotNull Builder registry = new RegistryImpl.BuilderImpl(level, getOutput(), getFormatter(), Instant.ofEpochMilli(time), getStackFilters(), getMarkers(), getEvery(), getPrefix(), getSuffix());
+        long time = LoggerFactory.getInstance().getClock().nanos();
+        @NotNull RegistryImpl.BuilderImpl registry = new RegistryImpl.BuilderImpl(level, config.output, config.lock, config.formatter, time, config.stackFilters, config.markers, config.every, config.prefix, config.suffix);
+
+        // The site knows the origin, and suppresses the registry before any filter runs
+        if (site != null) {
+            registry.origin(site.getOrigin());
+            if (!site.allows(time)) registry.setSuppressed(true);
+        }
 
         // Call consumers
-        for (@NotNull Consumer<Builder> consumer : consumers) {
+        for (@NotNull Consumer<Builder> consumer : config.consumers) {
             consumer.accept(registry);
         }
 
@@ -171,6 +176,41 @@ final class LoggerImpl implements Logger {
         return registry;
     }
 
+    /**
+     * Publishes a changed copy of the configuration, changes are serialized so none of them is lost.
+     */
+    private synchronized @NotNull Logger update(@NotNull Consumer<Config> change) {
+        @NotNull Config config = this.config.copy();
+        change.accept(config);
+
+        this.config = config;
+        return this;
+    }
+
+    private static <T> @NotNull T @NotNull [] add(@NotNull T @NotNull [] array, @NotNull T element) {
+        if (Arrays.asList(array).contains(element)) {
+            return array;
+        }
+
+        @NotNull T[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = element;
+
+        return copy;
+    }
+
+    // The stack filters and markers are sets kept in insertion order, compared regardless of their order
+    private static boolean equivalent(@NotNull Object @NotNull [] first, @NotNull Object @NotNull [] second) {
+        return first.length == second.length && Arrays.asList(first).containsAll(Arrays.asList(second));
+    }
+    private static int hash(@NotNull Object @NotNull [] array) {
+        int hash = 0;
+        for (@NotNull Object element : array) {
+            hash += element.hashCode();
+        }
+
+        return hash;
+    }
+
     // Implementations
 
     @Override
@@ -178,24 +218,79 @@ final class LoggerImpl implements Logger {
         if (this == object) return true;
         if (object == null || getClass() != object.getClass()) return false;
         @NotNull LoggerImpl logger = (LoggerImpl) object;
-        return Objects.equals(getName(), logger.getName()) && Objects.equals(throwable, logger.throwable) && Objects.deepEquals(stackFilters, logger.stackFilters) && Objects.deepEquals(markers, logger.markers) && Objects.equals(every, logger.every);
+        @NotNull Config config = this.config, other = logger.config;
+        return Objects.equals(getName(), logger.getName()) && Objects.equals(throwable, logger.throwable) && equivalent(config.stackFilters, other.stackFilters) && equivalent(config.markers, other.markers) && Objects.equals(config.every, other.every);
     }
     @Override
     public int hashCode() {
-        return Objects.hash(getName(), throwable, stackFilters, markers, every);
+        @NotNull Config config = this.config;
+        return Objects.hash(getName(), throwable, hash(config.stackFilters), hash(config.markers), config.every);
     }
 
     @Override
     public @NotNull String toString() {
+        @NotNull Config config = this.config;
         return "LoggerImpl{" +
                 "name='" + name + '\'' +
                 ", throwable=" + throwable +
-                ", filters=" + stackFilters +
-                ", markers=" + markers +
-                ", every=" + every +
+                ", filters=" + Arrays.toString(config.stackFilters) +
+                ", markers=" + Arrays.toString(config.markers) +
+                ", every=" + config.every +
                 '}';
     }
 
     // Classes
 
+    /**
+     * A snapshot of the logger configuration. Snapshots are copied and changed before being published through
+     * the volatile field, and are never changed afterward, so the loggers read them without locking.
+     */
+    private static final class Config {
+
+        private @NotNull StackFilter @NotNull [] stackFilters;
+        private @NotNull Marker @NotNull [] markers;
+        private @NotNull Consumer<Builder> @NotNull [] consumers;
+
+        private @NotNull Formatter formatter;
+        private @NotNull OutputStream output;
+        private @NotNull ReentrantLock lock;
+
+        private @UnknownNullability Every every;
+
+        private @Nullable String suffix;
+        private @Nullable String prefix;
+
+        /**
+         * Creates the default configuration, writing into the standard output.
+         */
+        @SuppressWarnings("unchecked")
+        private Config() {
+            this.stackFilters = new StackFilter[0];
+            this.markers = new Marker[0];
+            this.consumers = new Consumer[0];
+            this.formatter = DefaultFormatter.getInstance();
+            this.output = System.out;
+            this.lock = OutputLocks.of(System.out);
+            this.suffix = "\n";
+            this.prefix = "- ";
+        }
+
+        private Config(@NotNull Config config) {
+            this.stackFilters = config.stackFilters;
+            this.markers = config.markers;
+            this.consumers = config.consumers;
+            this.formatter = config.formatter;
+            this.output = config.output;
+            this.lock = config.lock;
+            this.every = config.every;
+            this.suffix = config.suffix;
+            this.prefix = config.prefix;
+        }
+
+        private @NotNull Config copy() {
+            return new Config(this);
+        }
+
+    }
+
 }
@@ -1,29 +1,41 @@
 package com.jlogm.impl;
 
+import com.jlogm.Fields;
 import com.jlogm.Filter;
 import com.jlogm.Level;
 import com.jlogm.Registry;
+import com.jlogm.Registry.Retention;
+import com.jlogm.Requirements;
 import com.jlogm.context.LogCtx;
 import com.jlogm.context.Stack;
 import com.jlogm.factory.LoggerFactory;
 import com.jlogm.factory.LoggerFactory.Registries;
 import com.jlogm.fluent.Every;
 import com.jlogm.fluent.StackFilter;
+import com.jlogm.message.LazyMessage;
+import com.jlogm.message.ParameterizedMessage;
 import com.jlogm.formatter.Formatter;
+import com.jlogm.utils.Rgb;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Marker;
 
-import java.awt.*;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 public final class RegistryImpl implements Registry {
 
     private final @NotNull Level level;
-    private final @NotNull Instant instant;
+    private final long epochNanos;
+    // Built on demand, the formatters only need the primitive time
+    private @Nullable Instant instant;
 
     private final @Nullable Every every;
     private final @Nullable StackTraceElement origin;
@@ -38,10 +50,20 @@ public final class RegistryImpl implements Registry {
 
     private final @NotNull Map<String, Object> context;
     private final @NotNull Set<String> stack;
+    private final @NotNull Fields fields;
+
+    // Memoized forms, the values themselves or references to them depending on the retention
+    private volatile @Nullable Object text;
+    private volatile @Nullable Object json;
+    private volatile @Nullable Object bytes;
 
     public RegistryImpl(@NotNull Level level, @NotNull Instant instant, @Nullable Every every, @Nullable StackTraceElement origin, @Nullable String suffix, @Nullable String prefix, @NotNull Formatter formatter, @Nullable Throwable cause, @NotNull Marker @NotNull [] markers, @NotNull StackFilter @NotNull [] stackFilters, @Nullable Object object, boolean suppressed, @NotNull Map<String, Object> context, @NotNull Set<String> stack) {
-        this.level = level;
+        this(level, toEpochNanos(instant), every, origin, suffix, prefix, formatter, cause, markers, stackFilters, object, suppressed, context, stack, Fields.EMPTY);
         this.instant = instant;
+    }
+    public RegistryImpl(@NotNull Level level, long epochNanos, @Nullable Every every, @Nullable StackTraceElement origin, @Nullable String suffix, @Nullable String prefix, @NotNull Formatter formatter, @Nullable Throwable cause, @NotNull Marker @NotNull [] markers, @NotNull StackFilter @NotNull [] stackFilters, @Nullable Object object, boolean suppressed, @NotNull Map<String, Object> context, @NotNull Set<String> stack, @NotNull Fields fields) {
+        this.level = level;
+        this.epochNanos = epochNanos;
         this.every = every;
         this.origin = origin;
         this.suffix = suffix;
@@ -54,6 +76,7 @@ public final class RegistryImpl implements Registry {
         this.suppressed = suppressed;
         this.context = context;
         this.stack = stack;
+        this.fields = fields;
     }
 
     // Getters
@@ -64,8 +87,22 @@ public final class RegistryImpl implements Registry {
     }
     @Override
     public @NotNull Instant getInstant() {
+        @Nullable Instant instant = this.instant;
+
+        if (instant == null) {
+            this.instant = instant = toInstant(epochNanos);
+        }
+
         return instant;
     }
+    @Override
+    public long getEpochMillis() {
+        return Math.floorDiv(epochNanos, 1_000_000L);
+    }
+    @Override
+    public long getEpochNanos() {
+        return epochNanos;
+    }
 
     @Override
     public @Nullable Every getEvery() {
@@ -124,6 +161,10 @@ public final class RegistryImpl implements Registry {
     public @NotNull Set<String> getStack() {
         return stack;
     }
+    @Override
+    public @NotNull Fields getFields() {
+        return fields;
+    }
 
     // Implementations
 
@@ -131,16 +172,77 @@ public final class RegistryImpl implements Registry {
     public boolean equals(@Nullable Object object) {
         if (!(object instanceof RegistryImpl)) return false;
         @NotNull RegistryImpl registry = (RegistryImpl) object;
-        return isSuppressed() == registry.isSuppressed() && getLevel() == registry.getLevel() && Objects.equals(getInstant(), registry.getInstant()) && Objects.equals(getEvery(), registry.getEvery()) && Objects.equals(getOrigin(), registry.getOrigin()) && Objects.equals(getSuffix(), registry.getSuffix()) && Objects.equals(getPrefix(), registry.getPrefix()) && Objects.equals(getFormatter(), registry.getFormatter()) && Objects.equals(getCause(), registry.getCause()) && Objects.deepEquals(getMarkers(), registry.getMarkers()) && Objects.deepEquals(getStackFilters(), registry.getStackFilters()) && Objects.equals(getObject(), registry.getObject());
+        return isSuppressed() == registry.isSuppressed() && getLevel() == registry.getLevel() && getEpochNanos() == registry.getEpochNanos() && Objects.equals(getEvery(), registry.getEvery()) && Objects.equals(getOrigin(), registry.getOrigin()) && Objects.equals(getSuffix(), registry.getSuffix()) && Objects.equals(getPrefix(), registry.getPrefix()) && Objects.equals(getFormatter(), registry.getFormatter()) && Objects.equals(getCause(), registry.getCause()) && Objects.deepEquals(getMarkers(), registry.getMarkers()) && Objects.deepEquals(getStackFilters(), registry.getStackFilters()) && Objects.equals(getObject(), registry.getObject()) && getFields().equals(registry.getFields());
     }
     @Override
     public int hashCode() {
-        return Objects.hash(getLevel(), getInstant(), getEvery(), getOrigin(), getSuffix(), getPrefix(), getFormatter(), getCause(), Arrays.hashCode(getMarkers()), Arrays.hashCode(getStackFilters()), getObject(), isSuppressed());
+        return Objects.hash(getLevel(), getEpochNanos(), getEvery(), getOrigin(), getSuffix(), getPrefix(), getFormatter(), getCause(), Arrays.hashCode(getMarkers()), Arrays.hashCode(getStackFilters()), getObject(), getFields(), isSuppressed());
     }
 
     @Override
     public @NotNull String toString() {
-        return getFormatter().format(this);
+        @Nullable String text = memoized(this.text);
+        if (text != null) return text;
+
+        @NotNull Retention retention = LoggerFactory.getInstance().getRetention();
+
+        if (retention == Retention.BYTES) {
+            return new String(toBytes(), getFormatter().getCharset());
+        }
+
+        text = getFormatter().format(this);
+        if (retention != Retention.NONE) this.text = keep(text, retention);
+
+        return text;
+    }
+    @Override
+    public byte @NotNull [] toBytes() {
+        byte @Nullable [] bytes = memoized(this.bytes);
+        if (bytes != null) return bytes;
+
+        @NotNull Retention retention = LoggerFactory.getInstance().getRetention();
+        @NotNull String text = retention != Retention.BYTES ? toString() : getFormatter().format(this);
+
+        bytes = text.getBytes(getFormatter().getCharset());
+        if (retention != Retention.NONE) this.bytes = keep(bytes, retention);
+
+        return bytes;
+    }
+    @Override
+    public @NotNull String toJson() {
+        @Nullable String json = memoized(this.json);
+        if (json != null) return json;
+
+        @NotNull Retention retention = LoggerFactory.getInstance().getRetention();
+
+        json = Registry.super.toJson();
+        if (retention != Retention.NONE && retention != Retention.BYTES) this.json = keep(json, retention);
+
+        return json;
+    }
+
+    // Utilities
+
+    @SuppressWarnings("unchecked")
+    private static <T> @Nullable T memoized(@Nullable Object memo) {
+        return (T) (memo instanceof Reference ? ((Reference<?>) memo).get() : memo);
+    }
+    private static @NotNull Object keep(@NotNull Object value, @NotNull Retention retention) {
+        switch (retention) {
+            case SOFT:
+                return new SoftReference<>(value);
+            case WEAK:
+                return new WeakReference<>(value);
+            default:
+                return value;
+        }
+    }
+
+    private static long toEpochNanos(@NotNull Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    }
+    private static @NotNull Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L), Math.floorMod(epochNanos, 1_000_000_000L));
     }
 
     // Classes
@@ -150,34 +252,41 @@ public final class RegistryImpl implements Registry {
         // Object
 
         private final @NotNull OutputStream output;
+        private final @NotNull ReentrantLock lock;
 
         private @NotNull Level level;
-        private @NotNull Instant instant;
+        private long epochNanos;
 
         private @Nullable Throwable cause;
 
         private transient @NotNull StackFilter @NotNull [] stackFilters;
-        private final @NotNull Set<Marker> markers;
+        // Copy-on-write, shared with the logger until changed
+        private @NotNull Marker @NotNull [] markers;
 
         private transient @Nullable Every every;
         private @Nullable StackTraceElement origin;
+        // The origin is located from the stack trace on demand, unless it was set
+        private boolean located = false;
 
         private @Nullable String suffix;
         private @Nullable String prefix;
 
         private @NotNull Formatter formatter;
 
+        // Created by the first field
+        private @Nullable Fields.Builder fields;
+
         private boolean suppressed = false;
 
-        BuilderImpl(@NotNull Level level, @NotNull OutputStream output, @NotNull Formatter formatter, @NotNull Instant instant, @NotNull StackFilter @NotNull [] stackFilters, @NotNull Marker @NotNull [] markers, @Nullable Every every, @Nullable String prefix, @Nullable String suffix) {
+        BuilderImpl(@NotNull Level level, @NotNull OutputStream output, @NotNull ReentrantLock lock, @NotNull Formatter formatter, long epochNanos, @NotNull StackFilter @NotNull [] stackFilters, @NotNull Marker @NotNull [] markers, @Nullable Every every, @Nullable String prefix, @Nullable String suffix) {
             this.level = level;
             this.output = output;
+            this.lock = lock;
             this.formatter = formatter;
-            this.instant = instant;
+            this.epochNanos = epochNanos;
             this.stackFilters = stackFilters;
-            this.markers = new LinkedHashSet<>(Arrays.asList(markers));
+            this.markers = markers;
             this.every = every;
-            this.origin = Arrays.stream(Thread.currentThread().getStackTrace()).skip(1).filter(trace -> !trace.getClassName().startsWith("com.jlogm")).findFirst().orElseThrow(IllegalStateException::new);
             this.prefix = prefix;
             this.suffix = suffix;
         }
@@ -196,12 +305,20 @@ public final class RegistryImpl implements Registry {
 
         @Override
         public @NotNull Builder instant(@NotNull Instant instant) {
-            this.instant = instant;
+            this.epochNanos = toEpochNanos(instant);
             return this;
         }
         @Override
         public @NotNull Instant getInstant() {
-            return instant;
+            return toInstant(epochNanos);
+        }
+        @Override
+        public long getEpochMillis() {
+            return Math.floorDiv(epochNanos, 1_000_000L);
+        }
+        @Override
+        public long getEpochNanos() {
+            return epochNanos;
         }
 
         @Override
@@ -215,10 +332,21 @@ public final class RegistryImpl implements Registry {
         @Override
         public @NotNull Builder origin(@Nullable StackTraceElement origin) {
             this.origin = origin;
+            this.located = true;
+
             return this;
         }
+
+        /**
+         * Locates the origin on the first call, which must happen on the logging thread before the builder is logged.
+         */
         @Override
         public @Nullable StackTraceElement getOrigin() {
+            if (!located) {
+                origin = Arrays.stream(Thread.currentThread().getStackTrace()).skip(1).filter(trace -> !trace.getClassName().startsWith("com.jlogm")).findFirst().orElseThrow(IllegalStateException::new);
+                located = true;
+            }
+
             return origin;
         }
 
@@ -290,88 +418,163 @@ public final class RegistryImpl implements Registry {
 
         @Override
         public @NotNull Builder marker(@NotNull Marker marker) {
-            this.markers.add(marker);
+            if (!Arrays.asList(markers).contains(marker)) {
+                @NotNull Marker[] markers = Arrays.copyOf(this.markers, this.markers.length + 1);
+                markers[markers.length - 1] = marker;
+
+                this.markers = markers;
+            }
+
             return this;
         }
         @Override
         public @NotNull Builder marker(@NotNull String name) {
-            this.markers.add(new SimpleMarker(name));
-            return this;
+            return marker(new SimpleMarker(name));
         }
         @Override
-        public @NotNull Builder marker(@NotNull String name, @NotNull Color color) {
-            this.markers.add(new SimpleMarker(name, color));
-            return this;
+        public @NotNull Builder marker(@NotNull String name, @NotNull Rgb color) {
+            return marker(new SimpleMarker(name, color));
         }
 
         @Override
         public @NotNull Builder markers(@NotNull Marker @NotNull ... markers) {
-            this.markers.clear();
-            this.markers.addAll(Arrays.asList(markers));
-
+            this.markers = new LinkedHashSet<>(Arrays.asList(markers)).toArray(new Marker[0]);
             return this;
         }
         @Override
         public @NotNull Marker @NotNull [] getMarkers() {
-            return markers.toArray(new Marker[0]);
+            return markers;
+        }
+
+        @Override
+        public @NotNull Builder kv(@NotNull String key, long value) {
+            fields().put(key, value);
+            return this;
+        }
+        @Override
+        public @NotNull Builder kv(@NotNull String key, double value) {
+            fields().put(key, value);
+            return this;
+        }
+        @Override
+        public @NotNull Builder kv(@NotNull String key, boolean value) {
+            fields().put(key, value);
+            return this;
+        }
+        @Override
+        public @NotNull Builder kv(@NotNull String key, @Nullable Object value) {
+            fields().put(key, value);
+            return this;
+        }
+
+        private @NotNull Fields.Builder fields() {
+            if (fields == null) fields = new Fields.Builder();
+            return fields;
         }
 
         // Modules
 
         @Override
         public @NotNull Registry log(@Nullable Object object) {
+            // Trailing throwable of a parameterized message
+            if (cause == null && object instanceof ParameterizedMessage) {
+                cause = ((ParameterizedMessage) object).getThrowable();
+            }
+
             // Object verification
             for (@NotNull Filter filter : LoggerFactory.getInstance().getFilters()) {
                 object = filter.object(this, object);
             }
 
-            // Filters and suppression
-            if (LoggerFactory.getInstance().getFilters().isSuppressed(this, object)) {
+            // Filters and suppression, unless the log site suppressed it already
+            if (!isSuppressed() && LoggerFactory.getInstance().getFilters().isSuppressed(this, object)) {
                 setSuppressed(true);
-            } else if (every != null && !every.canLog(LoggerFactory.getInstance(), this, object)) {
+            } else if (!isSuppressed() && every != null && !every.canLog(LoggerFactory.getInstance(), this, object)) {
                 setSuppressed(true);
             }
 
-            // Clone context and stack
-            @NotNull Map<String, Object> context = new LinkedHashMap<>(LogCtx.snapshot());
-            @NotNull Set<String> stack = new LinkedHashSet<>(Stack.snapshot());
+            // Lazy messages are only evaluated for the registries written
+            if (!isSuppressed() && object instanceof LazyMessage) {
+                object = ((LazyMessage) object).get();
+            }
+
+            // Registries kept for later capture the mutable arguments now
+            @Nullable Registries registries = LoggerFactory.getInstance().getRegistries();
+            if (registries != null && object instanceof ParameterizedMessage) {
+                object = ((ParameterizedMessage) object).capture();
+            }
+
+            // Only the fields read by the formatter, the filters or the registries are captured
+            int requirements = getFormatter().getRequirements() | LoggerFactory.getInstance().getFilters().getRequirements();
+            if (registries != null) requirements |= registries.getRequirements();
+
+            // Context and stack snapshots are immutable, so they're shared instead of copied
+            @NotNull Map<String, Object> context = (requirements & Requirements.CONTEXT) != 0 ? LogCtx.snapshot() : Collections.emptyMap();
+            @NotNull Set<String> stack = (requirements & Requirements.STACK) != 0 ? Stack.values() : Collections.emptySet();
+            @Nullable StackTraceElement origin = located || (requirements & Requirements.ORIGIN) != 0 ? getOrigin() : null;
 
             // Generate registry
-            @NotNull RegistryImpl registry = new RegistryImpl(getLevel(), getInstant(), getEvery(), getOrigin(), getSuffix(), getPrefix(), getFormatter(), getCause(), getMarkers(), getStackFilters(), object, isSuppressed(), context, stack);
-            
-            // Generate message
-            @NotNull String message = getFormatter().format(registry);
+            @NotNull RegistryImpl registry = new RegistryImpl(getLevel(), getEpochNanos(), getEvery(), origin, getSuffix(), getPrefix(), getFormatter(), getCause(), getMarkers(), getStackFilters(), object, isSuppressed(), context, stack, fields != null ? fields.build() : Fields.EMPTY);
 
             // Save it to registries
-            @Nullable Registries registries = LoggerFactory.getInstance().getRegistries();
             if (registries != null) registries.add(registry);
 
             // Print if not suppressed
-            if (!isSuppressed()) {
-                try {
-                    synchronized (output) {
-                        output.write(message.getBytes(getFormatter().getCharset()));
-                        output.flush();
-                    }
-                } catch (@NotNull IOException e) {
-                    throw new RuntimeException("cannot print message using jlogm", e);
-                }
+            if (!isSuppressed()) try {
+                print(registry);
+            } catch (@NotNull IOException e) {
+                throw new RuntimeException("cannot print message using jlogm", e);
             }
 
             // Finish
             return registry;
         }
 
+        private void print(@NotNull Registry registry) throws IOException {
+            @NotNull Formatter formatter = getFormatter();
+
+            // Not the output monitor, virtual threads writing would stay pinned to their carriers
+            if (formatter.isOutputBound()) {
+                lock.lock();
+
+                try {
+                    formatter.write(registry, output);
+                    output.flush();
+                } finally {
+                    lock.unlock();
+                }
+
+                return;
+            }
+
+            // Encoded before taking the lock, the threads sharing the output only wait for the copies
+            @NotNull Buffer buffer = Buffer.acquire();
+
+            try {
+                formatter.write(registry, buffer, output);
+                lock.lock();
+
+                try {
+                    buffer.writeTo(output);
+                    output.flush();
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                buffer.release();
+            }
+        }
+
         // Implementations
 
         @Override
         public @NotNull String toString() {
             return "RegistryImpl{" +
                     "level=" + level +
-                    ", instant=" + instant +
+                    ", instant=" + getInstant() +
                     ", throwable=" + cause +
                     ", stackFilters=" + Arrays.toString(stackFilters) +
-                    ", markers=" + markers +
+                    ", markers=" + Arrays.toString(markers) +
                     ", every=" + every +
                     ", origin=" + origin +
                     ", suppressed=" + suppressed +
@@ -380,4 +583,40 @@ public final class RegistryImpl implements Registry {
 
     }
 
+    // Classes
+
+    /**
+     * The per-thread buffer receiving the encoded registries before they're copied into the outputs. A registry
+     * logged while encoding another one, from a {@code toString()} for instance, gets a buffer of its own.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        private static final @NotNull ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+        // Buffers grown past this capacity are shrunk back once released
+        private static final int RETAINED = 64 * 1024;
+
+        private static @NotNull Buffer acquire() {
+            @NotNull Buffer buffer = BUFFERS.get();
+            if (buffer.busy) return new Buffer();
+
+            buffer.busy = true;
+            return buffer;
+        }
+
+        private boolean busy;
+
+        private Buffer() {
+            super(1024);
+        }
+
+        private void release() {
+            if (buf.length > RETAINED) buf = new byte[1024];
+
+            reset();
+            busy = false;
+        }
+
+    }
+
 }
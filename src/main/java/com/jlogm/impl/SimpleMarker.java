@@ -1,11 +1,11 @@
 package com.jlogm.impl;
 
 import com.jlogm.utils.Coloured;
+import com.jlogm.utils.Rgb;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Marker;
 
-import java.awt.*;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -14,7 +14,7 @@ import java.util.Set;
 public final class SimpleMarker implements Marker {
 
     private final @NotNull String name;
-    private final @Nullable Color color;
+    private final @Nullable Rgb color;
 
     private final @NotNull Set<Marker> markers = new LinkedHashSet<>();
 
@@ -23,17 +23,25 @@ public final class SimpleMarker implements Marker {
         this.color = null;
     }
 
-    public SimpleMarker(@NotNull String name, @Nullable Color color) {
+    public SimpleMarker(@NotNull String name, @Nullable Rgb color) {
         this.name = name;
         this.color = color;
     }
 
+    /**
+     * @deprecated use {@link #SimpleMarker(String, Rgb)}, AWT colors are only kept for compatibility
+     */
+    @Deprecated
+    public SimpleMarker(@NotNull String name, @Nullable java.awt.Color color) {
+        this(name, color != null ? Rgb.of(color) : null);
+    }
+
     @Override
     public @NotNull String getName() {
         return name;
     }
 
-    public @Nullable Color getColor() {
+    public @Nullable Rgb getColor() {
         return color;
     }
 
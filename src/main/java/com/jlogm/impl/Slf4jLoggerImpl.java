@@ -3,11 +3,11 @@ package com.jlogm.impl;
 import com.jlogm.Logger;
 import com.jlogm.Registry.Builder;
 import com.jlogm.factory.LoggerFactory;
+import com.jlogm.message.ParameterizedMessage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Marker;
 import org.slf4j.event.Level;
-import org.slf4j.helpers.MessageFormatter;
 
 import java.io.Serializable;
 import java.util.Objects;
@@ -291,10 +291,10 @@ public final class Slf4jLoggerImpl implements org.slf4j.Logger, Serializable {
         @NotNull LoggerFactory factory = LoggerFactory.getInstance();
 
         // Get the current jlogm level
-        @NotNull com.jlogm.Level jlogmlevel = level == Level.ERROR ? com.jlogm.Level.SEVERE : com.jlogm.Level.valueOf(level.name());
+        @NotNull com.jlogm.Level jlogmlevel = com.jlogm.Level.of(level);
 
-        // Message
-        @NotNull String message = MessageFormatter.basicArrayFormat(messagePattern, arguments);
+        // Message, formatted only if the registry is written
+        @Nullable Object message = arguments == null || arguments.length == 0 ? messagePattern : ParameterizedMessage.of(messagePattern, arguments);
 
         // Prepare the logger
         @NotNull Logger logger = factory.create(getName());
@@ -0,0 +1,102 @@
+package com.jlogm.message;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Defines how the arguments of a {@link ParameterizedMessage} are captured when its registry outlives the logging
+ * call, which happens when the registries are kept by the {@link com.jlogm.factory.LoggerFactory.Registries}.
+ *
+ * <p>Registries written and discarded within the call never capture anything: the message is formatted while the
+ * arguments still hold the state of the call. Registries kept for later are formatted whenever they're read, so
+ * the arguments of mutable types are rendered to strings when the registry is created, while the immutable ones are
+ * kept by reference and rendered later.</p>
+ *
+ * <p>The policy is chosen per type. Collections, maps, arrays, string builders and dates are snapshotted by default,
+ * any other type is kept by reference unless registered:
+ * <pre>{@code
+ * Capture.register(Order.class, Capture.SNAPSHOT);
+ * }</pre>
+ */
+public enum Capture {
+
+    /**
+     * The argument is rendered to a string when the registry is created.
+     */
+    SNAPSHOT,
+
+    /**
+     * The argument is kept by reference and rendered when the registry is formatted.
+     */
+    REFERENCE;
+
+    // Static initializers
+
+    private static final @NotNull Map<Class<?>, Capture> registered = new ConcurrentHashMap<>();
+    // Resolved policies by concrete type, cleared by every registration
+    private static final @NotNull Map<Class<?>, Capture> resolved = new ConcurrentHashMap<>();
+
+    static {
+        registered.put(Collection.class, SNAPSHOT);
+        registered.put(Map.class, SNAPSHOT);
+        registered.put(StringBuilder.class, SNAPSHOT);
+        registered.put(StringBuffer.class, SNAPSHOT);
+        registered.put(Date.class, SNAPSHOT);
+    }
+
+    /**
+     * Registers the policy of a type, which also applies to its subtypes unless they're registered too.
+     *
+     * @param type the type
+     * @param capture the policy
+     */
+    public static void register(@NotNull Class<?> type, @NotNull Capture capture) {
+        registered.put(type, capture);
+        resolved.clear();
+    }
+
+    /**
+     * @param type the type of an argument
+     * @return the policy of the type
+     */
+    public static @NotNull Capture of(@NotNull Class<?> type) {
+        @Nullable Capture capture = resolved.get(type);
+
+        if (capture == null) {
+            capture = type.isArray() ? SNAPSHOT : resolve(type);
+            resolved.put(type, capture);
+        }
+
+        return capture;
+    }
+
+    private static @NotNull Capture resolve(@NotNull Class<?> type) {
+        // The closest registered superclass, then the registered interfaces
+        for (@Nullable Class<?> current = type; current != null; current = current.getSuperclass()) {
+            @Nullable Capture capture = registered.get(current);
+            if (capture != null) return capture;
+        }
+        for (@Nullable Class<?> current = type; current != null; current = current.getSuperclass()) {
+            @Nullable Capture capture = interfaces(current);
+            if (capture != null) return capture;
+        }
+
+        return REFERENCE;
+    }
+
+    private static @Nullable Capture interfaces(@NotNull Class<?> type) {
+        for (@NotNull Class<?> implemented : type.getInterfaces()) {
+            @Nullable Capture capture = registered.get(implemented);
+            if (capture == null) capture = interfaces(implemented);
+            if (capture != null) return capture;
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.jlogm.message;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * A message computed by a supplier the first time it's needed.
+ *
+ * <p>The builders evaluate lazy messages only for the registries that are going to be written, after the filters
+ * and {@link com.jlogm.fluent.Every} let them through, so an expensive message costs nothing when it's suppressed:
+ * <pre>{@code
+ * logger.debug(() -> "query plan: " + plan.explain());
+ * }</pre>
+ *
+ * <p>The supplier runs on the logging thread, before {@code log} returns, so it sees the state of the call. Suppressed
+ * registries kept by the {@link com.jlogm.factory.LoggerFactory.Registries} keep the lazy message unevaluated, it's
+ * evaluated if they're formatted later. A supplier throwing an exception is rendered as a failure message instead
+ * of breaking the logging call.</p>
+ */
+public final class LazyMessage {
+
+    // Static initializers
+
+    public static @NotNull LazyMessage of(@NotNull Supplier<?> supplier) {
+        return new LazyMessage(supplier);
+    }
+
+    // Object
+
+    private final @NotNull Supplier<?> supplier;
+
+    private volatile boolean evaluated = false;
+    private volatile @Nullable Object value;
+
+    private LazyMessage(@NotNull Supplier<?> supplier) {
+        this.supplier = supplier;
+    }
+
+    // Getters
+
+    public @NotNull Supplier<?> getSupplier() {
+        return supplier;
+    }
+
+    public boolean isEvaluated() {
+        return evaluated;
+    }
+
+    // Modules
+
+    /**
+     * @return the value of the supplier, evaluated on the first call
+     */
+    public @Nullable Object get() {
+        if (!evaluated) {
+            try {
+                value = supplier.get();
+            } catch (@NotNull RuntimeException e) {
+                value = "[FAILED message supplier: " + e + "]";
+            }
+
+            evaluated = true;
+        }
+
+        return value;
+    }
+
+    // Implementations
+
+    /**
+     * @return the value of the supplier as a string, evaluating it if needed
+     */
+    @Override
+    public @NotNull String toString() {
+        return String.valueOf(get());
+    }
+
+}
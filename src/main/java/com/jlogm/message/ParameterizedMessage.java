@@ -0,0 +1,315 @@
+package com.jlogm.message;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A message template with SLF4J-style {@code {}} placeholders and its arguments, formatted only when needed.
+ *
+ * <p>Creating a parameterized message only keeps the template and the arguments, single {@code int}, {@code long}
+ * and {@code double} arguments are kept unboxed. The message is formatted by {@link #toString()}, the first time
+ * a formatter writes it, so registries suppressed by a filter or by {@link com.jlogm.fluent.Every} never pay for
+ * it:
+ * <pre>{@code
+ * logger.info("user {} logged in from {}", user, address);
+ * logger.debug().log("cache size is {}", cache.size());
+ * }</pre>
+ *
+ * <p>The formatting follows SLF4J: {@code \{}} is written as a literal {@code {}}, {@code \\{}} as a backslash
+ * followed by the argument, the arguments are written with their {@link Renderers}, and a trailing
+ * {@link Throwable} argument not used by any placeholder is available as {@link #getThrowable()} instead of being
+ * formatted.</p>
+ */
+public final class ParameterizedMessage {
+
+    // Static initializers
+
+    private static final @Nullable Object @NotNull [] NONE = new Object[0];
+
+    private static final int OBJECTS = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+
+    public static @NotNull ParameterizedMessage of(@Nullable String template, @Nullable Object argument) {
+        return of(template, new Object[] { argument });
+    }
+    public static @NotNull ParameterizedMessage of(@Nullable String template, @Nullable Object first, @Nullable Object second) {
+        return of(template, new Object[] { first, second });
+    }
+    public static @NotNull ParameterizedMessage of(@Nullable String template, @Nullable Object first, @Nullable Object second, @Nullable Object third) {
+        return of(template, new Object[] { first, second, third });
+    }
+
+    /**
+     * @param template the template, with {@code {}} placeholders
+     * @param arguments the arguments, the array is kept and must not be changed afterward
+     * @return the parameterized message
+     */
+    public static @NotNull ParameterizedMessage of(@Nullable String template, @Nullable Object @Nullable ... arguments) {
+        if (arguments == null || arguments.length == 0) {
+            return new ParameterizedMessage(template, NONE, 0, null, OBJECTS, 0);
+        }
+
+        // A trailing throwable is a cause unless a placeholder uses it
+        @Nullable Object last = arguments[arguments.length - 1];
+
+        if (last instanceof Throwable && placeholders(template) < arguments.length) {
+            return new ParameterizedMessage(template, arguments, arguments.length - 1, (Throwable) last, OBJECTS, 0);
+        }
+
+        return new ParameterizedMessage(template, arguments, arguments.length, null, OBJECTS, 0);
+    }
+
+    public static @NotNull ParameterizedMessage of(@Nullable String template, int argument) {
+        return new ParameterizedMessage(template, NONE, 1, null, INT, argument);
+    }
+    public static @NotNull ParameterizedMessage of(@Nullable String template, long argument) {
+        return new ParameterizedMessage(template, NONE, 1, null, LONG, argument);
+    }
+    public static @NotNull ParameterizedMessage of(@Nullable String template, double argument) {
+        return new ParameterizedMessage(template, NONE, 1, null, DOUBLE, Double.doubleToRawLongBits(argument));
+    }
+
+    // Object
+
+    private final @Nullable String template;
+    private final @Nullable Object @NotNull [] arguments;
+    private final int count;
+    private final @Nullable Throwable throwable;
+
+    // A single unboxed argument, used instead of the arguments array unless the kind is OBJECTS
+    private final int kind;
+    private final long primitive;
+
+    // Formatted on demand, racy but idempotent
+    private @Nullable String formatted;
+
+    private ParameterizedMessage(@Nullable String template, @Nullable Object @NotNull [] arguments, int count, @Nullable Throwable throwable, int kind, long primitive) {
+        this.template = template;
+        this.arguments = arguments;
+        this.count = count;
+        this.throwable = throwable;
+        this.kind = kind;
+        this.primitive = primitive;
+    }
+
+    // Getters
+
+    public @Nullable String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return the number of arguments, excluding the trailing throwable
+     */
+    public int getArgumentCount() {
+        return count;
+    }
+
+    /**
+     * @param index the index of the argument
+     * @return the argument, boxed if it's a primitive
+     */
+    public @Nullable Object getArgument(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("there's no argument at index " + index);
+        }
+
+        switch (kind) {
+            case INT:
+                return (int) primitive;
+            case LONG:
+                return primitive;
+            case DOUBLE:
+                return Double.longBitsToDouble(primitive);
+            default:
+                return arguments[index];
+        }
+    }
+
+    /**
+     * @return the trailing throwable argument not used by any placeholder, or null
+     */
+    public @Nullable Throwable getThrowable() {
+        return throwable;
+    }
+
+    // Modules
+
+    /**
+     * Appends the formatted message to the builder, without creating the intermediate string.
+     *
+     * @param builder the builder receiving the message
+     * @return the builder
+     */
+    public @NotNull StringBuilder formatTo(@NotNull StringBuilder builder) {
+        @Nullable String formatted = this.formatted;
+        if (formatted != null) return builder.append(formatted);
+
+        formatTo(new Renderer.Output(builder, Integer.MAX_VALUE));
+        return builder;
+    }
+
+    /**
+     * Writes the formatted message to a bounded output, the arguments are written with their {@link Renderers}
+     * and the formatting stops once the output is full.
+     *
+     * @param output the output receiving the message
+     */
+    public void formatTo(@NotNull Renderer.Output output) {
+        @Nullable String formatted = this.formatted;
+        if (formatted != null) {
+            output.append(formatted);
+            return;
+        } else if (template == null) {
+            output.append("null");
+            return;
+        }
+
+        int from = 0;
+        int index = 0;
+
+        while (index < count && !output.isFull()) {
+            int at = template.indexOf("{}", from);
+            if (at < 0) break;
+
+            if (at > 0 && template.charAt(at - 1) == '\\') {
+                if (at > 1 && template.charAt(at - 2) == '\\') {
+                    // Escaped backslash, the placeholder is used
+                    output.append(template, from, at - 1);
+                    argument(index++, output);
+                } else {
+                    // Escaped placeholder
+                    output.append(template, from, at - 1).append("{}");
+                }
+            } else {
+                output.append(template, from, at);
+                argument(index++, output);
+            }
+
+            from = at + 2;
+        }
+
+        output.append(template, from, template.length());
+    }
+
+    /**
+     * Appends a single argument formatted as it appears in the message, truncated at
+     * {@link Renderers#getMaxLength()}.
+     *
+     * @param index the index of the argument
+     * @param builder the builder receiving the argument
+     * @return the builder
+     */
+    public @NotNull StringBuilder formatArgumentTo(int index, @NotNull StringBuilder builder) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("there's no argument at index " + index);
+        }
+
+        argument(index, new Renderer.Output(builder, Renderers.getMaxLength()));
+        return builder;
+    }
+
+    /**
+     * Captures the arguments following the {@link Capture} policy of their types, for registries that outlive the
+     * logging call.
+     *
+     * @return a message with the snapshotted arguments rendered to strings, or this message if there's nothing
+     * to snapshot
+     */
+    public @NotNull ParameterizedMessage capture() {
+        // Primitives are copies already, and a formatted message doesn't read its arguments anymore
+        if (kind != OBJECTS || formatted != null) return this;
+
+        @Nullable Object @Nullable [] captured = null;
+
+        for (int index = 0; index < count; index++) {
+            @Nullable Object argument = arguments[index];
+
+            if (argument != null && Capture.of(argument.getClass()) == Capture.SNAPSHOT) {
+                if (captured == null) captured = arguments.clone();
+                captured[index] = Renderers.render(argument);
+            }
+        }
+
+        return captured != null ? new ParameterizedMessage(template, captured, count, throwable, OBJECTS, 0) : this;
+    }
+
+    private void argument(int index, @NotNull Renderer.Output output) {
+        switch (kind) {
+            case INT:
+                output.append((int) primitive);
+                return;
+            case LONG:
+                output.append(primitive);
+                return;
+            case DOUBLE:
+                output.append(Double.longBitsToDouble(primitive));
+                return;
+        }
+
+        output.object(arguments[index]);
+    }
+
+    private static int placeholders(@Nullable String template) {
+        if (template == null) return 0;
+
+        int count = 0;
+        for (int at = template.indexOf("{}"); at >= 0; at = template.indexOf("{}", at + 2)) {
+            boolean escaped = at > 0 && template.charAt(at - 1) == '\\' && !(at > 1 && template.charAt(at - 2) == '\\');
+            if (!escaped) count++;
+        }
+
+        return count;
+    }
+
+    // Implementations
+
+    /**
+     * Compares the templates and the arguments, without formatting the messages. Messages with snapshotted
+     * arguments are only equal to messages with the same snapshots.
+     */
+    @Override
+    public boolean equals(@Nullable Object object) {
+        if (this == object) return true;
+        if (!(object instanceof ParameterizedMessage)) return false;
+        @NotNull ParameterizedMessage message = (ParameterizedMessage) object;
+        if (count != message.count || !Objects.equals(template, message.template)) return false;
+
+        for (int index = 0; index < count; index++) {
+            if (!Objects.deepEquals(getArgument(index), message.getArgument(index))) return false;
+        }
+
+        return true;
+    }
+    @Override
+    public int hashCode() {
+        int hash = Objects.hashCode(template);
+
+        for (int index = 0; index < count; index++) {
+            // Consistent with deepEquals for array arguments
+            hash = 31 * hash + Arrays.deepHashCode(new Object[] { getArgument(index) });
+        }
+
+        return hash;
+    }
+
+    /**
+     * @return the formatted message, formatted on the first call
+     */
+    @Override
+    public @NotNull String toString() {
+        @Nullable String formatted = this.formatted;
+
+        if (formatted == null) {
+            this.formatted = formatted = formatTo(new StringBuilder(template != null ? template.length() + 16 * count : 4)).toString();
+        }
+
+        return formatted;
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.jlogm.message;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Renders the objects of a type as the text written by the formatters, instead of their {@code toString()}.
+ *
+ * <p>Renderers write into a bounded {@link Output}: once the maximum length is reached the output is truncated and
+ * ignores the following writes, so a renderer iterating over a large object should stop as soon as
+ * {@link Output#isFull()} is true. Nested objects are rendered with {@link Output#object(Object)}, which uses their own
+ * renderers:
+ * <pre>{@code
+ * Renderers.register(Order.class, (order, output) -> output.append("Order#").append(order.getId()));
+ * }</pre>
+ *
+ * @param <T> the type of the rendered objects
+ * @see Renderers
+ */
+@FunctionalInterface
+public interface Renderer<T> {
+
+    // Object
+
+    void render(@NotNull T object, @NotNull Output output);
+
+    // Classes
+
+    /**
+     * A text output with a maximum length, truncating while the objects are rendered. The characters beyond the
+     * maximum length are dropped and replaced by {@code ...}.
+     */
+    final class Output {
+
+        // Static initializers
+
+        private static final @NotNull String ELLIPSIS = "...";
+
+        // Deeper objects are written as an ellipsis
+        private static final int MAX_DEPTH = 16;
+
+        // Object
+
+        private final @NotNull StringBuilder builder;
+        private final int limit;
+
+        private boolean truncated = false;
+
+        // Objects being rendered, to break cycles
+        private final @Nullable Object @NotNull [] rendering = new Object[MAX_DEPTH];
+        private int depth = 0;
+
+        /**
+         * @param builder the builder receiving the text
+         * @param maxLength the maximum number of characters appended to the builder, excluding the ellipsis
+         * @throws IllegalArgumentException if the maximum length is negative
+         */
+        public Output(@NotNull StringBuilder builder, int maxLength) {
+            if (maxLength < 0) {
+                throw new IllegalArgumentException("the maximum length cannot be negative");
+            }
+
+            this.builder = builder;
+            this.limit = (int) Math.min(Integer.MAX_VALUE, (long) builder.length() + maxLength);
+        }
+
+        // Getters
+
+        public @NotNull StringBuilder getBuilder() {
+            return builder;
+        }
+
+        /**
+         * @return true if the maximum length was reached and the text was truncated
+         */
+        public boolean isFull() {
+            return truncated;
+        }
+
+        // Modules
+
+        public @NotNull Output append(char character) {
+            if (builder.length() < limit) {
+                builder.append(character);
+            } else {
+                truncate();
+            }
+
+            return this;
+        }
+        public @NotNull Output append(@Nullable CharSequence sequence) {
+            if (sequence == null) sequence = "null";
+            return append(sequence, 0, sequence.length());
+        }
+        public @NotNull Output append(@NotNull CharSequence sequence, int start, int end) {
+            if (truncated) return this;
+            int remaining = limit - builder.length();
+
+            if (end - start <= remaining) {
+                builder.append(sequence, start, end);
+            } else {
+                builder.append(sequence, start, start + remaining);
+                truncate();
+            }
+
+            return this;
+        }
+        public @NotNull Output append(long value) {
+            // A long never takes more than 20 characters
+            if (limit - builder.length() >= 20) {
+                builder.append(value);
+                return this;
+            }
+
+            return append(Long.toString(value));
+        }
+        public @NotNull Output append(double value) {
+            return append(Double.toString(value));
+        }
+        public @NotNull Output append(boolean value) {
+            return append(value ? "true" : "false");
+        }
+
+        /**
+         * Renders an object with its renderer, writing {@code [...]} if it's already being rendered (a cycle) or
+         * nested too deeply, and {@code [FAILED toString()]} if its renderer throws an exception.
+         *
+         * @param object the object
+         * @return this output
+         */
+        public @NotNull Output object(@Nullable Object object) {
+            if (truncated) return this;
+            if (object == null) return append("null");
+
+            if (depth == MAX_DEPTH) return append("[...]");
+            for (int index = 0; index < depth; index++) {
+                if (rendering[index] == object) return append("[...]");
+            }
+
+            rendering[depth++] = object;
+
+            try {
+                Renderers.of(object.getClass()).render(object, this);
+            } catch (@NotNull RuntimeException e) {
+                append("[FAILED toString()]");
+            } finally {
+                rendering[--depth] = null;
+            }
+
+            return this;
+        }
+
+        private void truncate() {
+            if (!truncated) {
+                builder.append(ELLIPSIS);
+                truncated = true;
+            }
+        }
+
+        // Implementations
+
+        @Override
+        public @NotNull String toString() {
+            return builder.toString();
+        }
+
+    }
+
+}
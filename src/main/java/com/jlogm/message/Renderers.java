@@ -0,0 +1,254 @@
+package com.jlogm.message;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The renderers used by the formatters to write the registry objects and the message arguments.
+ *
+ * <p>The renderer of a class is resolved once, walking its hierarchy for the closest registered superclass and then
+ * the registered interfaces, and cached by class. Renderers are provided for:
+ * <ul>
+ *   <li>Arrays - written with their elements, like {@link java.util.Arrays#deepToString(Object[])}.</li>
+ *   <li>{@code byte[]} - written as hexadecimal, like {@code 0x0aff}.</li>
+ *   <li>{@link Collection} and {@link Map} - written like their {@code toString()}, stopping at the maximum
+ *   length instead of rendering every element.</li>
+ *   <li>{@link ParameterizedMessage} and {@link LazyMessage} - formatted directly into the output.</li>
+ *   <li>Any other object - its {@code toString()}.</li>
+ * </ul>
+ *
+ * <p>The rendered text is truncated at {@link #getMaxLength()} characters, 65536 by default:
+ * <pre>{@code
+ * Renderers.setMaxLength(4096);
+ * Renderers.register(Order.class, (order, output) -> output.append("Order#").append(order.getId()));
+ * }</pre>
+ */
+public final class Renderers {
+
+    // Static initializers
+
+    private static final char @NotNull [] HEX = "0123456789abcdef".toCharArray();
+    private static final @NotNull Renderer<Object> TO_STRING = (object, output) -> output.append(object.toString());
+
+    private static final @NotNull Map<Class<?>, Renderer<?>> registered = new ConcurrentHashMap<>();
+    // Replaced by every registration, so the cached lookups are discarded
+    private static volatile @NotNull ClassValue<Renderer<Object>> resolved = lookup();
+
+    private static volatile int maxLength = 65536;
+
+    static {
+        registered.put(Collection.class, (Renderer<Collection<?>>) (collection, output) -> {
+            output.append('[');
+
+            @NotNull Iterator<?> iterator = collection.iterator();
+            while (iterator.hasNext() && !output.isFull()) {
+                output.object(iterator.next());
+                if (iterator.hasNext()) output.append(", ");
+            }
+
+            output.append(']');
+        });
+        registered.put(Map.class, (Renderer<Map<?, ?>>) (map, output) -> {
+            output.append('{');
+
+            @NotNull Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+            while (iterator.hasNext() && !output.isFull()) {
+                @NotNull Map.Entry<?, ?> entry = iterator.next();
+                output.object(entry.getKey()).append('=').object(entry.getValue());
+                if (iterator.hasNext()) output.append(", ");
+            }
+
+            output.append('}');
+        });
+        registered.put(ParameterizedMessage.class, (Renderer<ParameterizedMessage>) ParameterizedMessage::formatTo);
+        registered.put(LazyMessage.class, (Renderer<LazyMessage>) (message, output) -> output.object(message.get()));
+
+        // Arrays
+        registered.put(Object[].class, (Renderer<Object[]>) (array, output) -> {
+            output.append('[');
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                if (index > 0) output.append(", ");
+                output.object(array[index]);
+            }
+            output.append(']');
+        });
+        registered.put(byte[].class, (Renderer<byte[]>) (array, output) -> {
+            output.append("0x");
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                output.append(HEX[(array[index] >> 4) & 0xF]).append(HEX[array[index] & 0xF]);
+            }
+        });
+        registered.put(int[].class, (Renderer<int[]>) (array, output) -> {
+            output.append('[');
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                if (index > 0) output.append(", ");
+                output.append(array[index]);
+            }
+            output.append(']');
+        });
+        registered.put(long[].class, (Renderer<long[]>) (array, output) -> {
+            output.append('[');
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                if (index > 0) output.append(", ");
+                output.append(array[index]);
+            }
+            output.append(']');
+        });
+        registered.put(short[].class, (Renderer<short[]>) (array, output) -> {
+            output.append('[');
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                if (index > 0) output.append(", ");
+                output.append(array[index]);
+            }
+            output.append(']');
+        });
+        registered.put(double[].class, (Renderer<double[]>) (array, output) -> {
+            output.append('[');
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                if (index > 0) output.append(", ");
+                output.append(array[index]);
+            }
+            output.append(']');
+        });
+        registered.put(float[].class, (Renderer<float[]>) (array, output) -> {
+            output.append('[');
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                if (index > 0) output.append(", ");
+                output.append(Float.toString(array[index]));
+            }
+            output.append(']');
+        });
+        registered.put(char[].class, (Renderer<char[]>) (array, output) -> {
+            output.append('[');
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                if (index > 0) output.append(", ");
+                output.append(array[index]);
+            }
+            output.append(']');
+        });
+        registered.put(boolean[].class, (Renderer<boolean[]>) (array, output) -> {
+            output.append('[');
+            for (int index = 0; index < array.length && !output.isFull(); index++) {
+                if (index > 0) output.append(", ");
+                output.append(array[index]);
+            }
+            output.append(']');
+        });
+    }
+
+    /**
+     * Registers the renderer of a type, which also applies to its subtypes unless they're registered too.
+     *
+     * @param type the type
+     * @param renderer the renderer
+     * @param <T> the type of the rendered objects
+     */
+    public static <T> void register(@NotNull Class<T> type, @NotNull Renderer<? super T> renderer) {
+        registered.put(type, renderer);
+        resolved = lookup();
+    }
+
+    /**
+     * @param type the type of an object
+     * @return the renderer of the type
+     */
+    public static @NotNull Renderer<Object> of(@NotNull Class<?> type) {
+        return resolved.get(type);
+    }
+
+    /**
+     * @return the maximum number of characters written when rendering an object
+     */
+    public static int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @param maxLength the maximum number of characters written when rendering an object
+     * @throws IllegalArgumentException if the maximum length isn't positive
+     */
+    public static void setMaxLength(int maxLength) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("the maximum length must be positive");
+        }
+
+        Renderers.maxLength = maxLength;
+    }
+
+    /**
+     * @param object the object
+     * @return the object rendered with its renderer, truncated at the maximum length
+     */
+    public static @NotNull String render(@Nullable Object object) {
+        if (object instanceof String) {
+            @NotNull String string = (String) object;
+            if (string.length() <= maxLength) return string;
+        }
+
+        return render(object, new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the object rendered with its renderer, truncated at the maximum length.
+     *
+     * @param object the object
+     * @param builder the builder receiving the text
+     * @return the builder
+     */
+    public static @NotNull StringBuilder render(@Nullable Object object, @NotNull StringBuilder builder) {
+        new Renderer.Output(builder, maxLength).object(object);
+        return builder;
+    }
+
+    // Object
+
+    private Renderers() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+    // Utilities
+
+    private static @NotNull ClassValue<Renderer<Object>> lookup() {
+        return new ClassValue<Renderer<Object>>() {
+            @Override
+            protected @NotNull Renderer<Object> computeValue(@NotNull Class<?> type) {
+                return resolve(type);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @NotNull Renderer<Object> resolve(@NotNull Class<?> type) {
+        // Object arrays share a renderer, unless their exact type is registered
+        @Nullable Renderer<?> renderer = registered.get(type);
+        if (renderer == null && type.isArray() && !type.getComponentType().isPrimitive()) {
+            renderer = registered.get(Object[].class);
+        }
+
+        // The closest registered superclass, then the registered interfaces
+        for (@Nullable Class<?> current = type; renderer == null && current != null; current = current.getSuperclass()) {
+            renderer = registered.get(current);
+        }
+        for (@Nullable Class<?> current = type; renderer == null && current != null; current = current.getSuperclass()) {
+            renderer = interfaces(current);
+        }
+
+        return renderer != null ? (Renderer<Object>) renderer : TO_STRING;
+    }
+
+    private static @Nullable Renderer<?> interfaces(@NotNull Class<?> type) {
+        for (@NotNull Class<?> implemented : type.getInterfaces()) {
+            @Nullable Renderer<?> renderer = registered.get(implemented);
+            if (renderer == null) renderer = interfaces(implemented);
+            if (renderer != null) return renderer;
+        }
+
+        return null;
+    }
+
+}
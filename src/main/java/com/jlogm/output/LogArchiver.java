@@ -0,0 +1,339 @@
+package com.jlogm.output;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives rolled log segments on low-priority background threads, optionally compressing them with gzip.
+ *
+ * <p>The archiver owns a bounded pool of daemon threads running at {@link Thread#MIN_PRIORITY}, segments submitted
+ * while every thread is busy wait in a queue. The submitting thread never compresses or copies anything, so the
+ * archiver can be used directly as the roll listener of a {@link MappedFileOutputStream}:
+ * <pre>{@code
+ * LogArchiver archiver = new LogArchiver(Paths.get("logs/archive"), true, 2);
+ * MappedFileOutputStream output = new MappedFileOutputStream(Paths.get("logs/app.log"))
+ *     .rollSize(256L * 1024 * 1024)
+ *     .rollListener(archiver);
+ * }</pre>
+ *
+ * <p>Segments are read with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, either into the gzip
+ * stream or into the archived copy when moving between file stores. Compression throughput and ratio are exposed
+ * by the getters of this class, to help sizing the thread pool.</p>
+ */
+public final class LogArchiver implements Consumer<Path>, Closeable {
+
+    // Static initializers
+
+    private static final @NotNull AtomicInteger POOLS = new AtomicInteger();
+
+    // Object
+
+    private final @Nullable Path directory;
+    private final boolean compress;
+
+    private final @NotNull ThreadPoolExecutor executor;
+
+    private final @NotNull LongAdder archivedFiles = new LongAdder();
+    private final @NotNull LongAdder failedFiles = new LongAdder();
+    private final @NotNull LongAdder inputBytes = new LongAdder();
+    private final @NotNull LongAdder outputBytes = new LongAdder();
+    private final @NotNull LongAdder compressionNanos = new LongAdder();
+
+    /**
+     * Creates an archiver that compresses the segments next to the original files using a single thread.
+     */
+    public LogArchiver() {
+        this(null, true, 1);
+    }
+
+    /**
+     * Creates an archiver.
+     *
+     * @param directory the directory that receives the archived segments, or null to keep them next to the rolled files
+     * @param compress true to gzip the segments, false to only move them
+     * @param threads the maximum number of segments archived concurrently
+     */
+    public LogArchiver(@Nullable Path directory, boolean compress, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("the number of archiver threads must be positive");
+        }
+
+        this.directory = directory;
+        this.compress = compress;
+
+        int pool = POOLS.incrementAndGet();
+        @NotNull AtomicInteger count = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            @NotNull Thread thread = new Thread(runnable, "jlogm-archiver-" + pool + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Getters
+
+    public @Nullable Path getDirectory() {
+        return directory;
+    }
+    public boolean isCompress() {
+        return compress;
+    }
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return the number of segments waiting for a free archiver thread
+     */
+    public int getPendingFiles() {
+        return executor.getQueue().size();
+    }
+    public long getArchivedFiles() {
+        return archivedFiles.sum();
+    }
+    public long getFailedFiles() {
+        return failedFiles.sum();
+    }
+
+    /**
+     * @return the number of bytes read from the compressed segments
+     */
+    public long getInputBytes() {
+        return inputBytes.sum();
+    }
+
+    /**
+     * @return the number of bytes written into the compressed archives
+     */
+    public long getOutputBytes() {
+        return outputBytes.sum();
+    }
+
+    /**
+     * @return the time spent compressing, summed across all the archiver threads
+     */
+    public long getCompressionNanos() {
+        return compressionNanos.sum();
+    }
+
+    /**
+     * Returns the compression ratio, the size of the archives divided by the size of the original segments.
+     *
+     * @return the compression ratio, or {@code 1} if nothing was compressed yet
+     */
+    public double getRatio() {
+        long input = getInputBytes();
+        return input == 0 ? 1 : (double) getOutputBytes() / input;
+    }
+
+    /**
+     * Returns the compression throughput of a single archiver thread, in input bytes per second.
+     *
+     * @return the throughput per thread, or {@code 0} if nothing was compressed yet
+     */
+    public double getThroughput() {
+        long nanos = getCompressionNanos();
+        return nanos == 0 ? 0 : getInputBytes() * 1_000_000_000D / nanos;
+    }
+
+    // Modules
+
+    /**
+     * Submits the segment to be archived, equivalent to {@link #archive(Path)} ignoring the result.
+     *
+     * @param file the rolled segment
+     */
+    @Override
+    public void accept(@NotNull Path file) {
+        archive(file);
+    }
+
+    /**
+     * Submits the segment to be archived in the background. The original file is deleted once the archive
+     * is complete. An existing archive is never replaced: if the archive name of the segment is already taken,
+     * the segment is archived under the next free roll index.
+     *
+     * @param file the rolled segment
+     * @return a future completed with the path of the archive
+     */
+    public @NotNull CompletableFuture<Path> archive(@NotNull Path file) {
+        @NotNull CompletableFuture<Path> future = new CompletableFuture<>();
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(compress ? compress(file) : move(file));
+                    archivedFiles.increment();
+                } catch (@NotNull Throwable throwable) {
+                    failedFiles.increment();
+                    future.completeExceptionally(throwable);
+                }
+            });
+        } catch (@NotNull RuntimeException e) {
+            failedFiles.increment();
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Stops accepting new segments and waits for the pending ones to be archived.
+     *
+     * @throws IOException if interrupted while waiting for the pending segments
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Keeps waiting for the segments being archived
+            }
+        } catch (@NotNull InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting the log segments to be archived", e);
+        }
+    }
+
+    // Utilities
+
+    private @NotNull Path parent(@NotNull Path file) {
+        return directory != null ? directory.toAbsolutePath() : file.toAbsolutePath().getParent();
+    }
+
+    /**
+     * Reserves the archive of the segment by creating it empty, so an archive never replaces another one. When the
+     * name is taken, by the archives of a previous run whose roll indexes started over for instance, the roll index
+     * of the {@code <file>.<index>} name is increased until a free name is found.
+     */
+    private @NotNull Path reserve(@NotNull Path file, @NotNull String extension) throws IOException {
+        @NotNull Path parent = parent(file);
+        Files.createDirectories(parent);
+
+        @NotNull String name = file.getFileName().toString();
+        long index = 0;
+
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) try {
+            index = Long.parseLong(name.substring(dot + 1));
+            name = name.substring(0, dot);
+        } catch (@NotNull NumberFormatException ignore) {
+            // Not a rolled segment name, the indexes are appended
+        }
+
+        while (true) {
+            @NotNull Path target = parent.resolve((index > 0 ? name + "." + index : name) + extension);
+
+            try {
+                return Files.createFile(target);
+            } catch (@NotNull FileAlreadyExistsException ignore) {
+                index++;
+            }
+        }
+    }
+
+    private @NotNull Path compress(@NotNull Path file) throws IOException {
+        @NotNull Path target = reserve(file, ".gz");
+        @NotNull Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+        long start = System.nanoTime();
+        long size;
+
+        try {
+            try (@NotNull FileChannel input = FileChannel.open(file, StandardOpenOption.READ);
+                 @NotNull OutputStream stream = Files.newOutputStream(temporary);
+                 @NotNull WritableByteChannel gzip = Channels.newChannel(new GZIPOutputStream(stream, 64 * 1024))) {
+                size = input.size();
+                transfer(input, gzip);
+            }
+
+            compressionNanos.add(System.nanoTime() - start);
+            inputBytes.add(size);
+            outputBytes.add(Files.size(temporary));
+
+            // Only replaces the reservation
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (@NotNull IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            Files.deleteIfExists(target);
+
+            throw e;
+        }
+
+        Files.delete(file);
+        return target;
+    }
+
+    private @NotNull Path move(@NotNull Path file) throws IOException {
+        if (parent(file).equals(file.toAbsolutePath().getParent())) return file;
+        @NotNull Path target = reserve(file, "");
+
+        // Both the atomic move and the copy only replace the reservation
+        try {
+            return Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (@NotNull AtomicMoveNotSupportedException ignore) {
+            // Different file stores, copy the content
+        }
+
+        try {
+            try (@NotNull FileChannel input = FileChannel.open(file, StandardOpenOption.READ);
+                 @NotNull FileChannel output = FileChannel.open(target, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                transfer(input, output);
+                output.force(false);
+            }
+        } catch (@NotNull IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        Files.delete(file);
+        return target;
+    }
+
+    private static void transfer(@NotNull FileChannel input, @NotNull WritableByteChannel output) throws IOException {
+        long size = input.size();
+        long position = 0;
+
+        while (position < size) {
+            position += input.transferTo(position, size - position, output);
+        }
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "LogArchiver{" +
+                "directory=" + directory +
+                ", compress=" + compress +
+                ", threads=" + getThreads() +
+                '}';
+    }
+
+}
@@ -0,0 +1,375 @@
+package com.jlogm.output;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.UnknownNullability;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * An {@link OutputStream} that appends to a file through fixed-size memory-mapped regions.
+ *
+ * <p>Records are appended with plain memory copies into the current {@link MappedByteBuffer}. The region that
+ * follows the current one is always mapped ahead of time, so when the current region fills the stream only swaps
+ * buffers and maps the next region for later. Mapping a region past the end of the file grows the file, so the
+ * file is truncated back to the real written length when the stream is closed.</p>
+ *
+ * <p>{@link #flush()} is a no-op: bytes copied into a mapped region are already visible to other readers of the
+ * file through the page cache. Use {@link #force()} when the content must be durable on the storage device.</p>
+ *
+ * <p>The file can be rolled with {@link #roll()}, or automatically once it reaches the size configured with
+ * {@link #rollSize(long)}. The rolled segment is renamed to {@code <file>.<index>} and handed to the roll
+ * listener, which is typically a {@link LogArchiver} that compresses it in the background.</p>
+ *
+ * <p>Example:
+ * <pre>{@code
+ * Logger logger = Logger.create("app").output(new MappedFileOutputStream(Paths.get("app.log")));
+ * }</pre>
+ */
+public final class MappedFileOutputStream extends OutputStream {
+
+    // Static initializers
+
+    /**
+     * The default size of each mapped region, 8 MiB.
+     */
+    public static final int DEFAULT_REGION_SIZE = 8 * 1024 * 1024;
+
+    // Object
+
+    private final @NotNull Path path;
+    private final int regionSize;
+
+    private @UnknownNullability FileChannel channel;
+
+    // File offset where the current region starts
+    private long base;
+
+    private @Nullable MappedByteBuffer current;
+    private @Nullable MappedByteBuffer next;
+
+    // The last filled region that was not forced yet
+    private @Nullable MappedByteBuffer previous;
+
+    private long rollSize = Long.MAX_VALUE;
+    private @Nullable Consumer<Path> rollListener;
+    private int rollIndex = 1;
+    private long rolls = 0;
+
+    public MappedFileOutputStream(@NotNull Path path) throws IOException {
+        this(path, DEFAULT_REGION_SIZE);
+    }
+    public MappedFileOutputStream(@NotNull Path path, int regionSize) throws IOException {
+        if (regionSize <= 0) {
+            throw new IllegalArgumentException("the region size must be positive");
+        }
+
+        this.path = path;
+        this.regionSize = regionSize;
+
+        open();
+    }
+
+    // Getters
+
+    public @NotNull Path getPath() {
+        return path;
+    }
+
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * Sets the length at which the file is rolled automatically. A record is never split between two files,
+     * the file is rolled before the write that would make it exceed this length.
+     *
+     * @param rollSize the maximum length of the file, or {@link Long#MAX_VALUE} to disable automatic rolling
+     * @return this output for chaining
+     */
+    public synchronized @NotNull MappedFileOutputStream rollSize(long rollSize) {
+        if (rollSize <= 0) {
+            throw new IllegalArgumentException("the roll size must be positive");
+        }
+
+        this.rollSize = rollSize;
+        return this;
+    }
+    public synchronized long getRollSize() {
+        return rollSize;
+    }
+
+    /**
+     * Sets the listener that receives every rolled segment. The listener runs on the thread that rolled the file,
+     * which is usually a thread writing live logs, so it should only hand the segment off.
+     *
+     * @param rollListener the listener, or null to keep the rolled segments untouched
+     * @return this output for chaining
+     */
+    public synchronized @NotNull MappedFileOutputStream rollListener(@Nullable Consumer<Path> rollListener) {
+        this.rollListener = rollListener;
+        return this;
+    }
+    public synchronized @Nullable Consumer<Path> getRollListener() {
+        return rollListener;
+    }
+
+    /**
+     * @return the number of times this output was rolled
+     */
+    public synchronized long getRolls() {
+        return rolls;
+    }
+
+    /**
+     * Checks whether writing the given number of bytes would roll the file first. Encoders whose output depends
+     * on what was previously written into the same file may use this to roll explicitly before encoding.
+     *
+     * @param length the number of bytes about to be written
+     * @return true if the next write of that length will roll the file
+     */
+    public synchronized boolean isRollDue(int length) {
+        long position = getPosition();
+        return position > 0 && position + length > rollSize;
+    }
+
+    /**
+     * Returns the number of bytes in the file that hold written content, which is the length the file will
+     * be truncated to when this stream is closed.
+     *
+     * @return the logical length of the file
+     */
+    public synchronized long getPosition() {
+        return base + (current != null ? current.position() : 0);
+    }
+
+    // Modules
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        rollIfExceeds(1);
+        @NotNull MappedByteBuffer buffer = region();
+        if (!buffer.hasRemaining()) buffer = advance();
+
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public synchronized void write(byte @NotNull [] bytes, int offset, int length) throws IOException {
+        if ((offset | length) < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        rollIfExceeds(length);
+        @NotNull MappedByteBuffer buffer = region();
+
+        while (length > 0) {
+            if (!buffer.hasRemaining()) buffer = advance();
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Copies all the remaining bytes of the given buffer into the mapped regions.
+     *
+     * @param source the buffer to be written, its position is advanced to its limit
+     * @throws IOException if the next region cannot be mapped
+     */
+    public synchronized void write(@NotNull ByteBuffer source) throws IOException {
+        rollIfExceeds(source.remaining());
+        @NotNull MappedByteBuffer buffer = region();
+
+        while (source.hasRemaining()) {
+            if (!buffer.hasRemaining()) buffer = advance();
+
+            if (source.remaining() <= buffer.remaining()) {
+                buffer.put(source);
+            } else {
+                @NotNull ByteBuffer slice = source.duplicate();
+                slice.limit(slice.position() + buffer.remaining());
+
+                buffer.put(slice);
+                source.position(slice.position());
+            }
+        }
+    }
+
+    /**
+     * Does nothing, the bytes written into the mapped regions are already visible through the page cache.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Forces the content written since the last call to be written to the storage device, including the
+     * regions that were already filled and left behind.
+     *
+     * @throws IOException if this stream is already closed
+     */
+    public synchronized void force() throws IOException {
+        @NotNull MappedByteBuffer buffer = region();
+
+        if (previous != null) {
+            previous.force();
+            previous = null;
+        }
+
+        buffer.force();
+    }
+
+    /**
+     * Renames the current file to the next free {@code <file>.<index>} name and continues writing on a new empty
+     * file. The rolled segment is then passed to the roll listener, if any.
+     *
+     * <p>The new file is opened before the rolled one is released, so if the rename or the new mapping fails the
+     * stream keeps writing to the current file.</p>
+     *
+     * @return the path of the rolled segment
+     * @throws IOException if this stream is closed, or the file cannot be renamed or reopened
+     */
+    public synchronized @NotNull Path roll() throws IOException {
+        @NotNull MappedByteBuffer current = region();
+
+        @NotNull Path rolled;
+        do {
+            rolled = path.resolveSibling(path.getFileName() + "." + rollIndex++);
+        } while (Files.exists(rolled) || Files.exists(rolled.resolveSibling(rolled.getFileName() + ".gz")));
+
+        // The open channel and its mappings follow the renamed file
+        Files.move(path, rolled);
+
+        @NotNull FileChannel channel = this.channel;
+        long position = getPosition();
+        @Nullable MappedByteBuffer previous = this.previous;
+
+        try {
+            open();
+        } catch (IOException | RuntimeException e) {
+            // Moves the current file back, the state still refers to it
+            restore(rolled, e);
+            throw e;
+        }
+
+        rolls++;
+        release(channel, position, current, previous);
+
+        if (rollListener != null) {
+            rollListener.accept(rolled);
+        }
+
+        return rolled;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (current == null) return;
+
+        @NotNull FileChannel channel = this.channel;
+        long position = getPosition();
+        @NotNull MappedByteBuffer current = this.current;
+        @Nullable MappedByteBuffer previous = this.previous;
+
+        // The mappings are released by the garbage collector once unreachable
+        this.current = null;
+        this.next = null;
+        this.previous = null;
+
+        release(channel, position, current, previous);
+    }
+
+    // Utilities
+
+    private void open() throws IOException {
+        @NotNull FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            // Appends after the existing content
+            long base = channel.size();
+            @NotNull MappedByteBuffer current = map(channel, base);
+            @NotNull MappedByteBuffer next = map(channel, base + regionSize);
+
+            this.channel = channel;
+            this.base = base;
+            this.current = current;
+            this.next = next;
+            this.previous = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    private void restore(@NotNull Path rolled, @NotNull Exception cause) {
+        try {
+            Files.deleteIfExists(path);
+            Files.move(rolled, path);
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+    private static void release(@NotNull FileChannel channel, long position, @NotNull MappedByteBuffer current, @Nullable MappedByteBuffer previous) throws IOException {
+        try {
+            if (previous != null) previous.force();
+            current.force();
+
+            channel.truncate(position);
+        } finally {
+            channel.close();
+        }
+    }
+    private void rollIfExceeds(int length) throws IOException {
+        if (isRollDue(length)) {
+            roll();
+        }
+    }
+
+    private @NotNull MappedByteBuffer region() throws IOException {
+        if (current == null) {
+            throw new IOException("the mapped output of '" + path + "' is already closed");
+        }
+
+        return current;
+    }
+    private @NotNull MappedByteBuffer advance() throws IOException {
+        assert next != null;
+
+        // Only one filled region is kept for force(), the older one is written out before it is dropped
+        if (previous != null) previous.force();
+
+        @NotNull MappedByteBuffer following = map(channel, base + 2L * regionSize);
+
+        base += regionSize;
+        previous = current;
+        current = next;
+        next = following;
+
+        return current;
+    }
+    private @NotNull MappedByteBuffer map(@NotNull FileChannel channel, long position) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, regionSize);
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "MappedFileOutputStream{" +
+                "path=" + path +
+                ", regionSize=" + regionSize +
+                '}';
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.jlogm.output;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The locks serializing the writes of the registries into each output.
+ *
+ * <p>Outputs are locked with a {@link ReentrantLock} instead of their monitor: a virtual thread that blocks on I/O
+ * while holding a monitor stays pinned to its carrier thread, while one holding a {@link ReentrantLock} can unmount.
+ * Every logger writing into the same output shares the same lock, so records are never interleaved.</p>
+ *
+ * <p>The locks are kept as long as their output is reachable.</p>
+ */
+public final class OutputLocks {
+
+    // Static initializers
+
+    private static final @NotNull Map<OutputStream, ReentrantLock> locks = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param output the output
+     * @return the lock of the output, created on the first call
+     */
+    public static @NotNull ReentrantLock of(@NotNull OutputStream output) {
+        return locks.computeIfAbsent(output, key -> new ReentrantLock());
+    }
+
+    // Object
+
+    private OutputLocks() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
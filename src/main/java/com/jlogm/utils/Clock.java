@@ -0,0 +1,69 @@
+package com.jlogm.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+
+/**
+ * The source of the registry timestamps, as epoch milliseconds and epoch nanoseconds.
+ *
+ * <p>Three clocks are provided:
+ * <ul>
+ *   <li>{@link #system()} - {@link System#currentTimeMillis()}, the default.</li>
+ *   <li>{@link #coarse()} - a volatile read of a time updated every millisecond by a background daemon thread,
+ *   the cheapest one when logging heavily.</li>
+ *   <li>{@link #precise()} - {@link Instant#now()}, with microsecond or better resolution on Java 9+, to order
+ *   registries created in the same millisecond.</li>
+ * </ul>
+ *
+ * <p>The clock of the loggers is set on the logger factory:
+ * <pre>{@code
+ * LoggerFactory.getInstance().setClock(Clock.coarse());
+ * }</pre>
+ */
+@FunctionalInterface
+public interface Clock {
+
+    // Static initializers
+
+    /**
+     * @return the clock using {@link System#currentTimeMillis()}
+     */
+    static @NotNull Clock system() {
+        return Clocks.SYSTEM;
+    }
+
+    /**
+     * Returns the shared coarse clock, starting its ticker thread on the first call.
+     *
+     * @return the clock updated every millisecond by a background thread
+     */
+    static @NotNull Clock coarse() {
+        return CoarseClock.INSTANCE;
+    }
+
+    /**
+     * @return the clock using {@link Instant#now()}
+     */
+    static @NotNull Clock precise() {
+        return Clocks.PRECISE;
+    }
+
+    // Object
+
+    /**
+     * @return the current time, in milliseconds since the epoch
+     */
+    long millis();
+
+    /**
+     * Returns the current time in nanoseconds since the epoch, which fits a {@code long} until the year 2262.
+     * The default implementation has the resolution of {@link #millis()}.
+     *
+     * @return the current time, in nanoseconds since the epoch
+     */
+    default long nanos() {
+        return millis() * 1_000_000L;
+    }
+
+}
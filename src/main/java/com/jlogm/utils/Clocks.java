@@ -0,0 +1,48 @@
+package com.jlogm.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+
+/**
+ * The clocks without state.
+ */
+final class Clocks {
+
+    // Static initializers
+
+    static final @NotNull Clock SYSTEM = new Clock() {
+        @Override
+        public long millis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "Clock.system()";
+        }
+    };
+    static final @NotNull Clock PRECISE = new Clock() {
+        @Override
+        public long millis() {
+            return System.currentTimeMillis();
+        }
+        @Override
+        public long nanos() {
+            @NotNull Instant now = Instant.now();
+            return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "Clock.precise()";
+        }
+    };
+
+    // Object
+
+    private Clocks() {
+        throw new UnsupportedOperationException("this class cannot be instantiated");
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.jlogm.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A clock reading a volatile time, updated every millisecond by a daemon thread.
+ */
+final class CoarseClock implements Clock, Runnable {
+
+    // Static initializers
+
+    static final @NotNull CoarseClock INSTANCE = new CoarseClock();
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Object
+
+    private volatile long millis = System.currentTimeMillis();
+
+    private CoarseClock() {
+        @NotNull Thread thread = new Thread(this, "jlogm-clock");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Modules
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public void run() {
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            LockSupport.parkNanos(TICK);
+            millis = System.currentTimeMillis();
+        }
+    }
+
+    // Implementations
+
+    @Override
+    public @NotNull String toString() {
+        return "Clock.coarse()";
+    }
+
+}
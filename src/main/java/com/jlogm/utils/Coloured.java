@@ -3,9 +3,10 @@ package com.jlogm.utils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.awt.*;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The {@code Coloured} class provides a fluent API for constructing strings with ANSI escape sequences
@@ -32,8 +33,8 @@ import java.io.OutputStream;
  * Coloured styledText = Coloured.of("Hello, World!")
  *     .bold()
  *     .underlined()
- *     .color(new Color(255, 0, 0))       // Set text color to red
- *     .background(new Color(0, 0, 0));     // Set background color to black
+ *     .color(Rgb.of(255, 0, 0))       // Set text color to red
+ *     .background(Rgb.of(0, 0, 0));     // Set background color to black
  * System.out.println(styledText.print());
  * }</pre>
  *
@@ -45,6 +46,17 @@ public final class Coloured {
     // Static Factory Methods
     // =========================================================================
 
+    /**
+     * The ANSI escape sequence that resets all text attributes and colors.
+     */
+    public static final @NotNull String RESET = "\033[0m";
+
+    /**
+     * The rendered style prefixes, keyed by style flags and colours.
+     */
+    private static final @NotNull Map<Long, String> PREFIXES = new ConcurrentHashMap<>();
+    private static final int PREFIXES_LIMIT = 4096;
+
     /**
      * Removes all ANSI escape sequences from the given text.
      *
@@ -55,7 +67,61 @@ public final class Coloured {
      * @return a {@code String} with all ANSI escape sequences removed.
      */
     public static @NotNull String sanitize(@NotNull String text) {
-        return text.replaceAll("\u001B\\[[;\\d]*m", "");
+        int start = text.indexOf('\u001B');
+        int end = start >= 0 ? sequence(text, start) : -1;
+
+        // Returns the same instance when there's nothing to strip
+        while (start >= 0 && end < 0) {
+            start = text.indexOf('\u001B', start + 1);
+            end = start >= 0 ? sequence(text, start) : -1;
+        }
+
+        if (start < 0) {
+            return text;
+        }
+
+        @NotNull StringBuilder builder = new StringBuilder(text.length());
+        builder.append(text, 0, start);
+
+        for (int index = end + 1; index < text.length(); index++) {
+            char c = text.charAt(index);
+            end = c == '\u001B' ? sequence(text, index) : -1;
+
+            if (end >= 0) {
+                index = end;
+            } else {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Matches the ANSI SGR sequence ({@code ESC [ params m}, where params are digits and semicolons) starting
+     * at the given index of the text.
+     *
+     * @param text the text containing the sequence; must not be {@code null}.
+     * @param index the index of the escape character.
+     * @return the index of the final {@code m} of the sequence, or {@code -1} if no sequence starts at the index.
+     */
+    public static int sequence(@NotNull CharSequence text, int index) {
+        // States: expects ESC, then '[', then parameters until 'm'
+        if (index + 1 >= text.length() || text.charAt(index) != '\u001B' || text.charAt(index + 1) != '[') {
+            return -1;
+        }
+
+        for (int cursor = index + 2; cursor < text.length(); cursor++) {
+            char c = text.charAt(cursor);
+
+            if (c == 'm') {
+                return cursor;
+            } else if (c != ';' && (c < '0' || c > '9')) {
+                return -1;
+            }
+        }
+
+        return -1;
     }
 
     /**
@@ -128,20 +194,20 @@ public final class Coloured {
     /**
      * The background color to be applied to the text.
      *
-     * <p>If specified, this {@link Color} is used to generate an ANSI escape sequence for setting the background color
+     * <p>If specified, this {@link Rgb} is used to generate an ANSI escape sequence for setting the background color
      * using 24-bit true color (ESC[48;2;R;G;Bm). It may be {@code null} if no background color is desired.
      */
-    private @Nullable Color background;
+    private @Nullable Rgb background;
 
     /**
      * The foreground (text) color to be applied.
      *
-     * <p>If specified, this {@link Color} is used to generate an ANSI escape sequence for setting the text color
+     * <p>If specified, this {@link Rgb} is used to generate an ANSI escape sequence for setting the text color
      * using 24-bit true color (ESC[38;2;R;G;Bm). If {@code null} and a background color is provided with contrast
      * adjustment enabled, the class computes a suitable contrasting color (either black or white) based on the
      * background's luminance.
      */
-    private @Nullable Color color;
+    private @Nullable Rgb color;
 
     /**
      * Flag indicating whether automatic contrast adjustment is enabled.
@@ -227,33 +293,57 @@ public final class Coloured {
     /**
      * Sets the background color for the styled text.
      *
-     * <p>This method assigns the provided {@link Color} to be used as the background when generating the ANSI
+     * <p>This method assigns the provided {@link Rgb} to be used as the background when generating the ANSI
      * escape sequence for background colors (ESC[48;2;R;G;Bm). If a background color is provided and no foreground
      * color is explicitly set, the contrast adjustment feature may use the background to determine an optimal text color.
      *
-     * @param background the {@link Color} to use for the background; may be {@code null} to indicate no background color.
+     * @param background the {@link Rgb} to use for the background; may be {@code null} to indicate no background color.
      * @return the current {@code Coloured} instance with the specified background color.
      */
-    public @NotNull Coloured background(@Nullable Color background) {
+    public @NotNull Coloured background(@Nullable Rgb background) {
         this.background = background;
         return this;
     }
 
+    /**
+     * Sets the background color for the styled text from an AWT color.
+     *
+     * @param background the AWT color to use for the background; may be {@code null} to indicate no background color.
+     * @return the current {@code Coloured} instance with the specified background color.
+     * @deprecated use {@link #background(Rgb)}, AWT colors are only kept for compatibility.
+     */
+    @Deprecated
+    public @NotNull Coloured background(@Nullable java.awt.Color background) {
+        return background(background != null ? Rgb.of(background) : null);
+    }
+
     /**
      * Sets the foreground (text) color for the styled text.
      *
-     * <p>This method assigns the provided {@link Color} to be used as the text color when generating the ANSI
+     * <p>This method assigns the provided {@link Rgb} to be used as the text color when generating the ANSI
      * escape sequence for foreground colors (ESC[38;2;R;G;Bm). If set to {@code null} and a background color is provided
      * with contrast adjustment enabled, the text color may be automatically determined based on the background's luminance.
      *
-     * @param foreground the {@link Color} to use for the text; may be {@code null} to enable automatic contrast adjustment.
+     * @param foreground the {@link Rgb} to use for the text; may be {@code null} to enable automatic contrast adjustment.
      * @return the current {@code Coloured} instance with the specified text color.
      */
-    public @NotNull Coloured color(@Nullable Color foreground) {
+    public @NotNull Coloured color(@Nullable Rgb foreground) {
         this.color = foreground;
         return this;
     }
 
+    /**
+     * Sets the foreground (text) color for the styled text from an AWT color.
+     *
+     * @param foreground the AWT color to use for the text; may be {@code null} to enable automatic contrast adjustment.
+     * @return the current {@code Coloured} instance with the specified text color.
+     * @deprecated use {@link #color(Rgb)}, AWT colors are only kept for compatibility.
+     */
+    @Deprecated
+    public @NotNull Coloured color(@Nullable java.awt.Color foreground) {
+        return color(foreground != null ? Rgb.of(foreground) : null);
+    }
+
     /**
      * Configures whether automatic contrast adjustment is enabled.
      *
@@ -287,13 +377,42 @@ public final class Coloured {
      *   <li>A reset code (ESC[0m) at the end to clear all applied styles.</li>
      * </ul>
      *
-     * <p><strong>Note:</strong> The method applies the foreground color escape sequence twice if a color is determined;
-     * this may be intentional for ensuring proper state in some terminal emulators, although it appears redundant.
+     * <p>The escape sequences of a style are rendered once per distinct combination of style flags and colours,
+     * and shared by every {@code Coloured} instance afterward.
      *
      * @return a {@link String} containing the styled text with embedded ANSI escape codes.
      */
     public @NotNull String print() {
-        // Variables: StringBuilder for accumulating ANSI sequences and text.
+        // Determine the foreground (text) color from the background luminance if not set.
+        if (color == null && background != null && adjustContrast) {
+            color = background.getLuminance() > 0.5 ? Rgb.BLACK : Rgb.WHITE;
+        }
+
+        @NotNull String prefix = prefix();
+
+        if (prefix.isEmpty()) {
+            return String.valueOf(object);
+        }
+
+        // Styled content followed by the reset code.
+        return prefix + object + RESET;
+    }
+
+    /**
+     * Returns the escape sequences enabling the styles and colours of this instance, from the shared cache.
+     */
+    private @NotNull String prefix() {
+        int flags = (underlined ? 1 : 0) | (bold ? 2 : 0) | (italic ? 4 : 0) | (strikethrough ? 8 : 0);
+        if (flags == 0 && color == null && background == null) return "";
+
+        // Flags, presence bits and 24-bit colours packed in a single key
+        long key = ((long) flags << 50)
+                | (color != null ? (1L << 49) | ((long) color.getRGB() << 25) : 0)
+                | (background != null ? (1L << 24) | background.getRGB() : 0);
+
+        @Nullable String prefix = PREFIXES.get(key);
+        if (prefix != null) return prefix;
+
         @NotNull StringBuilder builder = new StringBuilder();
 
         // Apply text formatting styles based on flags.
@@ -302,36 +421,21 @@ public final class Coloured {
         if (italic) builder.append("\033[3m");           // Enable italic text.
         if (strikethrough) builder.append("\033[9m");    // Enable strikethrough.
 
-        // Determine and apply the foreground (text) color.
-        if (color != null) {
-            // Append ANSI escape code for foreground color using 24-bit RGB values.
-            builder.append("\033[38;2;").append(color.getRed()).append(";").append(color.getGreen()).append(";").append(color.getBlue()).append("m");
-        } else if (background != null && adjustContrast) {
-            // Calculate the luminance of the background color.
-            double luminance = (0.299 * background.getRed() + 0.587 * background.getGreen() + 0.114 * background.getBlue()) / 255;
-            // Choose black or white for the text color based on luminance.
-            color = luminance > 0.5 ? Color.BLACK : Color.WHITE;
-        }
-
-        // Apply the foreground (text) color again if it has been determined.
+        // Append ANSI escape codes for foreground and background colors using 24-bit RGB values.
         if (color != null) {
-            builder.append("\033[38;2;").append(color.getRed()).append(";").append(color.getGreen()).append(";").append(color.getBlue()).append("m");
-        }
-        // Apply the background color if specified.
-        if (background != null) {
-            builder.append("\033[48;2;").append(background.getRed()).append(";").append(background.getGreen()).append(";").append(background.getBlue()).append("m");
+            builder.append(color.getAnsiForeground());
+        } if (background != null) {
+            builder.append(background.getAnsiBackground());
         }
 
-        // Append the main content (object's string representation).
-        builder.append(object);
+        prefix = builder.toString();
 
-        // Reset all styles to default.
-        if (background != null || color != null || underlined || bold || italic || strikethrough) {
-            builder.append("\033[0m");
+        // The cache is bounded, styles seen after it's full are rendered every time
+        if (PREFIXES.size() < PREFIXES_LIMIT) {
+            PREFIXES.put(key, prefix);
         }
 
-        // Return the fully constructed styled string.
-        return builder.toString();
+        return prefix;
     }
 
     /**
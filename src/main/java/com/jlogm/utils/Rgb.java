@@ -0,0 +1,145 @@
+package com.jlogm.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable 24-bit RGB color, packed into a single {@code int} as {@code 0xRRGGBB}.
+ *
+ * <p>This is the color type of jlogm, used by markers, themes and {@link Coloured}. Unlike {@code java.awt.Color}
+ * it doesn't load any AWT class, and it keeps its ANSI true color escape sequences once rendered.</p>
+ *
+ * <p>Example:
+ * <pre>{@code
+ * Rgb orange = Rgb.of(0xFF9100);
+ * Rgb grey = Rgb.of(65, 65, 65);
+ * }</pre>
+ */
+public final class Rgb {
+
+    // Static initializers
+
+    public static final @NotNull Rgb BLACK = new Rgb(0x000000);
+    public static final @NotNull Rgb WHITE = new Rgb(0xFFFFFF);
+
+    /**
+     * @param rgb the packed color, as {@code 0xRRGGBB}; the alpha bits are ignored
+     * @return the color
+     */
+    public static @NotNull Rgb of(int rgb) {
+        return new Rgb(rgb & 0xFFFFFF);
+    }
+
+    /**
+     * @param red the red component, from 0 to 255
+     * @param green the green component, from 0 to 255
+     * @param blue the blue component, from 0 to 255
+     * @return the color
+     * @throws IllegalArgumentException if any component is out of range
+     */
+    public static @NotNull Rgb of(int red, int green, int blue) {
+        if ((red | green | blue) < 0 || red > 255 || green > 255 || blue > 255) {
+            throw new IllegalArgumentException("the color components must be between 0 and 255");
+        }
+
+        return new Rgb((red << 16) | (green << 8) | blue);
+    }
+
+    /**
+     * Converts an AWT color, ignoring its alpha.
+     *
+     * @param color the AWT color
+     * @return the equivalent color
+     * @deprecated use {@link #of(int)} or {@link #of(int, int, int)}, AWT colors are only kept for compatibility
+     */
+    @Deprecated
+    public static @NotNull Rgb of(@NotNull java.awt.Color color) {
+        return of(color.getRGB());
+    }
+
+    // Object
+
+    private final int value;
+
+    private @Nullable String foreground;
+    private @Nullable String background;
+
+    private Rgb(int value) {
+        this.value = value;
+    }
+
+    // Getters
+
+    /**
+     * @return the packed color, as {@code 0xRRGGBB}
+     */
+    public int getRGB() {
+        return value;
+    }
+
+    public int getRed() {
+        return (value >> 16) & 0xFF;
+    }
+    public int getGreen() {
+        return (value >> 8) & 0xFF;
+    }
+    public int getBlue() {
+        return value & 0xFF;
+    }
+
+    /**
+     * @return the relative luminance of the color, from 0 (black) to 1 (white)
+     */
+    public double getLuminance() {
+        return (0.299 * getRed() + 0.587 * getGreen() + 0.114 * getBlue()) / 255;
+    }
+
+    /**
+     * @return the ANSI escape sequence setting this color as the text color ({@code ESC[38;2;R;G;Bm})
+     */
+    public @NotNull String getAnsiForeground() {
+        // Racy but idempotent, every thread renders the same string
+        @Nullable String foreground = this.foreground;
+        if (foreground == null) this.foreground = foreground = "\033[38;2;" + getRed() + ";" + getGreen() + ";" + getBlue() + "m";
+
+        return foreground;
+    }
+
+    /**
+     * @return the ANSI escape sequence setting this color as the background color ({@code ESC[48;2;R;G;Bm})
+     */
+    public @NotNull String getAnsiBackground() {
+        @Nullable String background = this.background;
+        if (background == null) this.background = background = "\033[48;2;" + getRed() + ";" + getGreen() + ";" + getBlue() + "m";
+
+        return background;
+    }
+
+    /**
+     * @return the equivalent AWT color
+     * @deprecated AWT colors are only kept for compatibility, calling this method loads the AWT classes
+     */
+    @Deprecated
+    public @NotNull java.awt.Color toColor() {
+        return new java.awt.Color(value);
+    }
+
+    // Implementations
+
+    @Override
+    public boolean equals(@Nullable Object object) {
+        if (this == object) return true;
+        if (!(object instanceof Rgb)) return false;
+        return value == ((Rgb) object).value;
+    }
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return String.format("#%06X", value);
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.jlogm;
+
+import com.jlogm.factory.LoggerFactory;
+import com.jlogm.utils.Clock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link Clock} implementations and the primitive registry timestamps.
+ */
+public class ClockTest {
+
+    @Test
+    public void testRegistryUsesFactoryClock() {
+        LoggerFactory factory = LoggerFactory.getInstance();
+        Clock previous = factory.getClock();
+
+        try {
+            factory.setClock(() -> 1_700_000_000_123L);
+            Registry.Builder builder = Logger.create("test").registry(Level.INFO);
+
+            assertEquals(1_700_000_000_123L, builder.getEpochMillis());
+            assertEquals(Instant.ofEpochMilli(1_700_000_000_123L), builder.getInstant());
+        } finally {
+            factory.setClock(previous);
+        }
+    }
+
+    @Test
+    public void testInstantRoundTrip() {
+        Registry.Builder builder = Logger.create("test").registry(Level.INFO);
+        Instant instant = Instant.ofEpochSecond(1_700_000_000L, 123_456_789);
+        builder.instant(instant);
+
+        assertEquals(instant, builder.getInstant());
+        assertEquals(1_700_000_000_123_456_789L, builder.getEpochNanos());
+        assertEquals(1_700_000_000_123L, builder.getEpochMillis());
+    }
+
+    @Test
+    public void testClocksAdvance() throws InterruptedException {
+        long coarse = Clock.coarse().millis();
+        Thread.sleep(20);
+
+        assertTrue(Clock.coarse().millis() > coarse);
+        assertTrue(Math.abs(Clock.system().millis() - System.currentTimeMillis()) < 1000);
+        assertTrue(Clock.precise().nanos() / 1_000_000L >= Clock.system().millis() - 1000);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.jlogm;
+
+import com.jlogm.context.LogCtx;
+import com.jlogm.context.Stack;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Logs from many short-lived tasks at once, on virtual threads when the runtime has them.
+ */
+public class ConcurrentLoggingTest {
+
+    private static final int TASKS = 100_000;
+
+    @Test
+    public void testRecordsAreNotInterleaved() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(bytes, false, "UTF-8");
+        Logger logger = Logger.create("test").output(output).prefix(null);
+
+        LogCtx.put("request", "r1");
+        Stack.push("outer");
+
+        ExecutorService executor = executor();
+        try {
+            List<Future<?>> futures = new ArrayList<>(TASKS);
+            for (int index = 0; index < TASKS; index++) {
+                int number = index;
+                futures.add(executor.submit(Stack.wrap(LogCtx.wrap(() -> {
+                    assertEquals("r1", LogCtx.get("request"));
+                    assertEquals("outer", Stack.peek());
+
+                    logger.info().log("task " + number);
+                }))));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            LogCtx.removeThreadContext();
+            Stack.removeThreadContext();
+            executor.shutdownNow();
+        }
+
+        String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(TASKS, lines.length);
+
+        for (String line : lines) {
+            assertTrue(line.matches(".*INFO.*task \\d+"), line);
+        }
+    }
+
+    private static ExecutorService executor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(64);
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.jlogm;
+
+import com.jlogm.formatter.DefaultFormatter;
+import com.jlogm.formatter.JsonFormatter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-registry structured {@link Fields}.
+ */
+public class FieldsTest {
+
+    @Test
+    public void testTypedStorage() {
+        Fields fields = new Fields.Builder()
+                .put("count", 3L)
+                .put("ratio", 0.5)
+                .put("ok", true)
+                .put("user", "alice")
+                .put("boxed", (Object) 7)
+                .put("count", 4L)
+                .build();
+
+        assertEquals(5, fields.size());
+        assertEquals(4L, fields.getLong(0));
+        assertEquals(0.5, fields.getDouble(1));
+        assertTrue(fields.getBoolean(2));
+        assertEquals("alice", fields.getObject(3));
+        assertEquals(Fields.Type.LONG, fields.getType(fields.indexOf("boxed")));
+        assertThrows(IllegalArgumentException.class, () -> fields.getLong(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> fields.getKey(5));
+    }
+
+    @Test
+    public void testFormatters() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = Logger.create("test").output(new PrintStream(output)).formatter(new JsonFormatter());
+
+        Registry registry = logger.info().kv("count", 3).kv("ratio", 1.0).kv("ok", false).kv("nan", Double.NaN).kv("user", "a\"b").log("done");
+        String json = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        String fields = "\"fields\":{\"count\":3,\"ratio\":1.0,\"ok\":false,\"nan\":\"NaN\",\"user\":\"a\\\"b\"}";
+
+        assertTrue(json.contains(fields), json);
+        assertTrue(registry.toJson().contains(fields), registry.toJson());
+
+        String text = new DefaultFormatter(DefaultFormatter.ColorMode.NEVER).format(registry);
+        assertTrue(text.endsWith("done count=3 ratio=1.0 ok=false nan=NaN user=a\"b\n"), text);
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.jlogm;
+
+import com.jlogm.context.LogCtx;
+import com.jlogm.context.Stack;
+import com.jlogm.formatter.JsonFormatter;
+import com.jlogm.formatter.JsonFormatter.Field;
+import com.jlogm.utils.Coloured;
+import com.jlogm.utils.Rgb;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link JsonUtils} escaping, the context fragments and {@link Coloured#sanitize(String)}.
+ */
+public class JsonUtilsTest {
+
+    @Test
+    public void testPlainStringIsReturnedUnchanged() {
+        String plain = "nothing to escape here, not even é or 😀";
+
+        assertSame(plain, JsonUtils.escapeJson(plain));
+        assertSame(plain, Coloured.sanitize(plain));
+    }
+
+    @Test
+    public void testEscapes() {
+        assertEquals("a\\\"b\\\\c\\nd\\te\\r\\b\\f", JsonUtils.escapeJson("a\"b\\c\nd\te\r\b\f"));
+        assertEquals("\\u0001\\u001f", JsonUtils.escapeJson("\u0001\u001F"));
+    }
+
+    @Test
+    public void testAnsiSequencesAreStripped() {
+        String coloured = Coloured.of("red").color(Rgb.of(255, 0, 0)).bold().print();
+
+        assertEquals("red", Coloured.sanitize(coloured));
+        assertEquals("x red \\\"y\\\"", JsonUtils.escapeJson("x " + coloured + " \"y\""));
+    }
+
+    @Test
+    public void testIncompleteSequencesAreKept() {
+        assertEquals("\u001B[31", Coloured.sanitize("\u001B[31"));
+        assertEquals("\u001Bx ok", Coloured.sanitize("\u001Bx \u001B[0mok"));
+        assertEquals("\\u001b[31", JsonUtils.escapeJson("\u001B[31"));
+    }
+
+    @Test
+    public void testEscapeIntoBuilder() {
+        StringBuilder builder = new StringBuilder("{");
+        JsonUtils.escapeJson("\u001B[1mk\"", builder);
+
+        assertEquals("{k\\\"", builder.toString());
+    }
+
+    @Test
+    public void testContextFragmentsFollowTheContext() {
+        JsonFormatter formatter = new JsonFormatter(EnumSet.of(Field.CONTEXT, Field.STACK), false);
+        Logger logger = Logger.create("test").output(new PrintStream(new ByteArrayOutputStream())).formatter(formatter);
+
+        try (LogCtx.Scope ignored = LogCtx.with("request", "r\"1"); Stack.Scope scope = Stack.pushScope("outer")) {
+            Registry first = logger.info().log("first");
+            Registry second = logger.info().log("second");
+
+            assertSame(first.getContext(), second.getContext());
+            assertEquals("{\"context\":{\"request\":\"r\\\"1\"},\"stack\":[\"outer\"]}", formatter.format(first));
+            assertEquals(formatter.format(first), formatter.format(second));
+            assertTrue(second.toJson().contains("\"context\":{\"request\":\"r\\\"1\"},\"stack\":[\"outer\"],"));
+
+            LogCtx.put("user", 7);
+            Stack.push("inner");
+            Registry third = logger.info().log("third");
+
+            assertEquals("{\"context\":{\"request\":\"r\\\"1\",\"user\":\"7\"},\"stack\":[\"outer\",\"inner\"]}", formatter.format(third));
+            assertTrue(third.toJson().contains("\"stack\":[\"outer\",\"inner\"],"));
+
+            Stack.pop();
+            LogCtx.remove("user");
+        }
+    }
+
+    @Test
+    public void testMutableContextValuesAreRenderedAgain() {
+        JsonFormatter formatter = new JsonFormatter(EnumSet.of(Field.CONTEXT), false);
+        Logger logger = Logger.create("test").output(new PrintStream(new ByteArrayOutputStream())).formatter(formatter);
+        AtomicLong count = new AtomicLong(1);
+
+        assertTrue(LogCtx.isImmutable(Collections.singletonMap("value", 1L)));
+        assertFalse(LogCtx.isImmutable(Collections.singletonMap("value", count)));
+
+        try (LogCtx.Scope ignored = LogCtx.with("count", count)) {
+            Registry first = logger.info().log("first");
+            assertEquals("{\"context\":{\"count\":\"1\"}}", formatter.format(first));
+            assertTrue(first.toJson().contains("\"context\":{\"count\":\"1\"}"));
+
+            count.set(2);
+            Registry second = logger.info().log("second");
+
+            assertSame(first.getContext(), second.getContext());
+            assertEquals("{\"context\":{\"count\":\"2\"}}", formatter.format(second));
+            assertTrue(second.toJson().contains("\"context\":{\"count\":\"2\"}"));
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.jlogm;
+
+import com.jlogm.formatter.JsonFormatter;
+import com.jlogm.utils.Rgb;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link Level} table and custom levels.
+ */
+public class LevelTest {
+
+    @Test
+    public void testStandardLevels() {
+        assertArrayEquals(new Level[] { Level.TRACE, Level.INFO, Level.SEVERE, Level.WARN, Level.DEBUG }, Arrays.copyOf(Level.values(), 5));
+
+        for (Level level : Level.values()) {
+            assertSame(level, Level.of(level.ordinal()));
+            assertSame(level, Level.valueOf(level.name()));
+        }
+
+        assertSame(Level.SEVERE, Level.of(org.slf4j.event.Level.ERROR));
+        assertSame(Level.DEBUG, Level.of(org.slf4j.event.Level.DEBUG));
+        assertTrue(Level.SEVERE.getSeverity() > Level.WARN.getSeverity());
+    }
+
+    @Test
+    public void testLookupIgnoresCase() {
+        assertSame(Level.WARN, Level.get("warn"));
+        assertSame(Level.WARN, Logger.create("test").registry(Level.valueOf("Warn")).getLevel());
+        assertNull(Level.get("missing"));
+        assertThrows(IllegalArgumentException.class, () -> Level.valueOf("missing"));
+    }
+
+    @Test
+    public void testCustomLevel() {
+        Level audit = Level.register("audit", 350, Rgb.of(0, 120, 255), org.slf4j.event.Level.INFO);
+
+        assertEquals("AUDIT", audit.getName());
+        assertSame(audit, Level.get("Audit"));
+        assertSame(audit, Level.of(audit.ordinal()));
+        assertTrue(audit.getAnsiLabel().contains("AUDIT"));
+        assertThrows(IllegalArgumentException.class, () -> Level.register("AUDIT", 1, null, org.slf4j.event.Level.INFO));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger.create("test").output(new PrintStream(output)).formatter(new JsonFormatter()).registry(audit).log("checked");
+
+        assertTrue(new String(output.toByteArray(), StandardCharsets.UTF_8).startsWith("{\"level\":\"AUDIT\","));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        assertSame(Level.WARN, copy(Level.WARN));
+
+        Level detached = Level.detached("serialized-foreign", 250, null, org.slf4j.event.Level.DEBUG);
+        Level copy = copy(detached);
+
+        assertFalse(copy.isRegistered());
+        assertEquals("SERIALIZED-FOREIGN", copy.getName());
+        assertNull(Level.get("serialized-foreign"));
+    }
+
+    private static Level copy(Level level) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(level);
+        }
+
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Level) input.readObject();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.jlogm;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LogSite}.
+ */
+public class LogSiteTest {
+
+    private static final LogSite SITE = LogSite.create();
+
+    @Test
+    public void testOrigin() {
+        assertEquals(LogSiteTest.class.getName(), SITE.getOrigin().getClassName());
+        assertEquals("LogSiteTest:17", SITE.getSource());
+
+        Registry registry = logger(new ByteArrayOutputStream()).registry(SITE, Level.INFO).log("message");
+        assertSame(SITE.getOrigin(), registry.getOrigin());
+        assertFalse(registry.isSuppressed());
+    }
+
+    @Test
+    public void testSampling() {
+        LogSite site = SITE.sample(3);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = logger(output);
+
+        int written = 0;
+        for (int index = 0; index < 9; index++) {
+            if (!logger.registry(site, Level.INFO).log("sampled " + index).isSuppressed()) written++;
+        }
+
+        assertEquals(3, written);
+        assertTrue(new String(output.toByteArray(), StandardCharsets.UTF_8).contains("sampled 3"));
+        assertFalse(new String(output.toByteArray(), StandardCharsets.UTF_8).contains("sampled 1"));
+    }
+
+    @Test
+    public void testRateLimit() {
+        LogSite site = SITE.limit(Duration.ofHours(1));
+        Logger logger = logger(new ByteArrayOutputStream());
+
+        assertFalse(logger.registry(site, Level.INFO).log("first").isSuppressed());
+        assertTrue(logger.registry(site, Level.INFO).log("second").isSuppressed());
+
+        assertTrue(site.allows(System.currentTimeMillis() * 1_000_000L + Duration.ofHours(2).toNanos()));
+    }
+
+    @Test
+    public void testDisabled() {
+        LogSite site = SITE.sample(1);
+        site.setEnabled(false);
+
+        int[] calls = new int[1];
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Registry registry = logger(output).registry(site, Level.INFO).log(() -> "computed " + ++calls[0]);
+
+        assertTrue(registry.isSuppressed());
+        assertEquals(0, calls[0]);
+        assertEquals(0, output.size());
+        assertThrows(IllegalArgumentException.class, () -> site.sample(0));
+    }
+
+    private static Logger logger(ByteArrayOutputStream output) {
+        return Logger.create("test").output(new PrintStream(output));
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.jlogm;
+
+import com.jlogm.context.LogCtx;
+import com.jlogm.factory.LoggerFactory;
+import com.jlogm.formatter.JsonFormatter;
+import com.jlogm.formatter.JsonFormatter.Field;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the capture of the registry fields, see {@link Requirements}.
+ */
+public class RequirementsTest {
+
+    @Test
+    public void testUnusedFieldsAreNotCaptured() {
+        JsonFormatter formatter = new JsonFormatter(EnumSet.of(Field.LEVEL, Field.OBJECT), true);
+        assertEquals(Requirements.NONE, formatter.getRequirements());
+
+        try (LogCtx.Scope ignored = LogCtx.with("request", "abc")) {
+            Registry registry = logger().formatter(formatter).info().log("message");
+
+            assertNull(registry.getOrigin());
+            assertTrue(registry.getContext().isEmpty());
+        }
+    }
+
+    @Test
+    public void testUsedFieldsAreCaptured() {
+        JsonFormatter formatter = new JsonFormatter(EnumSet.of(Field.ORIGIN, Field.CONTEXT), true);
+        assertEquals(Requirements.ORIGIN | Requirements.CONTEXT, formatter.getRequirements());
+
+        try (LogCtx.Scope ignored = LogCtx.with("request", "abc")) {
+            Registry registry = logger().formatter(formatter).info().log("message");
+
+            assertNotNull(registry.getOrigin());
+            assertEquals("abc", registry.getContext().get("request"));
+        }
+    }
+
+    @Test
+    public void testFilterRequirements() {
+        JsonFormatter formatter = new JsonFormatter(EnumSet.of(Field.OBJECT), true);
+        Filter filter = (builder, object) -> false;
+
+        LoggerFactory.getInstance().getFilters().add(filter);
+        try {
+            assertNotNull(logger().formatter(formatter).info().log("message").getOrigin());
+        } finally {
+            LoggerFactory.getInstance().getFilters().remove(filter);
+        }
+
+        assertNull(logger().formatter(formatter).info().log("message").getOrigin());
+    }
+
+    private static Logger logger() {
+        return Logger.create("test").output(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.jlogm;
+
+import com.jlogm.Registry.Retention;
+import com.jlogm.factory.LoggerFactory;
+import com.jlogm.formatter.Formatter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the memoized forms of the registries, see {@link Retention}.
+ */
+public class RetentionTest {
+
+    private final AtomicInteger formats = new AtomicInteger();
+
+    @AfterEach
+    public void restore() {
+        LoggerFactory.getInstance().setRetention(Retention.SOFT);
+    }
+
+    @Test
+    public void testStrongRetention() {
+        LoggerFactory.getInstance().setRetention(Retention.STRONG);
+        Registry registry = log();
+
+        assertEquals("registry 1", registry.toString());
+        assertSame(registry.toString(), registry.toString());
+        assertSame(registry.toJson(), registry.toJson());
+        assertArrayEquals("registry 1".getBytes(StandardCharsets.UTF_8), registry.toBytes());
+        assertEquals(1, formats.get());
+    }
+
+    @Test
+    public void testBytesRetention() {
+        LoggerFactory.getInstance().setRetention(Retention.BYTES);
+        Registry registry = log();
+
+        assertEquals("registry 1", registry.toString());
+        assertEquals("registry 1", registry.toString());
+        assertSame(registry.toBytes(), registry.toBytes());
+        assertEquals(1, formats.get());
+    }
+
+    @Test
+    public void testNoRetention() {
+        LoggerFactory.getInstance().setRetention(Retention.NONE);
+        Registry registry = log();
+
+        assertEquals("registry 1", registry.toString());
+        assertEquals("registry 2", registry.toString());
+        assertEquals(2, formats.get());
+    }
+
+    private Registry log() {
+        Formatter formatter = registry -> "registry " + formats.incrementAndGet();
+        Registry registry = Logger.create("test").output(new PrintStream(new ByteArrayOutputStream())).formatter(formatter).info().log("message");
+
+        // Writing the registry formats it once, before any memoization
+        formats.set(0);
+        return registry;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.jlogm.binary;
+
+import com.jlogm.Logger;
+import com.jlogm.Registry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BinaryFormatter}.
+ */
+public class BinaryFormatterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testDictionary() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = Logger.create("binary").output(output).formatter(new BinaryFormatter());
+
+        logger.info("repeated message");
+        int first = output.size();
+
+        logger.info("repeated message");
+        int second = output.size() - first;
+
+        // The level, the origin parts and the other strings are only referenced the second time
+        assertTrue(second < first / 2, first + " then " + second);
+    }
+
+    @Test
+    public void testFormatRendersText() {
+        BinaryFormatter formatter = new BinaryFormatter();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        Registry registry = Logger.create("binary").output(output).formatter(formatter).info().log("text");
+        assertTrue(formatter.format(registry).contains("text"));
+    }
+
+    @Test
+    public void testNestedLog() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = Logger.create("binary").output(output).formatter(new BinaryFormatter());
+
+        Object noisy = new Object() {
+            @Override
+            public String toString() {
+                logger.warn("inner");
+                return "outer";
+            }
+        };
+
+        logger.info().log(noisy);
+        logger.info("after");
+
+        Path file = directory.resolve("nested.jlog");
+        Files.write(file, output.toByteArray());
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            List<Object> objects = reader.stream().map(Registry::getObject).collect(Collectors.toList());
+            assertEquals(Arrays.asList("inner", "outer", "after"), objects);
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+package com.jlogm.binary;
+
+import com.jlogm.Fields;
+import com.jlogm.Level;
+import com.jlogm.Logger;
+import com.jlogm.Registry;
+import com.jlogm.context.LogCtx;
+import com.jlogm.context.Stack;
+import com.jlogm.message.ParameterizedMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip tests for {@link BinaryFormatter} and {@link BinaryLogReader}.
+ */
+public class BinaryLogReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void tearDown() {
+        LogCtx.removeThreadContext();
+        Stack.removeThreadContext();
+    }
+
+    private static Logger logger(OutputStream output) {
+        return Logger.create("binary").output(output).formatter(new BinaryFormatter()).marker("db");
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = logger(output);
+
+        LogCtx.put("requestId", "r1");
+        Stack.push("ServiceA");
+
+        logger.info("first");
+        logger.warn("second é😀");
+        logger.severe().cause(new IllegalStateException("boom", new RuntimeException("root"))).log("third");
+
+        Path file = directory.resolve("roundtrip.jlog");
+        Files.write(file, output.toByteArray());
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            List<Registry> registries = reader.stream().collect(Collectors.toList());
+            assertEquals(3, registries.size());
+
+            Registry first = registries.get(0);
+            assertEquals(Level.INFO, first.getLevel());
+            assertEquals("first", first.getObject());
+            assertEquals("r1", first.getContext().get("requestId"));
+            assertTrue(first.getStack().contains("ServiceA"));
+            assertEquals("db", first.getMarkers()[0].getName());
+            assertNotNull(first.getOrigin());
+            assertFalse(first.getOrigin().getMethodName().isEmpty());
+
+            assertEquals("second é😀", registries.get(1).getObject());
+
+            Throwable cause = registries.get(2).getCause();
+            assertInstanceOf(RecordedThrowable.class, cause);
+            assertEquals(IllegalStateException.class.getName(), ((RecordedThrowable) cause).getType());
+            assertEquals("boom", cause.getMessage());
+            assertEquals("root", cause.getCause().getMessage());
+            assertTrue(cause.getStackTrace().length > 0);
+        }
+    }
+
+    @Test
+    public void testTemplateRoundTrip() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = logger(output);
+
+        logger.info("user {} took {} ms", "alice", 12L);
+        logger.info("user {} took {} ms", "bob", new int[] { 1, 2 });
+
+        Path file = directory.resolve("template.jlog");
+        Files.write(file, output.toByteArray());
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            List<Registry> registries = reader.stream().collect(Collectors.toList());
+
+            ParameterizedMessage first = (ParameterizedMessage) registries.get(0).getObject();
+            assertEquals("user {} took {} ms", first.getTemplate());
+            assertEquals("user alice took 12 ms", first.toString());
+            assertEquals("user bob took [1, 2] ms", registries.get(1).getObject().toString());
+        }
+    }
+
+    @Test
+    public void testFieldsRoundTrip() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        logger(output).info().kv("count", -3L).kv("ratio", 2.5).kv("ok", true).kv("user", "bob").kv("none", (Object) null).log("fields");
+
+        Path file = directory.resolve("fields.jlog");
+        Files.write(file, output.toByteArray());
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            Fields fields = reader.stream().findFirst().orElseThrow(AssertionError::new).getFields();
+
+            assertEquals(5, fields.size());
+            assertEquals(-3L, fields.getLong(0));
+            assertEquals(2.5, fields.getDouble(1));
+            assertTrue(fields.getBoolean(2));
+            assertEquals("bob", fields.getObject(3));
+            assertNull(fields.getObject(4));
+        }
+    }
+
+    @Test
+    public void testLevelAndTimeFilters() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = logger(output);
+
+        logger.registry(Level.INFO).instant(Instant.ofEpochMilli(1_000)).log("old");
+        logger.registry(Level.WARN).instant(Instant.ofEpochMilli(2_000)).log("warn");
+        logger.registry(Level.INFO).instant(Instant.ofEpochMilli(3_000)).log("new");
+
+        Path file = directory.resolve("filters.jlog");
+        Files.write(file, output.toByteArray());
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            assertEquals(Arrays.asList("old", "new"), reader.levels(Level.INFO).stream().map(Registry::getObject).collect(Collectors.toList()));
+            assertEquals(Arrays.asList("new"), reader.from(Instant.ofEpochMilli(2_500)).stream().map(Registry::getObject).collect(Collectors.toList()));
+            assertEquals(Arrays.asList("warn"), reader.levels().from(Instant.ofEpochMilli(1_500)).to(Instant.ofEpochMilli(3_000)).stream().map(Registry::getObject).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testUnknownLevelsAreDetached() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Level audit = Level.detached("binary-audit", 450, null, org.slf4j.event.Level.INFO);
+        logger(output).registry(audit).log("audited");
+
+        Path file = directory.resolve("levels.jlog");
+        Files.write(file, output.toByteArray());
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            Level level = reader.stream().findFirst().orElseThrow(AssertionError::new).getLevel();
+
+            assertEquals("BINARY-AUDIT", level.name());
+            assertFalse(level.isRegistered());
+        }
+
+        // Reading a foreign file never registers its levels
+        assertNull(Level.get("binary-audit"));
+        assertFalse(Arrays.asList(Level.values()).contains(audit));
+    }
+
+    @Test
+    public void testTruncatedAndDamagedFramesAreSkipped() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = logger(output);
+
+        // Anchors at the first record and after every interval of relative ones
+        int count = 2 * Frames.ANCHOR_INTERVAL;
+        int anchor = Frames.ANCHOR_INTERVAL + 1;
+
+        for (int index = 0; index < count; index++) {
+            logger.info("message " + index);
+        }
+
+        byte[] bytes = output.toByteArray();
+
+        // Damages a byte in the first quarter of the file and cuts the last frame in half
+        bytes[bytes.length / 4] ^= 0x5A;
+        bytes = Arrays.copyOf(bytes, bytes.length - 10);
+
+        Path file = directory.resolve("damaged.jlog");
+        Files.write(file, bytes);
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            List<Object> objects = reader.stream().map(Registry::getObject).collect(Collectors.toList());
+
+            // The records up to the damage, then the ones from the next anchor on
+            int head = objects.indexOf("message " + anchor);
+            assertTrue(head > 0 && head < anchor, "unexpected records " + objects);
+
+            for (int index = 0; index < objects.size(); index++) {
+                int expected = index < head ? index : anchor + index - head;
+                assertEquals("message " + expected, objects.get(index));
+            }
+
+            assertFalse(objects.contains("message " + (count - 1)));
+        }
+    }
+
+    @Test
+    public void testRecordsAfterADamagedAnchorAreSkipped() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = logger(output);
+
+        for (int index = 0; index <= Frames.ANCHOR_INTERVAL; index++) {
+            logger.registry(Level.INFO).instant(Instant.ofEpochMilli(1_000)).log("before");
+        }
+
+        // Damages the payload of the next anchor record
+        logger.registry(Level.INFO).instant(Instant.ofEpochMilli(100_000)).log("anchor");
+        byte[] bytes = output.toByteArray();
+        bytes[bytes.length - 6] ^= 0x5A;
+
+        output.reset();
+        logger.registry(Level.INFO).instant(Instant.ofEpochMilli(100_001)).log("after");
+
+        Path file = directory.resolve("anchor.jlog");
+        Files.write(file, bytes);
+        Files.write(file, output.toByteArray(), StandardOpenOption.APPEND);
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            List<Registry> registries = reader.stream().collect(Collectors.toList());
+
+            // Relative to the lost anchor, the last record would be read at 1001 instead of 100001
+            assertEquals(Frames.ANCHOR_INTERVAL + 1, registries.size());
+            assertTrue(registries.stream().allMatch(registry -> registry.getObject().equals("before") && registry.getEpochMillis() == 1_000));
+        }
+    }
+
+    @Test
+    public void testFramesWithImpossibleLengthsAreSkipped() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CRC32 crc = new CRC32();
+
+        FrameBuffer payload = new FrameBuffer(64);
+        FrameBuffer frames = new FrameBuffer(256);
+
+        // A marker count far beyond the frame
+        payload.writeVarint(Frames.FLAG_ANCHOR | Frames.FLAG_MARKERS);
+        payload.writeVarint(1_000);
+        payload.writeString("INFO");
+        payload.writeString(null);
+        payload.writeString(null);
+        payload.writeVarint(Integer.MAX_VALUE);
+        frames.writeFrame(Frames.RECORD, payload, crc);
+
+        // A string far longer than the frame
+        payload.reset();
+        payload.writeVarint(Frames.FLAG_ANCHOR | Frames.FLAG_OBJECT);
+        payload.writeVarint(1_000);
+        payload.writeString("INFO");
+        payload.writeString(null);
+        payload.writeString(null);
+        payload.writeVarint(Long.MIN_VALUE);
+        frames.writeFrame(Frames.RECORD, payload, crc);
+
+        // A dictionary id far beyond the dictionary
+        payload.reset();
+        payload.writeVarint(Integer.MAX_VALUE);
+        payload.writeString("huge");
+        frames.writeFrame(Frames.DEFINE, payload, crc);
+
+        frames.writeTo(output);
+        logger(output).info("valid");
+
+        Path file = directory.resolve("lengths.jlog");
+        Files.write(file, output.toByteArray());
+
+        try (BinaryLogReader reader = new BinaryLogReader(file)) {
+            assertEquals(Arrays.asList("valid"), reader.stream().map(Registry::getObject).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testRenderedThroughReaderFormatter() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        logger(output).info("rendered");
+
+        Path file = directory.resolve("render.jlog");
+        Files.write(file, output.toByteArray());
+
+        try (BinaryLogReader reader = new BinaryLogReader(file).formatter(Registry::toJson)) {
+            String json = reader.stream().findFirst().orElseThrow(AssertionError::new).toString();
+            assertTrue(json.contains("\"object\":\"rendered\""), json);
+        }
+    }
+
+}
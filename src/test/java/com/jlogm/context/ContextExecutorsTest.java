@@ -0,0 +1,133 @@
+package com.jlogm.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ContextSnapshot} and {@link ContextExecutors}.
+ */
+public class ContextExecutorsTest {
+
+    @AfterEach
+    public void tearDown() {
+        LogCtx.removeThreadContext();
+        Stack.removeThreadContext();
+    }
+
+    @Test
+    public void testSnapshotIsShared() {
+        LogCtx.put("requestId", "r1");
+        Stack.push("service");
+
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        assertSame(LogCtx.snapshot(), snapshot.getContext());
+        assertEquals(Collections.singletonList("service"), snapshot.getStack());
+
+        LogCtx.clear().put("other", 1);
+        Stack.clear();
+
+        ContextSnapshot previous = snapshot.attach();
+        try {
+            assertSame(snapshot.getContext(), LogCtx.snapshot());
+            assertEquals("service", Stack.peek());
+        } finally {
+            previous.attach();
+        }
+
+        assertEquals(1, LogCtx.get("other"));
+        assertNull(LogCtx.get("requestId"));
+        assertTrue(Stack.isEmpty());
+
+        LogCtx.clear();
+        assertSame(ContextSnapshot.empty(), ContextSnapshot.capture());
+    }
+
+    @Test
+    public void testExecutorService() throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        ExecutorService executor = ContextExecutors.wrap(worker);
+
+        try {
+            // The worker context is replaced while the tasks run, then restored
+            worker.submit(() -> LogCtx.put("worker", true)).get();
+
+            LogCtx.put("requestId", "r1");
+            Stack.push("handler");
+            Map<String, Object> context = LogCtx.snapshot();
+
+            assertSame(context, executor.submit(LogCtx::snapshot).get());
+            assertEquals("handler", executor.submit(Stack::peek).get());
+
+            List<Future<Object>> futures = executor.invokeAll(Arrays.asList(() -> LogCtx.get("requestId"), () -> LogCtx.get("worker")));
+            assertEquals("r1", futures.get(0).get());
+            assertNull(futures.get(1).get());
+
+            assertEquals(true, worker.submit(() -> LogCtx.get("worker")).get());
+            assertNull(worker.submit(Stack::peek).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScheduledExecutorService() throws Exception {
+        ScheduledExecutorService executor = ContextExecutors.wrap(Executors.newSingleThreadScheduledExecutor());
+
+        try {
+            LogCtx.put("requestId", "r2");
+            assertEquals("r2", executor.schedule(() -> LogCtx.get("requestId"), 1, TimeUnit.MILLISECONDS).get());
+            assertSame(executor, ContextExecutors.wrap(executor));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testForkJoinTask() {
+        LogCtx.put("requestId", "r3");
+
+        Object value = ForkJoinPool.commonPool().invoke(ContextExecutors.wrap(new RecursiveTask<Object>() {
+            @Override
+            protected Object compute() {
+                return LogCtx.get("requestId");
+            }
+        }));
+
+        assertEquals("r3", value);
+    }
+
+    @Test
+    public void testCompletableFuture() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            LogCtx.put("requestId", "r4");
+            Stack.push("async");
+            ContextSnapshot snapshot = ContextSnapshot.capture();
+
+            CompletableFuture<String> future = ContextExecutors.supplyAsync(() -> (String) LogCtx.get("requestId"), executor)
+                    .thenApplyAsync(snapshot.wrapFunction(id -> id + ":" + Stack.peek()), executor)
+                    .thenCombineAsync(CompletableFuture.completedFuture("!"), snapshot.wrapFunction((value, suffix) -> value + LogCtx.get("requestId") + suffix), executor);
+
+            assertEquals("r4:asyncr4!", future.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.jlogm.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ContextKey} and the typed values of the {@link LogCtx}.
+ */
+public class ContextKeyTest {
+
+    private static final ContextKey<String> USER = ContextKey.of("test.user", String.class);
+    private static final ContextKey.OfLong REQUEST = ContextKey.ofLong("test.request");
+    private static final ContextKey.OfInt ATTEMPT = ContextKey.ofInt("test.attempt");
+
+    @AfterEach
+    public void tearDown() {
+        LogCtx.removeThreadContext();
+    }
+
+    @Test
+    public void testDeclaration() {
+        assertSame(USER, ContextKey.of("test.user", String.class));
+        assertSame(REQUEST, ContextKey.ofLong("test.request"));
+        assertSame(ATTEMPT, ContextKey.get("test.attempt"));
+
+        assertTrue(REQUEST.isPrimitive());
+        assertFalse(USER.isPrimitive());
+
+        assertThrows(IllegalArgumentException.class, () -> ContextKey.of("test.user", Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> ContextKey.ofInt("test.request"));
+        assertThrows(IllegalArgumentException.class, () -> ContextKey.of("test.request", Long.class));
+        assertThrows(IllegalArgumentException.class, () -> ContextKey.of("test.primitive", long.class));
+        assertNull(ContextKey.get("test.primitive"));
+    }
+
+    @Test
+    public void testValues() {
+        assertNull(LogCtx.get(USER));
+        assertEquals(-1, LogCtx.getLong(REQUEST, -1));
+        assertFalse(LogCtx.containsKey(ATTEMPT));
+
+        LogCtx.put(USER, "alice").put(REQUEST, 42L).put(ATTEMPT, 3);
+
+        assertEquals("alice", LogCtx.get(USER));
+        assertEquals(42L, LogCtx.getLong(REQUEST, -1));
+        assertEquals(Long.valueOf(42), LogCtx.get(REQUEST));
+        assertEquals(3, LogCtx.getInt(ATTEMPT, 0));
+        assertTrue(LogCtx.containsKey(ATTEMPT));
+
+        LogCtx.remove(REQUEST).put(USER, null);
+        assertFalse(LogCtx.containsKey(REQUEST));
+        assertNull(LogCtx.get(USER));
+        assertEquals(3, LogCtx.getInt(ATTEMPT, 0));
+
+        LogCtx.clear();
+        assertFalse(LogCtx.containsKey(ATTEMPT));
+    }
+
+    @Test
+    public void testSnapshot() {
+        LogCtx.put("route", "/users").put(REQUEST, 7L).put(USER, "bob");
+
+        Map<String, Object> snapshot = LogCtx.snapshot();
+        assertSame(snapshot, LogCtx.snapshot());
+        assertEquals("{route=/users, test.user=bob, test.request=7}", snapshot.toString());
+        assertEquals("bob", LogCtx.get("test.user"));
+        assertEquals(3, LogCtx.size());
+
+        LogCtx.put(REQUEST, 8L);
+        assertNotSame(snapshot, LogCtx.snapshot());
+        assertEquals(7L, snapshot.get("test.request"));
+        assertEquals(8L, LogCtx.snapshot().get("test.request"));
+    }
+
+    @Test
+    public void testPropagation() throws Exception {
+        LogCtx.put(REQUEST, 1L).put("route", "/orders");
+
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        Runnable wrapped = LogCtx.wrap(() -> assertEquals(1L, LogCtx.getLong(REQUEST, -1)));
+        Callable<Object> called = LogCtx.wrap(() -> LogCtx.get(USER));
+
+        LogCtx.clear().put(USER, "carol");
+
+        wrapped.run();
+        assertEquals("carol", called.call());
+        assertEquals(-1, LogCtx.getLong(REQUEST, -1));
+
+        snapshot.run(() -> {
+            assertEquals(1L, LogCtx.getLong(REQUEST, -1));
+            assertNull(LogCtx.get(USER));
+        });
+        assertEquals("carol", LogCtx.get(USER));
+        assertEquals(1L, snapshot.getContext().get("test.request"));
+    }
+
+}
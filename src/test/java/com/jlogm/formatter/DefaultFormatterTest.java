@@ -0,0 +1,184 @@
+package com.jlogm.formatter;
+
+import com.jlogm.Level;
+import com.jlogm.Logger;
+import com.jlogm.Registry;
+import com.jlogm.impl.SimpleMarker;
+import com.jlogm.utils.Coloured;
+import com.jlogm.utils.Rgb;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DefaultFormatter}.
+ */
+public class DefaultFormatterTest {
+
+    @Test
+    public void testColorModes() {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+
+        assertTrue(DefaultFormatter.ColorMode.ALWAYS.isColored(file));
+        assertTrue(DefaultFormatter.ColorMode.ALWAYS.isColored(System.out));
+        assertFalse(DefaultFormatter.ColorMode.NEVER.isColored(System.out));
+        assertFalse(DefaultFormatter.ColorMode.AUTO.isColored(file));
+        assertEquals(System.console() != null, DefaultFormatter.ColorMode.AUTO.isColored(System.err));
+        assertSame(DefaultFormatter.ColorMode.AUTO, new DefaultFormatter().getColorMode());
+    }
+
+    @Test
+    public void testColorModeOutput() throws IOException {
+        assertTrue(written(DefaultFormatter.ColorMode.ALWAYS).contains("\u001B["));
+        assertFalse(written(DefaultFormatter.ColorMode.NEVER).contains("\u001B["));
+        assertFalse(written(DefaultFormatter.ColorMode.AUTO).contains("\u001B["));
+
+        // The output isn't known when formatting, only NEVER leaves the colors out
+        Registry registry = Logger.create("test").output(new ByteArrayOutputStream()).info().marker("db").log("error at http://example.com");
+        assertTrue(new DefaultFormatter(DefaultFormatter.ColorMode.AUTO).format(registry).contains("\u001B["));
+        assertFalse(new DefaultFormatter(DefaultFormatter.ColorMode.NEVER).format(registry).contains("\u001B["));
+    }
+
+    @Test
+    public void testAutoColorsTheTerminalThroughTheBuffer() {
+        PrintStream previous = System.out;
+        boolean terminal = DefaultFormatter.ColorMode.terminal;
+
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+
+        try {
+            DefaultFormatter.ColorMode.terminal = true;
+            System.setOut(new PrintStream(console, true));
+
+            // The loggers encode into a buffer, the colors must follow the stream it's copied into
+            DefaultFormatter formatter = new DefaultFormatter(DefaultFormatter.ColorMode.AUTO);
+            Logger.create("test").output(System.out).formatter(formatter).info("to the terminal");
+            Logger.create("test").output(file).formatter(formatter).info("to a file");
+        } finally {
+            System.setOut(previous);
+            DefaultFormatter.ColorMode.terminal = terminal;
+        }
+
+        assertTrue(new String(console.toByteArray(), StandardCharsets.UTF_8).contains("\u001B["));
+        assertFalse(new String(file.toByteArray(), StandardCharsets.UTF_8).contains("\u001B["));
+    }
+
+    private static String written(DefaultFormatter.ColorMode mode) throws IOException {
+        DefaultFormatter formatter = new DefaultFormatter(mode);
+        Registry registry = Logger.create("test").output(new ByteArrayOutputStream()).formatter(formatter).info().marker("db").log("error at http://example.com");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        formatter.write(registry, output);
+
+        String written = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        String plain = Coloured.sanitize(written);
+        assertTrue(plain.contains("INFO") && plain.contains(" db ") && plain.contains("error at http://example.com"), plain);
+
+        return written;
+    }
+
+    @Test
+    public void testSharedInstances() {
+        assertSame(DefaultFormatter.getInstance(), DefaultFormatter.getInstance());
+        assertSame(DefaultFormatter.getInstance(), Logger.create("first").getFormatter());
+        assertSame(Logger.create("first").getFormatter(), Logger.create("second").getFormatter());
+
+        assertSame(Theme.getDefault(), DefaultFormatter.getInstance().getTheme());
+        assertSame(Theme.getDefault(), new DefaultFormatter(DefaultFormatter.ColorMode.NEVER).getTheme());
+        assertSame(Theme.getDefault().getBinds(), new DefaultFormatter().getBinds());
+        assertThrows(UnsupportedOperationException.class, () -> DefaultFormatter.getInstance().getBinds().put("word", Rgb.of(0, 0, 0)));
+    }
+
+    @Test
+    public void testCustomTheme() {
+        Theme theme = Theme.getDefault().toBuilder().bind("Custom", Rgb.of(1, 2, 3)).level("info", null).separator("> ", null).build();
+
+        assertEquals(Rgb.of(1, 2, 3), theme.getBind("custom"));
+        assertNull(Theme.getDefault().getBind("custom"));
+        assertNull(theme.getColor(Level.INFO));
+        assertEquals(Level.WARN.getColor(), theme.getColor(Level.WARN));
+        assertEquals(Theme.getDefault().getBinds().size() + 1, theme.getBinds().size());
+
+        Registry registry = Logger.create("test").output(new ByteArrayOutputStream()).info().log("themed");
+        String formatted = new DefaultFormatter(theme, DefaultFormatter.ColorMode.ALWAYS).format(registry);
+
+        assertTrue(formatted.contains(" INFO "), formatted);
+        assertTrue(Coloured.sanitize(formatted).startsWith("> "), formatted);
+    }
+
+    @Test
+    public void testMarkersOfEachRegistry() {
+        DefaultFormatter formatter = new DefaultFormatter(DefaultFormatter.ColorMode.NEVER);
+        Logger logger = Logger.create("test").output(new ByteArrayOutputStream()).formatter(formatter);
+
+        // Each registry carries its own markers array
+        Registry first = logger.info().marker("db").marker("slow").log("first");
+        Registry second = logger.info().marker("db").marker("slow").log("second");
+        Registry other = logger.info().marker("db").log("other");
+
+        assertNotSame(first.getMarkers(), second.getMarkers());
+        assertTrue(formatter.format(first).contains(" db slow "), formatter.format(first));
+        assertTrue(formatter.format(second).contains(" db slow "));
+        assertTrue(formatter.format(other).contains(" db "));
+        assertFalse(formatter.format(other).contains("slow"));
+
+        // The cache keeps its own copy of the arrays
+        Marker[] markers = first.getMarkers();
+        markers[1] = new SimpleMarker("fast");
+        assertTrue(formatter.format(second).contains(" db slow "));
+    }
+
+    @Test
+    public void testMarkersWithTheSameName() {
+        DefaultFormatter formatter = new DefaultFormatter(DefaultFormatter.ColorMode.ALWAYS);
+        SimpleMarker red = new SimpleMarker("db", Rgb.of(255, 0, 0));
+        SimpleMarker blue = new SimpleMarker("db", Rgb.of(0, 0, 255));
+
+        Registry first = Logger.create("a").output(new ByteArrayOutputStream()).formatter(formatter).markers(red).info().log("first");
+        Registry second = Logger.create("b").output(new ByteArrayOutputStream()).formatter(formatter).markers(blue).info().log("second");
+
+        assertTrue(formatter.format(first).contains(red.toString()));
+        assertTrue(formatter.format(second).contains(blue.toString()));
+        assertFalse(formatter.format(second).contains(red.toString()));
+    }
+
+    @Test
+    public void testChildrenAddedAfterwards() {
+        DefaultFormatter formatter = new DefaultFormatter(DefaultFormatter.ColorMode.NEVER);
+        SimpleMarker parent = new SimpleMarker("db");
+        Logger logger = Logger.create("test").output(new ByteArrayOutputStream()).formatter(formatter).markers(parent);
+
+        assertTrue(formatter.format(logger.info().log("before")).contains(" db  "));
+
+        parent.add(new SimpleMarker("replica"));
+        assertTrue(formatter.format(logger.info().log("after")).contains(" db replica "));
+
+        parent.remove(new SimpleMarker("replica"));
+        assertFalse(formatter.format(logger.info().log("removed")).contains("replica"));
+    }
+
+    @Test
+    public void testBoundedCache() {
+        DefaultFormatter.Cache<Integer, String> cache = new DefaultFormatter.Cache<>(4);
+
+        for (int index = 0; index < 10; index++) {
+            cache.put(index, Integer.toString(index));
+            assertTrue(cache.size() <= 4);
+        }
+
+        assertEquals("9", cache.get(9));
+        assertNull(cache.get(0));
+
+        StackTraceElement origin = new StackTraceElement("com.example.Outer$Inner", "run", "Outer.java", 42);
+        assertEquals("Outer:42", DefaultFormatter.source(origin));
+        assertSame(DefaultFormatter.source(origin), DefaultFormatter.source(new StackTraceElement("com.example.Outer$Inner", "run", "Outer.java", 42)));
+    }
+
+}
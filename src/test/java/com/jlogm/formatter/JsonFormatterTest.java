@@ -0,0 +1,52 @@
+package com.jlogm.formatter;
+
+import com.jlogm.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link JsonFormatter}.
+ */
+public class JsonFormatterTest {
+
+    @Test
+    public void testSelectedFields() {
+        JsonFormatter formatter = new JsonFormatter(EnumSet.of(JsonFormatter.Field.LEVEL, JsonFormatter.Field.OBJECT), false);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        Logger.create("json").output(output).formatter(formatter).info().kv("ignored", 1L).log("line\n\"quoted\" é");
+        assertEquals("{\"level\":\"INFO\",\"object\":\"line\\n\\\"quoted\\\" é\"}", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNestedLog() {
+        JsonFormatter formatter = new JsonFormatter(EnumSet.of(JsonFormatter.Field.OBJECT), true);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = Logger.create("json").output(output).formatter(formatter);
+
+        Object noisy = new Object() {
+            @Override
+            public String toString() {
+                logger.warn("inner");
+                return "outer";
+            }
+        };
+
+        // The outer registry is written and then formatted again, both render the object and log the inner one
+        assertEquals("{\"object\":\"outer\"}\n", formatter.format(logger.info().log(noisy)));
+        assertEquals("{\"object\":\"inner\"}\n{\"object\":\"outer\"}\n{\"object\":\"inner\"}\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+
+        // Through another formatter sharing the thread's encoder
+        JsonFormatter other = new JsonFormatter(EnumSet.of(JsonFormatter.Field.LEVEL, JsonFormatter.Field.OBJECT), false);
+        assertEquals("{\"level\":\"SEVERE\",\"object\":\"outer\"}", other.format(logger.severe().log(noisy)));
+
+        // The thread's encoder is usable again afterwards
+        assertEquals("{\"object\":\"after\"}\n", formatter.format(logger.info().log("after")));
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.jlogm.impl;
+
+import com.jlogm.Logger;
+import com.jlogm.Registry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link LoggerImpl} configuration snapshots.
+ */
+public class LoggerImplTest {
+
+    @Test
+    public void testBuildersKeepTheirSnapshot() {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        Logger logger = Logger.create("test").output(first).formatter(registry -> registry.getObject() + "\n").marker("db");
+
+        Registry.Builder builder = logger.info();
+        logger.output(second).marker("cache");
+
+        builder.log("before");
+        logger.info("after");
+
+        assertEquals("before\n", new String(first.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals("after\n", new String(second.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(1, builder.getMarkers().length);
+        assertEquals(2, logger.getMarkers().length);
+    }
+
+    @Test
+    public void testGettersReturnCopies() {
+        Logger logger = Logger.create("test").marker("db");
+
+        Marker[] markers = logger.getMarkers();
+        markers[0] = new SimpleMarker("changed");
+
+        assertEquals("db", logger.getMarkers()[0].getName());
+        assertNotSame(logger.getMarkers(), logger.getMarkers());
+    }
+
+    @Test
+    public void testConcurrentChangesAreKept() throws InterruptedException {
+        Logger logger = Logger.create("test");
+        List<Thread> threads = new ArrayList<>();
+
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread * 100;
+
+            threads.add(new Thread(() -> {
+                for (int index = 0; index < 100; index++) {
+                    logger.marker("marker-" + (offset + index));
+                }
+            }));
+        }
+
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(400, logger.getMarkers().length);
+    }
+
+    @Test
+    public void testEqualityIgnoresTheOrder() {
+        Logger first = Logger.create("test").marker("db").marker("cache");
+        Logger second = Logger.create("test").marker("cache").marker("db");
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, Logger.create("test").marker("db"));
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.jlogm.message;
+
+import com.jlogm.Filter;
+import com.jlogm.Logger;
+import com.jlogm.Registry;
+import com.jlogm.factory.LoggerFactory;
+import com.jlogm.fluent.Every;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LazyMessage} and the supplier overloads.
+ */
+public class LazyMessageTest {
+
+    @Test
+    public void testSupplierIsNotEvaluatedWhenSuppressed() {
+        AtomicInteger calls = new AtomicInteger();
+        Filter filter = (builder, object) -> true;
+        LoggerFactory.getInstance().getFilters().add(filter);
+
+        try {
+            Registry registry = Logger.create("test").debug().log(() -> "dump " + calls.incrementAndGet());
+
+            assertEquals(0, calls.get());
+            assertInstanceOf(LazyMessage.class, registry.getObject());
+            assertFalse(((LazyMessage) registry.getObject()).isEvaluated());
+        } finally {
+            LoggerFactory.getInstance().getFilters().remove(filter);
+        }
+    }
+
+    @Test
+    public void testSupplierIsEvaluatedOnceWhenWritten() {
+        AtomicInteger calls = new AtomicInteger();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = Logger.create("test").output(new PrintStream(output));
+
+        logger.debug(() -> "dump " + calls.incrementAndGet());
+        Registry registry = logger.info().log(() -> calls.incrementAndGet());
+
+        assertEquals(2, calls.get());
+        assertEquals(2, registry.getObject());
+        assertTrue(new String(output.toByteArray(), StandardCharsets.UTF_8).contains("dump 1"));
+    }
+
+    @Test
+    public void testFailingSupplier() {
+        LazyMessage message = LazyMessage.of(() -> {
+            throw new IllegalStateException("broken");
+        });
+
+        assertEquals("[FAILED message supplier: java.lang.IllegalStateException: broken]", message.toString());
+        assertTrue(message.isEvaluated());
+    }
+
+    @Test
+    public void testEveryWithSupplier() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger logger = Logger.create("test").output(new PrintStream(output));
+
+        LoggerFactory.getInstance().setRegistries(new ListRegistries());
+
+        try {
+            for (int index = 0; index < 5; index++) {
+                logger.info().every(Every.period(Duration.ofHours(1))).log(() -> "same " + calls.incrementAndGet());
+            }
+        } finally {
+            LoggerFactory.getInstance().setRegistries(null);
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, new String(output.toByteArray(), StandardCharsets.UTF_8).split("same", -1).length - 1);
+    }
+
+    private static final class ListRegistries implements LoggerFactory.Registries {
+
+        private final @NotNull List<Registry> registries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean add(@NotNull Registry registry) {
+            return registries.add(registry);
+        }
+        @Override
+        public boolean remove(@NotNull Registry registry) {
+            return registries.remove(registry);
+        }
+        @Override
+        public boolean contains(@NotNull Registry registry) {
+            return registries.contains(registry);
+        }
+        @Override
+        public @NotNull Stream<Registry> stream() {
+            return registries.stream();
+        }
+        @Override
+        public @NotNull Iterator<Registry> iterator() {
+            return registries.iterator();
+        }
+        @Override
+        public void flush() {
+            registries.clear();
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.jlogm.message;
+
+import com.jlogm.Filter;
+import com.jlogm.Logger;
+import com.jlogm.Registry;
+import com.jlogm.factory.LoggerFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ParameterizedMessage} and the template overloads.
+ */
+public class ParameterizedMessageTest {
+
+    @Test
+    public void testFormatting() {
+        assertEquals("a 1 b 2.5 c", ParameterizedMessage.of("a {} b {} c", 1, 2.5).toString());
+        assertEquals("value 42", ParameterizedMessage.of("value {}", 42L).toString());
+        assertEquals("missing {} null", ParameterizedMessage.of("missing \\{} {}", (Object) null).toString());
+        assertEquals("path C:\\ x", ParameterizedMessage.of("path C:\\\\{}", " x").toString());
+        assertEquals("extra {} {}", ParameterizedMessage.of("extra {} {}", new Object[0]).toString());
+        assertEquals("[1, 2] [a, [b]]", ParameterizedMessage.of("{} {}", new int[] { 1, 2 }, new Object[] { "a", new String[] { "b" } }).toString());
+    }
+
+    @Test
+    public void testCapture() {
+        List<String> items = new ArrayList<>(Collections.singletonList("a"));
+        StringBuilder name = new StringBuilder("x");
+
+        ParameterizedMessage message = ParameterizedMessage.of("{} {} {}", items, name, 1).capture();
+        items.add("b");
+        name.append("y");
+
+        assertEquals("[a] x 1", message.toString());
+        assertSame(message, message.capture());
+
+        ParameterizedMessage plain = ParameterizedMessage.of("{}", "immutable");
+        assertSame(plain, plain.capture());
+        assertEquals(Capture.REFERENCE, Capture.of(String.class));
+        assertEquals(Capture.SNAPSHOT, Capture.of(int[].class));
+    }
+
+    @Test
+    public void testTrailingThrowable() {
+        IllegalStateException exception = new IllegalStateException("boom");
+
+        ParameterizedMessage message = ParameterizedMessage.of("failed {}", "task", exception);
+        assertSame(exception, message.getThrowable());
+        assertEquals(1, message.getArgumentCount());
+        assertEquals("failed task", message.toString());
+
+        assertNull(ParameterizedMessage.of("failed {}", exception).getThrowable());
+
+        Registry registry = Logger.create("test").output(new PrintStream(new ByteArrayOutputStream())).severe().log("failed {}", "task", exception);
+        assertSame(exception, registry.getCause());
+    }
+
+    @Test
+    public void testFormattingIsDeferred() {
+        AtomicInteger calls = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                return "called " + calls.incrementAndGet();
+            }
+        };
+
+        Filter filter = (builder, object) -> true;
+        LoggerFactory.getInstance().getFilters().add(filter);
+
+        try {
+            Logger.create("test").info("suppressed {}", argument);
+            assertEquals(0, calls.get());
+        } finally {
+            LoggerFactory.getInstance().getFilters().remove(filter);
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Logger.create("test").output(new PrintStream(output)).info("written {}", argument);
+
+        assertEquals(1, calls.get());
+        assertTrue(new String(output.toByteArray(), StandardCharsets.UTF_8).contains("written called 1"));
+    }
+
+    @Test
+    public void testEqualityDoesNotFormat() {
+        AtomicInteger renders = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                return "rendered " + renders.incrementAndGet();
+            }
+        };
+
+        ParameterizedMessage first = ParameterizedMessage.of("value {} of {}", argument, new int[] { 1, 2 });
+        ParameterizedMessage second = ParameterizedMessage.of("value {} of {}", argument, new int[] { 1, 2 });
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, ParameterizedMessage.of("value {} of {}", new Object(), new int[] { 1, 2 }));
+        assertNotEquals(first, ParameterizedMessage.of("other {} of {}", argument, new int[] { 1, 2 }));
+        assertEquals(ParameterizedMessage.of("count {}", 3L), ParameterizedMessage.of("count {}", (Object) 3L));
+        assertEquals(0, renders.get());
+    }
+
+}
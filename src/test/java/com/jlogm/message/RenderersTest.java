@@ -0,0 +1,98 @@
+package com.jlogm.message;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link Renderers} and {@link Renderer.Output}.
+ */
+public class RenderersTest {
+
+    @Test
+    public void testBuiltInRenderers() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", 1);
+        map.put("b", new int[] { 2, 3 });
+
+        assertEquals("0x00ff7f", Renderers.render(new byte[] { 0, (byte) 0xFF, 0x7F }));
+        assertEquals("[1.5, 2.0]", Renderers.render(new double[] { 1.5, 2 }));
+        assertEquals("[a, [b, c]]", Renderers.render(new Object[] { "a", new String[] { "b", "c" } }));
+        assertEquals("[x, null]", Renderers.render(Arrays.asList("x", null)));
+        assertEquals("{a=1, b=[2, 3]}", Renderers.render(map));
+        assertEquals("null", Renderers.render(null));
+
+        Object[] cycle = new Object[1];
+        cycle[0] = cycle;
+        assertEquals("[[...]]", Renderers.render(cycle));
+    }
+
+    @Test
+    public void testTruncationStopsIterating() {
+        AtomicInteger visited = new AtomicInteger();
+        List<Integer> large = new ArrayList<Integer>(Collections.nCopies(100_000, 7)) {
+            @Override
+            public Iterator<Integer> iterator() {
+                Iterator<Integer> iterator = super.iterator();
+                return new Iterator<Integer>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+                    @Override
+                    public Integer next() {
+                        visited.incrementAndGet();
+                        return iterator.next();
+                    }
+                };
+            }
+        };
+
+        StringBuilder builder = new StringBuilder("list: ");
+        Renderer.Output output = new Renderer.Output(builder, 10);
+        output.object(large);
+
+        assertTrue(output.isFull());
+        assertEquals("list: [7, 7, 7, ...", builder.toString());
+        assertTrue(visited.get() < 10);
+    }
+
+    @Test
+    public void testRegisteredRenderer() {
+        Renderers.register(Secret.class, (secret, output) -> output.append("Secret(***)"));
+
+        assertEquals("Secret(***)", Renderers.render(new Secret()));
+        // Subclasses inherit the renderer of the closest registered superclass
+        assertEquals("Secret(***)", Renderers.render(new Secret() {}));
+        assertEquals("user [Secret(***)]", ParameterizedMessage.of("user {}", Collections.singletonList(new Secret())).toString());
+    }
+
+    @Test
+    public void testFailingToString() {
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException();
+            }
+        };
+
+        assertEquals("[a, [FAILED toString()]]", Renderers.render(Arrays.asList("a", broken)));
+    }
+
+    private static class Secret {
+        @Override
+        public String toString() {
+            return "password";
+        }
+    }
+
+}
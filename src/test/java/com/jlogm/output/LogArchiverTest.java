@@ -0,0 +1,79 @@
+package com.jlogm.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LogArchiver}.
+ */
+public class LogArchiverTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testArchivesSurviveRestarts() throws Exception {
+        Path path = directory.resolve("app.log");
+        Path archive = directory.resolve("archive");
+
+        try (LogArchiver archiver = new LogArchiver(archive, true, 1)) {
+            // First run
+            try (MappedFileOutputStream output = new MappedFileOutputStream(path, 1024)) {
+                output.write("first".getBytes(StandardCharsets.UTF_8));
+                assertEquals(archive.resolve("app.log.1.gz"), archiver.archive(output.roll()).get());
+            }
+
+            // The roll indexes start over after a restart
+            try (MappedFileOutputStream output = new MappedFileOutputStream(path, 1024)) {
+                output.write("second".getBytes(StandardCharsets.UTF_8));
+
+                Path rolled = output.roll();
+                assertEquals(directory.resolve("app.log.1"), rolled);
+                assertEquals(archive.resolve("app.log.2.gz"), archiver.archive(rolled).get());
+            }
+        }
+
+        assertEquals("first", gunzip(archive.resolve("app.log.1.gz")));
+        assertEquals("second", gunzip(archive.resolve("app.log.2.gz")));
+        assertFalse(Files.exists(archive.resolve("app.log.2.gz.tmp")));
+    }
+
+    @Test
+    public void testMovesNeverReplace() throws Exception {
+        Path archive = Files.createDirectories(directory.resolve("archive"));
+        Files.write(archive.resolve("app.log.1"), "old".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("app.log.1"), "new".getBytes(StandardCharsets.UTF_8));
+
+        try (LogArchiver archiver = new LogArchiver(archive, false, 1)) {
+            assertEquals(archive.resolve("app.log.2"), archiver.archive(directory.resolve("app.log.1")).get());
+        }
+
+        assertEquals("old", new String(Files.readAllBytes(archive.resolve("app.log.1")), StandardCharsets.UTF_8));
+        assertEquals("new", new String(Files.readAllBytes(archive.resolve("app.log.2")), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(directory.resolve("app.log.1")));
+    }
+
+    private static String gunzip(Path path) throws IOException {
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(path))) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+
+            for (int read; (read = input.read(buffer)) != -1; ) {
+                output.write(buffer, 0, read);
+            }
+
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.jlogm.output;
+
+import com.jlogm.Logger;
+import com.jlogm.formatter.Formatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MappedFileOutputStream}.
+ */
+public class MappedFileOutputStreamTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWriteAcrossRegions() throws IOException {
+        Path path = directory.resolve("app.log");
+
+        try (MappedFileOutputStream output = new MappedFileOutputStream(path, 16)) {
+            output.write("0123456789".getBytes(StandardCharsets.UTF_8));
+            output.write("abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8));
+            output.write('!');
+
+            assertEquals(37, output.getPosition());
+        }
+
+        // Truncated back to the written length
+        assertEquals("0123456789abcdefghijklmnopqrstuvwxyz!", new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+
+        // Appends after the existing content
+        try (MappedFileOutputStream output = new MappedFileOutputStream(path, 16)) {
+            output.write('?');
+        }
+
+        assertEquals(38, Files.size(path));
+    }
+
+    @Test
+    public void testRollSize() throws IOException {
+        Path path = directory.resolve("app.log");
+
+        try (MappedFileOutputStream output = new MappedFileOutputStream(path, 16).rollSize(4)) {
+            output.write("abc".getBytes(StandardCharsets.UTF_8));
+            output.write("def".getBytes(StandardCharsets.UTF_8));
+            assertEquals(1, output.getRolls());
+
+            // Single bytes respect the roll size too
+            for (int index = 0; index < 5; index++) {
+                output.write('x');
+            }
+
+            assertEquals(2, output.getRolls());
+        }
+
+        assertEquals("abc", new String(Files.readAllBytes(directory.resolve("app.log.1")), StandardCharsets.UTF_8));
+        assertEquals("defx", new String(Files.readAllBytes(directory.resolve("app.log.2")), StandardCharsets.UTF_8));
+        assertEquals("xxxx", new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFailedRollKeepsWriting() throws IOException {
+        Path path = directory.resolve("app.log");
+
+        try (MappedFileOutputStream output = new MappedFileOutputStream(path, 16)) {
+            output.write("abc".getBytes(StandardCharsets.UTF_8));
+
+            // The open file can no longer be renamed
+            Files.delete(path);
+            assertThrows(IOException.class, output::roll);
+            assertEquals(0, output.getRolls());
+
+            // Still writes to the current file, across regions too
+            output.write("0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8));
+            output.force();
+
+            assertEquals(39, output.getPosition());
+        }
+
+        assertFalse(Files.exists(directory.resolve("app.log.1")));
+    }
+
+    @Test
+    public void testFormattedOutsideTheLock() throws IOException {
+        Path path = directory.resolve("app.log");
+        AtomicBoolean held = new AtomicBoolean(true);
+
+        try (MappedFileOutputStream output = new MappedFileOutputStream(path, 1024)) {
+            Formatter formatter = registry -> {
+                held.set(OutputLocks.of(output).isHeldByCurrentThread());
+                return "formatted\n";
+            };
+
+            Logger.create("test").output(output).formatter(formatter).info().log("message");
+        }
+
+        assertFalse(held.get());
+        assertEquals("formatted\n", new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    }
+
+}